@@ -0,0 +1,301 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.net.Uri;
+import android.os.Build;
+
+import androidx.exifinterface.media.ExifInterface;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Shared decode helpers for camera and gallery images: source resolution,
+ * bounds and EXIF reads without decoding pixels, subsample selection, and
+ * region decoding followed by a single rotate-and-scale draw.
+ * Also fetches and shrinks the small photos stored with contacts and cards.
+ */
+final class BitmapDecoding {
+
+    // A remote photo_url can point at anything; larger bodies are not worth decoding
+    private static final int MAX_DOWNLOAD_BYTES = 8 * 1024 * 1024;
+
+    private BitmapDecoding() {
+    }
+
+    /** Accepts content:// and file:// URIs as well as plain file paths. */
+    static Uri toUri(String source) {
+        Uri uri = Uri.parse(source);
+        return uri.getScheme() == null ? Uri.fromFile(new File(source)) : uri;
+    }
+
+    static InputStream open(Context context, Uri uri) throws IOException {
+        InputStream in = context.getContentResolver().openInputStream(uri);
+        if (in == null) {
+            throw new FileNotFoundException("Cannot open " + uri);
+        }
+        return in;
+    }
+
+    /** Raw (unrotated) dimensions, read from the header only. */
+    static BitmapFactory.Options readBounds(Context context, Uri uri) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(context, uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not a decodable image: " + uri);
+        }
+        return bounds;
+    }
+
+    /** Clockwise rotation in degrees from the EXIF orientation tag; mirroring is ignored. */
+    static int readRotation(Context context, Uri uri) {
+        try (InputStream in = open(context, uri)) {
+            ExifInterface exif = new ExifInterface(in);
+            return exif.getRotationDegrees();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Largest power-of-two sample size that keeps the decoded long edge at or
+     * above {@code targetLongEdge}. Power-of-two steps are what JPEG decoders
+     * can skip natively, so this is the cheapest part of the downscale.
+     */
+    static int sampleSize(int width, int height, int targetLongEdge) {
+        int longEdge = Math.max(width, height);
+        int sample = 1;
+        while (longEdge / (sample * 2) >= targetLongEdge) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    /**
+     * Maps a crop given in normalized display coordinates (after EXIF
+     * rotation) back to raw pixel coordinates of the encoded image.
+     */
+    static Rect toRawRect(float left, float top, float right, float bottom,
+                          int rawWidth, int rawHeight, int rotation) {
+        float l;
+        float t;
+        float r;
+        float b;
+        switch (rotation) {
+            case 90:
+                l = top;
+                t = 1f - right;
+                r = bottom;
+                b = 1f - left;
+                break;
+            case 180:
+                l = 1f - right;
+                t = 1f - bottom;
+                r = 1f - left;
+                b = 1f - top;
+                break;
+            case 270:
+                l = 1f - bottom;
+                t = left;
+                r = 1f - top;
+                b = right;
+                break;
+            default:
+                l = left;
+                t = top;
+                r = right;
+                b = bottom;
+                break;
+        }
+        Rect rect = new Rect(
+            Math.round(clamp(l) * rawWidth),
+            Math.round(clamp(t) * rawHeight),
+            Math.round(clamp(r) * rawWidth),
+            Math.round(clamp(b) * rawHeight));
+        if (rect.width() <= 0 || rect.height() <= 0) {
+            rect.set(0, 0, rawWidth, rawHeight);
+        }
+        return rect;
+    }
+
+    /** Decodes only {@code region}, subsampled as far as the target size allows. */
+    static Bitmap decodeRegion(Context context, Uri uri, Rect region, BitmapFactory.Options bounds,
+                               int maxEdge) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(region.width(), region.height(), maxEdge);
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+
+        boolean fullFrame = region.left == 0 && region.top == 0
+            && region.right == bounds.outWidth && region.bottom == bounds.outHeight;
+
+        Bitmap bitmap;
+        try (InputStream in = open(context, uri)) {
+            if (fullFrame) {
+                bitmap = BitmapFactory.decodeStream(in, null, options);
+            } else {
+                BitmapRegionDecoder decoder = newRegionDecoder(in);
+                try {
+                    bitmap = decoder.decodeRegion(region, options);
+                } finally {
+                    decoder.recycle();
+                }
+            }
+        }
+        if (bitmap == null) {
+            throw new IOException("Failed to decode " + uri);
+        }
+        return bitmap;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static BitmapRegionDecoder newRegionDecoder(InputStream in) throws IOException {
+        // isShareable is ignored from API 31 on, and the overload taking it is deprecated
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.S
+            ? BitmapRegionDecoder.newInstance(in)
+            : BitmapRegionDecoder.newInstance(in, false);
+    }
+
+    /**
+     * Rotates upright and scales to {@code maxEdge} (never up) in one filtered
+     * draw, applying {@code filter} on the way when it is not null.
+     */
+    static Bitmap uprightScaled(Bitmap source, int rotation, int maxEdge, ColorFilter filter) {
+        boolean swap = rotation == 90 || rotation == 270;
+        int uprightWidth = swap ? source.getHeight() : source.getWidth();
+        int uprightHeight = swap ? source.getWidth() : source.getHeight();
+        float scale = Math.min(1f, (float) maxEdge / Math.max(uprightWidth, uprightHeight));
+        int width = Math.max(1, Math.round(uprightWidth * scale));
+        int height = Math.max(1, Math.round(uprightHeight * scale));
+
+        Matrix matrix = new Matrix();
+        matrix.postRotate(rotation);
+        // Rotation about the origin moves the image out of the positive quadrant; shift it back
+        switch (rotation) {
+            case 90:
+                matrix.postTranslate(source.getHeight(), 0);
+                break;
+            case 180:
+                matrix.postTranslate(source.getWidth(), source.getHeight());
+                break;
+            case 270:
+                matrix.postTranslate(0, source.getWidth());
+                break;
+            default:
+                break;
+        }
+        matrix.postScale((float) width / uprightWidth, (float) height / uprightHeight);
+
+        Bitmap output = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.DITHER_FLAG);
+        paint.setColorFilter(filter);
+        new Canvas(output).drawBitmap(source, matrix, paint);
+        return output;
+    }
+
+    /**
+     * Loads a photo from an http(s) URL, content:// or file URI or plain path
+     * and re-encodes it as a JPEG no larger than {@code maxEdge}. Returns
+     * {@code null} when the source does not decode.
+     */
+    static byte[] fetchJpeg(Context context, String source, int maxEdge, int quality, int timeoutMs)
+            throws IOException {
+        Bitmap bitmap;
+        if (source.startsWith("http://") || source.startsWith("https://")) {
+            bitmap = decodeRemote(source, maxEdge, timeoutMs);
+        } else {
+            bitmap = decodeLocal(context, source, maxEdge);
+        }
+        if (bitmap == null) {
+            return null;
+        }
+        try {
+            float scale = Math.min(1f, (float) maxEdge / Math.max(bitmap.getWidth(), bitmap.getHeight()));
+            Bitmap scaled = scale < 1f
+                ? Bitmap.createScaledBitmap(bitmap, Math.round(bitmap.getWidth() * scale),
+                    Math.round(bitmap.getHeight() * scale), true)
+                : bitmap;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            scaled.compress(Bitmap.CompressFormat.JPEG, quality, out);
+            if (scaled != bitmap) {
+                scaled.recycle();
+            }
+            return out.toByteArray();
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    /** Downloads and decodes {@code url}, subsampled like {@link #decodeLocal}. */
+    private static Bitmap decodeRemote(String url, int maxEdge, int timeoutMs) throws IOException {
+        byte[] body = download(url, timeoutMs);
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(body, 0, body.length, bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            return null;
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(bounds.outWidth, bounds.outHeight, maxEdge);
+        return BitmapFactory.decodeByteArray(body, 0, body.length, options);
+    }
+
+    /** The response body of a 200, refused above {@link #MAX_DOWNLOAD_BYTES}. */
+    private static byte[] download(String url, int timeoutMs) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            connection.setConnectTimeout(timeoutMs);
+            connection.setReadTimeout(timeoutMs);
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + status + " for " + url);
+            }
+            if (connection.getContentLengthLong() > MAX_DOWNLOAD_BYTES) {
+                throw new IOException("Photo too large: " + url);
+            }
+            try (InputStream in = connection.getInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (out.size() + read > MAX_DOWNLOAD_BYTES) {
+                        throw new IOException("Photo too large: " + url);
+                    }
+                    out.write(buffer, 0, read);
+                }
+                return out.toByteArray();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static Bitmap decodeLocal(Context context, String source, int maxEdge) throws IOException {
+        Uri uri = toUri(source);
+        BitmapFactory.Options bounds = readBounds(context, uri);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(bounds.outWidth, bounds.outHeight, maxEdge);
+        try (InputStream in = open(context, uri)) {
+            return BitmapFactory.decodeStream(in, null, options);
+        }
+    }
+
+    private static float clamp(float value) {
+        return Math.max(0f, Math.min(1f, value));
+    }
+}
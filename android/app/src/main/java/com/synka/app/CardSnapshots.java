@@ -0,0 +1,88 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.synka.app.card.CardSnapshot;
+import com.synka.app.card.CardSnapshotStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The app's {@link CardSnapshotStore}: names, titles and avatars for the
+ * widget, QuickShare screen and watch, written by {@link WidgetBridgePlugin}
+ * and {@link SynkaMessagingService}.
+ */
+final class CardSnapshots {
+
+    private static final String TAG = "CardSnapshots";
+    private static final String FILE_NAME = "card_snapshots.bin";
+
+    // Largest avatar any native surface draws; keeps each card record a few KB
+    private static final int AVATAR_EDGE = 128;
+    private static final int AVATAR_QUALITY = 80;
+    private static final int AVATAR_TIMEOUT_MS = 8000;
+
+    private static CardSnapshotStore store;
+
+    private CardSnapshots() {
+    }
+
+    static synchronized CardSnapshotStore get(Context context) {
+        if (store == null) {
+            store = new CardSnapshotStore(new File(context.getApplicationContext().getNoBackupFilesDir(), FILE_NAME));
+        }
+        return store;
+    }
+
+    /** Card to show on native surfaces, or {@code null} when none is stored or it is unreadable. */
+    static CardSnapshot active(Context context) {
+        try {
+            return get(context).read().getActive();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read card snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Stores an already downsized local image, recorded under {@code url} so it is not fetched again. */
+    static void useLocalAvatar(Context context, CardSnapshot.Builder builder, String path, String url) {
+        if (path == null || path.isEmpty()) {
+            builder.setAvatar(null, null);
+            return;
+        }
+        try (InputStream in = BitmapDecoding.open(context, BitmapDecoding.toUri(path))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            builder.setAvatar(out.toByteArray(), url != null ? url : path);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read card avatar: " + e.getMessage());
+        }
+    }
+
+    /** Keeps the stored avatar when the URL is unchanged or the new one cannot be fetched. */
+    static void updateAvatar(Context context, CardSnapshot.Builder builder, CardSnapshot existing, String url) {
+        if (url == null || url.isEmpty()) {
+            builder.setAvatar(null, null);
+            return;
+        }
+        if (existing != null && url.equals(existing.getAvatarSource())) {
+            return;
+        }
+        try {
+            byte[] avatar = BitmapDecoding.fetchJpeg(context, url, AVATAR_EDGE, AVATAR_QUALITY, AVATAR_TIMEOUT_MS);
+            if (avatar != null) {
+                builder.setAvatar(avatar, url);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to fetch card avatar: " + e.getMessage());
+        }
+    }
+}
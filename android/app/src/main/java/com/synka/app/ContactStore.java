@@ -0,0 +1,366 @@
+package com.synka.app;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import com.synka.app.crm.FtsQuery;
+import com.synka.app.crm.MatchRanker;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-device copy of the signed-in user's CRM contacts.
+ *
+ * Each contact is kept as the JSON the web app already renders, next to an
+ * FTS4 index over the fields the CRM searches. Rows arrive as deltas since
+ * a server cursor and leave as ranked pages, so opening the CRM needs no
+ * network and search cost follows the index rather than the contact count.
+ *
+ * The store holds one owner at a time; asking for another owner's state
+ * wipes it, which covers sign-out and account switches.
+ *
+ * Not thread safe on its own; {@link ContactStorePlugin} calls it from one
+ * executor.
+ */
+final class ContactStore extends SQLiteOpenHelper {
+
+    private static final String TAG = "ContactStore";
+    private static final String DATABASE = "crm_contacts.db";
+    private static final int VERSION = 1;
+
+    private static final String CONTACTS = "contacts";
+    private static final String INDEX = "contacts_fts";
+    private static final String STATE = "sync_state";
+
+    // FTS columns and their BM25 weights, in table order
+    private static final String[] INDEX_COLUMNS = {"name", "company", "designation", "email", "tags", "notes"};
+    private static final MatchRanker RANKER = new MatchRanker(4.0, 2.0, 1.5, 1.0, 2.0, 0.5);
+
+    static final class Page {
+        final List<String> ids;
+        final List<String> json;
+        final int total;
+
+        Page(List<String> ids, List<String> json, int total) {
+            this.ids = ids;
+            this.json = json;
+            this.total = total;
+        }
+    }
+
+    static final class SyncState {
+        final String cursor;
+        final int count;
+
+        SyncState(String cursor, int count) {
+            this.cursor = cursor;
+            this.count = count;
+        }
+    }
+
+    private static final class Hit {
+        final long rowId;
+        final double score;
+
+        Hit(long rowId, double score) {
+            this.rowId = rowId;
+            this.score = score;
+        }
+    }
+
+    ContactStore(Context context) {
+        // No-backup storage: the server is the source of truth and a restored copy would be stale
+        super(context.getApplicationContext(), context.getNoBackupFilesDir() + "/" + DATABASE, null, VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        // Explicit rowid alias: the FTS docid must survive VACUUM
+        db.execSQL("CREATE TABLE " + CONTACTS + " ("
+            + "_id INTEGER PRIMARY KEY, "
+            + "id TEXT NOT NULL UNIQUE, "
+            + "created_at TEXT, "
+            + "json TEXT NOT NULL)");
+        db.execSQL("CREATE INDEX contacts_created_at ON " + CONTACTS + " (created_at)");
+        String columns = String.join(", ", INDEX_COLUMNS);
+        try {
+            // unicode61 folds case and diacritics beyond ASCII
+            db.execSQL("CREATE VIRTUAL TABLE " + INDEX + " USING fts4("
+                + columns + ", tokenize=unicode61 \"remove_diacritics=1\")");
+        } catch (SQLiteException e) {
+            Log.w(TAG, "unicode61 unavailable, using the simple tokenizer: " + e.getMessage());
+            db.execSQL("CREATE VIRTUAL TABLE " + INDEX + " USING fts4(" + columns + ")");
+        }
+        db.execSQL("CREATE TABLE " + STATE + " ("
+            + "owner_id TEXT NOT NULL, "
+            + "cursor TEXT)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Only a cache of server data: rebuild and let the next sync refill it
+        db.execSQL("DROP TABLE IF EXISTS " + CONTACTS);
+        db.execSQL("DROP TABLE IF EXISTS " + INDEX);
+        db.execSQL("DROP TABLE IF EXISTS " + STATE);
+        onCreate(db);
+    }
+
+    /**
+     * The cursor and contact count stored for {@code ownerId}. Data held for
+     * any other owner is discarded first.
+     */
+    SyncState getSyncState(String ownerId) {
+        SQLiteDatabase db = getWritableDatabase();
+        String storedOwner = null;
+        String cursor = null;
+        try (Cursor state = db.rawQuery("SELECT owner_id, cursor FROM " + STATE + " LIMIT 1", null)) {
+            if (state.moveToFirst()) {
+                storedOwner = state.getString(0);
+                cursor = state.getString(1);
+            }
+        }
+        if (!ownerId.equals(storedOwner)) {
+            reset(db, ownerId);
+            return new SyncState(null, 0);
+        }
+        return new SyncState(cursor, (int) DatabaseUtils.queryNumEntries(db, CONTACTS));
+    }
+
+    /**
+     * Applies one sync delta in a single transaction: {@code upserts} replace
+     * stored contacts by id, {@code deletes} drop them, and when
+     * {@code retainIds} is given every contact not listed is dropped too.
+     * {@code cursor}, when given, is stored for the next delta.
+     *
+     * @return the number of contacts stored afterwards
+     */
+    int applyDelta(String ownerId, JSONArray upserts, Collection<String> deletes,
+                   Collection<String> retainIds, String cursor) throws JSONException {
+        SQLiteDatabase db = getWritableDatabase();
+        getSyncState(ownerId);
+        db.beginTransaction();
+        try (SQLiteStatement findRow = db.compileStatement(
+                "SELECT _id FROM " + CONTACTS + " WHERE id = ?")) {
+            for (int i = 0; i < upserts.length(); i++) {
+                upsert(db, findRow, upserts.getJSONObject(i));
+            }
+            for (String id : deletes) {
+                delete(db, findRow, id);
+            }
+            if (retainIds != null) {
+                retainOnly(db, retainIds);
+            }
+            if (cursor != null) {
+                ContentValues state = new ContentValues();
+                state.put("cursor", cursor);
+                db.update(STATE, state, null, null);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return (int) DatabaseUtils.queryNumEntries(db, CONTACTS);
+    }
+
+    /**
+     * One page of contacts. With a search {@code text} the page is ranked by
+     * BM25 over the index; without one it is newest first, as the CRM lists
+     * them. {@code withJson} false returns ids only.
+     */
+    Page query(String ownerId, String text, int limit, int offset, boolean withJson) {
+        getSyncState(ownerId);
+        SQLiteDatabase db = getReadableDatabase();
+        String match = FtsQuery.build(text);
+        if (match == null) {
+            return newestFirst(db, limit, offset, withJson);
+        }
+        List<Hit> hits = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery(
+                "SELECT docid, matchinfo(" + INDEX + ", '" + MatchRanker.MATCHINFO_FORMAT + "') FROM "
+                    + INDEX + " WHERE " + INDEX + " MATCH ?",
+                new String[] {match})) {
+            while (cursor.moveToNext()) {
+                int[] info = MatchRanker.parse(cursor.getBlob(1), ByteOrder.nativeOrder());
+                hits.add(new Hit(cursor.getLong(0), RANKER.score(info)));
+            }
+        }
+        // Equal scores keep insertion order, which is stable across pages
+        Collections.sort(hits, (a, b) -> Double.compare(b.score, a.score));
+
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(from + limit, hits.size());
+        List<Long> rowIds = new ArrayList<>(to - from);
+        for (Hit hit : hits.subList(from, to)) {
+            rowIds.add(hit.rowId);
+        }
+        return load(db, rowIds, withJson, hits.size());
+    }
+
+    private Page newestFirst(SQLiteDatabase db, int limit, int offset, boolean withJson) {
+        int total = (int) DatabaseUtils.queryNumEntries(db, CONTACTS);
+        List<String> ids = new ArrayList<>();
+        List<String> json = withJson ? new ArrayList<>() : null;
+        String columns = withJson ? "id, json" : "id";
+        try (Cursor cursor = db.rawQuery(
+                "SELECT " + columns + " FROM " + CONTACTS
+                    + " ORDER BY created_at DESC, _id DESC LIMIT ? OFFSET ?",
+                new String[] {String.valueOf(limit), String.valueOf(offset)})) {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getString(0));
+                if (withJson) {
+                    json.add(cursor.getString(1));
+                }
+            }
+        }
+        return new Page(ids, json, total);
+    }
+
+    /** Rows for {@code rowIds}, returned in that order. */
+    private Page load(SQLiteDatabase db, List<Long> rowIds, boolean withJson, int total) {
+        List<String> ids = new ArrayList<>(Collections.nCopies(rowIds.size(), (String) null));
+        List<String> json = withJson ? new ArrayList<>(Collections.nCopies(rowIds.size(), (String) null)) : null;
+        if (!rowIds.isEmpty()) {
+            Map<Long, Integer> positions = new HashMap<>();
+            StringBuilder in = new StringBuilder();
+            for (int i = 0; i < rowIds.size(); i++) {
+                positions.put(rowIds.get(i), i);
+                in.append(i == 0 ? "" : ",").append(rowIds.get(i));
+            }
+            String columns = withJson ? "_id, id, json" : "_id, id";
+            try (Cursor cursor = db.rawQuery(
+                    "SELECT " + columns + " FROM " + CONTACTS + " WHERE _id IN (" + in + ")", null)) {
+                while (cursor.moveToNext()) {
+                    int position = positions.get(cursor.getLong(0));
+                    ids.set(position, cursor.getString(1));
+                    if (withJson) {
+                        json.set(position, cursor.getString(2));
+                    }
+                }
+            }
+        }
+        return new Page(ids, json, total);
+    }
+
+    private static void upsert(SQLiteDatabase db, SQLiteStatement findRow, JSONObject contact) throws JSONException {
+        String id = contact.getString("id");
+        ContentValues row = new ContentValues();
+        row.put("id", id);
+        row.put("created_at", optText(contact, "created_at"));
+        row.put("json", contact.toString());
+
+        ContentValues index = new ContentValues();
+        index.put("name", optText(contact, "name"));
+        index.put("company", optText(contact, "company"));
+        index.put("designation", optText(contact, "designation"));
+        index.put("email", optText(contact, "email"));
+        index.put("tags", joinField(contact.optJSONArray("tags"), "name"));
+        index.put("notes", notesText(contact));
+
+        Long rowId = findRowId(findRow, id);
+        if (rowId == null) {
+            rowId = db.insertOrThrow(CONTACTS, null, row);
+            index.put("docid", rowId);
+            db.insertOrThrow(INDEX, null, index);
+        } else {
+            String[] args = {String.valueOf(rowId)};
+            db.update(CONTACTS, row, "_id = ?", args);
+            db.update(INDEX, index, "docid = ?", args);
+        }
+    }
+
+    private static void delete(SQLiteDatabase db, SQLiteStatement findRow, String id) {
+        Long rowId = findRowId(findRow, id);
+        if (rowId != null) {
+            String[] args = {String.valueOf(rowId)};
+            db.delete(INDEX, "docid = ?", args);
+            db.delete(CONTACTS, "_id = ?", args);
+        }
+    }
+
+    private static void retainOnly(SQLiteDatabase db, Collection<String> retainIds) {
+        db.execSQL("CREATE TEMP TABLE IF NOT EXISTS retain_ids (id TEXT PRIMARY KEY)");
+        db.execSQL("DELETE FROM retain_ids");
+        try (SQLiteStatement insert = db.compileStatement("INSERT OR IGNORE INTO retain_ids (id) VALUES (?)")) {
+            for (String id : retainIds) {
+                insert.bindString(1, id);
+                insert.executeInsert();
+            }
+        }
+        String stale = "SELECT _id FROM " + CONTACTS + " WHERE id NOT IN (SELECT id FROM retain_ids)";
+        db.execSQL("DELETE FROM " + INDEX + " WHERE docid IN (" + stale + ")");
+        db.execSQL("DELETE FROM " + CONTACTS + " WHERE _id IN (" + stale + ")");
+        db.execSQL("DELETE FROM retain_ids");
+    }
+
+    private static void reset(SQLiteDatabase db, String ownerId) {
+        db.beginTransaction();
+        try {
+            db.delete(INDEX, null, null);
+            db.delete(CONTACTS, null, null);
+            db.delete(STATE, null, null);
+            ContentValues state = new ContentValues();
+            state.put("owner_id", ownerId);
+            db.insertOrThrow(STATE, null, state);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static Long findRowId(SQLiteStatement findRow, String id) {
+        findRow.bindString(1, id);
+        try {
+            return findRow.simpleQueryForLong();
+        } catch (SQLiteDoneException e) {
+            return null;
+        }
+    }
+
+    // JSONObject.optString turns JSON null into "null"
+    private static String optText(JSONObject object, String key) {
+        return object.isNull(key) ? null : object.optString(key, null);
+    }
+
+    private static String joinField(JSONArray items, String key) {
+        if (items == null) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < items.length(); i++) {
+            JSONObject item = items.optJSONObject(i);
+            String value = item == null ? null : optText(item, key);
+            if (value != null) {
+                text.append(text.length() == 0 ? "" : " ").append(value);
+            }
+        }
+        return text.length() == 0 ? null : text.toString();
+    }
+
+    /** The current note plus every note in the history. */
+    private static String notesText(JSONObject contact) {
+        String history = joinField(contact.optJSONArray("notes_history"), "text");
+        String notes = optText(contact, "notes");
+        if (notes == null) {
+            return history;
+        }
+        return history == null ? notes : notes + " " + history;
+    }
+}
@@ -0,0 +1,152 @@
+package com.synka.app;
+
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bridge to {@link ContactStore}, the on-device CRM contact index.
+ *
+ * JS pushes deltas fetched from the backend and reads contacts back a page
+ * at a time, either newest first or ranked for a search query. Every call
+ * runs on one background thread, which also serializes database access.
+ */
+@CapacitorPlugin(name = "ContactStore")
+public class ContactStorePlugin extends Plugin {
+
+    private static final String TAG = "ContactStorePlugin";
+    private static final int DEFAULT_LIMIT = 100;
+    // Keeps one page's JSON well inside what the bridge hands over comfortably
+    private static final int MAX_LIMIT = 500;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private ContactStore store;
+
+    @Override
+    public void load() {
+        store = new ContactStore(getContext());
+    }
+
+    /**
+     * Resolves with {cursor, count} for {@code ownerId}: the cursor passed
+     * with the last applied delta (null before the first sync) and the
+     * number of contacts stored. A different owner's data is wiped.
+     */
+    @PluginMethod
+    public void getSyncState(PluginCall call) {
+        String ownerId = call.getString("ownerId");
+        if (ownerId == null) {
+            call.reject("ownerId is required");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                ContactStore.SyncState state = store.getSyncState(ownerId);
+                JSObject result = new JSObject();
+                result.put("cursor", state.cursor);
+                result.put("count", state.count);
+                call.resolve(result);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to read sync state", e);
+                call.reject("Failed to read sync state: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Applies {upserts, deletes?, retainIds?, cursor?} for {@code ownerId}
+     * in one transaction. Upserts are contacts as the CRM renders them,
+     * tags and notes_history included. With retainIds, stored contacts not
+     * listed are deleted too. Resolves with {count}.
+     */
+    @PluginMethod
+    public void applyDelta(PluginCall call) {
+        String ownerId = call.getString("ownerId");
+        if (ownerId == null) {
+            call.reject("ownerId is required");
+            return;
+        }
+        JSArray upserts = call.getArray("upserts", new JSArray());
+        List<String> deletes = strings(call.getArray("deletes"));
+        JSArray retain = call.getArray("retainIds");
+        List<String> retainIds = retain == null ? null : strings(retain);
+        String cursor = call.getString("cursor");
+        executor.execute(() -> {
+            try {
+                int count = store.applyDelta(ownerId, upserts, deletes, retainIds, cursor);
+                JSObject result = new JSObject();
+                result.put("count", count);
+                call.resolve(result);
+            } catch (JSONException | RuntimeException e) {
+                Log.e(TAG, "Failed to apply contact delta", e);
+                call.reject("Failed to apply contact delta: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * One page of {@code ownerId}'s contacts: ranked by relevance when
+     * {@code query} has words to search for, newest first otherwise.
+     * Resolves with {ids, contacts, total}; {@code idsOnly} leaves out
+     * contacts for callers that already hold them.
+     */
+    @PluginMethod
+    public void query(PluginCall call) {
+        String ownerId = call.getString("ownerId");
+        if (ownerId == null) {
+            call.reject("ownerId is required");
+            return;
+        }
+        String text = call.getString("query");
+        int limit = Math.max(1, Math.min(call.getInt("limit", DEFAULT_LIMIT), MAX_LIMIT));
+        int offset = Math.max(0, call.getInt("offset", 0));
+        boolean idsOnly = Boolean.TRUE.equals(call.getBoolean("idsOnly", false));
+        executor.execute(() -> {
+            try {
+                ContactStore.Page page = store.query(ownerId, text, limit, offset, !idsOnly);
+                JSObject result = new JSObject();
+                result.put("ids", new JSArray(page.ids));
+                if (!idsOnly) {
+                    JSArray contacts = new JSArray();
+                    for (String json : page.json) {
+                        contacts.put(new JSObject(json));
+                    }
+                    result.put("contacts", contacts);
+                }
+                result.put("total", page.total);
+                call.resolve(result);
+            } catch (JSONException | RuntimeException e) {
+                Log.e(TAG, "Contact query failed", e);
+                call.reject("Contact query failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private static List<String> strings(JSONArray array) {
+        if (array == null) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            String value = array.optString(i, null);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+}
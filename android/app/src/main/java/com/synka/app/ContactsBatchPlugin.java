@@ -0,0 +1,460 @@
+package com.synka.app;
+
+import android.Manifest;
+import android.content.ContentProviderOperation;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.OperationApplicationException;
+import android.database.Cursor;
+import android.os.RemoteException;
+import android.provider.ContactsContract;
+import android.provider.ContactsContract.CommonDataKinds;
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PermissionState;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.CapacitorPlugin;
+import com.getcapacitor.annotation.Permission;
+import com.getcapacitor.annotation.PermissionCallback;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk import into and export out of the device address book.
+ *
+ * Writes go through chunked {@link ContentResolver#applyBatch} transactions,
+ * one transaction per chunk instead of one provider round trip per field,
+ * with photos fetched in parallel ahead of each chunk. Reads walk a single
+ * Data cursor ordered by contact and hand results to JS a page at a time
+ * through events. Everything runs off the main thread.
+ */
+@CapacitorPlugin(
+    name = "ContactsBatch",
+    permissions = {
+        @Permission(
+            strings = { Manifest.permission.READ_CONTACTS, Manifest.permission.WRITE_CONTACTS },
+            alias = ContactsBatchPlugin.CONTACTS
+        )
+    }
+)
+public class ContactsBatchPlugin extends Plugin {
+
+    private static final String TAG = "ContactsBatchPlugin";
+    static final String CONTACTS = "contacts";
+
+    private static final int DEFAULT_CHUNK_SIZE = 50;
+    private static final int DEFAULT_PAGE_SIZE = 200;
+    // Keeps a chunk's photo blobs well under the 1MB binder transaction limit
+    private static final int MAX_CHUNK_PHOTO_BYTES = 384 * 1024;
+    private static final int PHOTO_EDGE = 512;
+    private static final int PHOTO_QUALITY = 80;
+    private static final int PHOTO_TIMEOUT_MS = 8000;
+
+    private static final String[] READ_PROJECTION = {
+        ContactsContract.Data.CONTACT_ID,
+        ContactsContract.Data.MIMETYPE,
+        ContactsContract.Data.DISPLAY_NAME_PRIMARY,
+        ContactsContract.Data.DATA1,
+        ContactsContract.Data.DATA4,
+    };
+
+    private static final String READ_SELECTION = ContactsContract.Data.MIMETYPE + " IN (?, ?, ?, ?, ?, ?)";
+
+    // StructuredName carries no field of its own but keeps name-only contacts in the result
+    private static final String[] READ_MIMETYPES = {
+        CommonDataKinds.StructuredName.CONTENT_ITEM_TYPE,
+        CommonDataKinds.Phone.CONTENT_ITEM_TYPE,
+        CommonDataKinds.Email.CONTENT_ITEM_TYPE,
+        CommonDataKinds.Organization.CONTENT_ITEM_TYPE,
+        CommonDataKinds.Website.CONTENT_ITEM_TYPE,
+        CommonDataKinds.Note.CONTENT_ITEM_TYPE,
+    };
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ExecutorService photoExecutor = Executors.newFixedThreadPool(4);
+
+    /**
+     * Saves {@code contacts} ([{name, company, designation, phone, whatsapp,
+     * email, website, about, photoUrl}]) to the device, emitting saveProgress
+     * after every chunk. Resolves with {saved, failed}.
+     */
+    @PluginMethod
+    public void saveContacts(PluginCall call) {
+        if (getPermissionState(CONTACTS) != PermissionState.GRANTED) {
+            requestPermissionForAlias(CONTACTS, call, "saveContactsPermsCallback");
+            return;
+        }
+        JSArray contacts = call.getArray("contacts");
+        if (contacts == null) {
+            call.reject("contacts is required");
+            return;
+        }
+        int chunkSize = Math.max(1, call.getInt("chunkSize", DEFAULT_CHUNK_SIZE));
+        executor.execute(() -> saveAll(call, contacts, chunkSize));
+    }
+
+    /**
+     * Streams the address book as contactsPage events ({page, contacts}) of
+     * up to {@code pageSize} contacts. Resolves with {total, pages} once the
+     * last page has been sent.
+     */
+    @PluginMethod
+    public void readContacts(PluginCall call) {
+        if (getPermissionState(CONTACTS) != PermissionState.GRANTED) {
+            requestPermissionForAlias(CONTACTS, call, "readContactsPermsCallback");
+            return;
+        }
+        int pageSize = Math.max(1, call.getInt("pageSize", DEFAULT_PAGE_SIZE));
+        executor.execute(() -> readAll(call, pageSize));
+    }
+
+    @PermissionCallback
+    private void saveContactsPermsCallback(PluginCall call) {
+        if (getPermissionState(CONTACTS) != PermissionState.GRANTED) {
+            call.reject("Contacts permission denied");
+            return;
+        }
+        saveContacts(call);
+    }
+
+    @PermissionCallback
+    private void readContactsPermsCallback(PluginCall call) {
+        if (getPermissionState(CONTACTS) != PermissionState.GRANTED) {
+            call.reject("Contacts permission denied");
+            return;
+        }
+        readContacts(call);
+    }
+
+    private void saveAll(PluginCall call, JSArray contacts, int chunkSize) {
+        ContentResolver resolver = getContext().getContentResolver();
+        int total = contacts.length();
+        int saved = 0;
+        int failed = 0;
+
+        for (int start = 0; start < total; ) {
+            int end = Math.min(start + chunkSize, total);
+            List<JSONObject> chunk = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                JSONObject contact = contacts.optJSONObject(i);
+                if (contact == null || contact.optString("name", "").trim().isEmpty()) {
+                    failed++;
+                } else {
+                    chunk.add(contact);
+                }
+            }
+
+            List<byte[]> photos = fetchPhotos(chunk);
+            if (photos == null) {
+                call.reject("Saving contacts was interrupted after " + saved + " contacts");
+                return;
+            }
+            int photoBytes = 0;
+            ArrayList<ContentProviderOperation> ops = new ArrayList<>();
+            List<JSONObject> pending = new ArrayList<>();
+            List<byte[]> pendingPhotos = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                byte[] photo = photos.get(i);
+                int size = photo == null ? 0 : photo.length;
+                if (!pending.isEmpty() && photoBytes + size > MAX_CHUNK_PHOTO_BYTES) {
+                    int applied = apply(resolver, ops, pending, pendingPhotos);
+                    saved += applied;
+                    failed += pending.size() - applied;
+                    ops.clear();
+                    pending.clear();
+                    pendingPhotos.clear();
+                    photoBytes = 0;
+                }
+                addInsertOps(ops, chunk.get(i), photo);
+                pending.add(chunk.get(i));
+                pendingPhotos.add(photo);
+                photoBytes += size;
+            }
+            if (!pending.isEmpty()) {
+                int applied = apply(resolver, ops, pending, pendingPhotos);
+                saved += applied;
+                failed += pending.size() - applied;
+            }
+
+            start = end;
+            JSObject progress = new JSObject();
+            progress.put("saved", saved);
+            progress.put("failed", failed);
+            progress.put("total", total);
+            notifyListeners("saveProgress", progress);
+        }
+
+        JSObject result = new JSObject();
+        result.put("saved", saved);
+        result.put("failed", failed);
+        call.resolve(result);
+    }
+
+    /**
+     * Applies one transaction. If it fails, retries contact by contact so a
+     * single bad record only costs itself. Returns how many were written.
+     *
+     * The ops carry no yield points, so a failed transaction leaves nothing
+     * behind and the retry cannot duplicate contacts. Chunks are bounded by
+     * count and photo bytes, small enough not to need yielding.
+     */
+    private static int apply(ContentResolver resolver, ArrayList<ContentProviderOperation> ops,
+                             List<JSONObject> contacts, List<byte[]> photos) {
+        try {
+            resolver.applyBatch(ContactsContract.AUTHORITY, ops);
+            return contacts.size();
+        } catch (RemoteException | OperationApplicationException e) {
+            Log.w(TAG, "Batch of " + contacts.size() + " failed, retrying one by one: " + e.getMessage());
+        }
+        if (contacts.size() == 1) {
+            return 0;
+        }
+        int applied = 0;
+        for (int i = 0; i < contacts.size(); i++) {
+            ArrayList<ContentProviderOperation> single = new ArrayList<>();
+            addInsertOps(single, contacts.get(i), photos.get(i));
+            try {
+                resolver.applyBatch(ContactsContract.AUTHORITY, single);
+                applied++;
+            } catch (RemoteException | OperationApplicationException e) {
+                Log.w(TAG, "Failed to save contact: " + e.getMessage());
+            }
+        }
+        return applied;
+    }
+
+    /** Appends the raw contact insert and its data rows, back-referencing the raw contact. */
+    private static void addInsertOps(ArrayList<ContentProviderOperation> ops, JSONObject contact, byte[] photo) {
+        int rawIndex = ops.size();
+        ops.add(ContentProviderOperation.newInsert(ContactsContract.RawContacts.CONTENT_URI)
+            .withValue(ContactsContract.RawContacts.ACCOUNT_TYPE, null)
+            .withValue(ContactsContract.RawContacts.ACCOUNT_NAME, null)
+            .build());
+
+        ops.add(data(rawIndex, CommonDataKinds.StructuredName.CONTENT_ITEM_TYPE)
+            .withValue(CommonDataKinds.StructuredName.DISPLAY_NAME, contact.optString("name").trim())
+            .build());
+
+        String phone = text(contact, "phone");
+        String whatsapp = text(contact, "whatsapp");
+        if (phone != null) {
+            ops.add(data(rawIndex, CommonDataKinds.Phone.CONTENT_ITEM_TYPE)
+                .withValue(CommonDataKinds.Phone.NUMBER, phone)
+                .withValue(CommonDataKinds.Phone.TYPE, CommonDataKinds.Phone.TYPE_MOBILE)
+                .build());
+        }
+        if (whatsapp != null && !whatsapp.equals(phone)) {
+            ops.add(data(rawIndex, CommonDataKinds.Phone.CONTENT_ITEM_TYPE)
+                .withValue(CommonDataKinds.Phone.NUMBER, whatsapp)
+                .withValue(CommonDataKinds.Phone.TYPE, CommonDataKinds.Phone.TYPE_MOBILE)
+                .build());
+        }
+
+        String email = text(contact, "email");
+        if (email != null) {
+            ops.add(data(rawIndex, CommonDataKinds.Email.CONTENT_ITEM_TYPE)
+                .withValue(CommonDataKinds.Email.ADDRESS, email)
+                .withValue(CommonDataKinds.Email.TYPE, CommonDataKinds.Email.TYPE_WORK)
+                .build());
+        }
+
+        String company = text(contact, "company");
+        String designation = text(contact, "designation");
+        if (company != null || designation != null) {
+            ops.add(data(rawIndex, CommonDataKinds.Organization.CONTENT_ITEM_TYPE)
+                .withValue(CommonDataKinds.Organization.COMPANY, company)
+                .withValue(CommonDataKinds.Organization.TITLE, designation)
+                .withValue(CommonDataKinds.Organization.TYPE, CommonDataKinds.Organization.TYPE_WORK)
+                .build());
+        }
+
+        String website = text(contact, "website");
+        if (website != null) {
+            ops.add(data(rawIndex, CommonDataKinds.Website.CONTENT_ITEM_TYPE)
+                .withValue(CommonDataKinds.Website.URL, website.startsWith("http") ? website : "https://" + website)
+                .withValue(CommonDataKinds.Website.TYPE, CommonDataKinds.Website.TYPE_WORK)
+                .build());
+        }
+
+        String about = text(contact, "about");
+        if (about != null) {
+            ops.add(data(rawIndex, CommonDataKinds.Note.CONTENT_ITEM_TYPE)
+                .withValue(CommonDataKinds.Note.NOTE, about)
+                .build());
+        }
+
+        if (photo != null) {
+            ops.add(data(rawIndex, CommonDataKinds.Photo.CONTENT_ITEM_TYPE)
+                .withValue(CommonDataKinds.Photo.PHOTO, photo)
+                .build());
+        }
+    }
+
+    private static ContentProviderOperation.Builder data(int rawIndex, String mimeType) {
+        return ContentProviderOperation.newInsert(ContactsContract.Data.CONTENT_URI)
+            .withValueBackReference(ContactsContract.Data.RAW_CONTACT_ID, rawIndex)
+            .withValue(ContactsContract.Data.MIMETYPE, mimeType);
+    }
+
+    private static String text(JSONObject contact, String key) {
+        if (contact.isNull(key)) {
+            return null;
+        }
+        String value = contact.optString(key, "").trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /** Photos for {@code chunk} in order, null where none; null overall when interrupted. */
+    private List<byte[]> fetchPhotos(List<JSONObject> chunk) {
+        List<Future<byte[]>> futures = new ArrayList<>(chunk.size());
+        for (JSONObject contact : chunk) {
+            String url = text(contact, "photoUrl");
+            futures.add(url == null ? null : photoExecutor.submit(photoTask(getContext(), url)));
+        }
+        List<byte[]> photos = new ArrayList<>(chunk.size());
+        for (int i = 0; i < futures.size(); i++) {
+            Future<byte[]> future = futures.get(i);
+            byte[] photo = null;
+            if (future != null) {
+                try {
+                    photo = future.get();
+                } catch (ExecutionException e) {
+                    Log.w(TAG, "Failed to fetch contact photo: " + e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    for (int j = i; j < futures.size(); j++) {
+                        if (futures.get(j) != null) {
+                            futures.get(j).cancel(true);
+                        }
+                    }
+                    return null;
+                }
+            }
+            photos.add(photo);
+        }
+        return photos;
+    }
+
+    private static Callable<byte[]> photoTask(Context context, String url) {
+        return () -> BitmapDecoding.fetchJpeg(context, url, PHOTO_EDGE, PHOTO_QUALITY, PHOTO_TIMEOUT_MS);
+    }
+
+    private void readAll(PluginCall call, int pageSize) {
+        ContentResolver resolver = getContext().getContentResolver();
+        int total = 0;
+        int pages = 0;
+        JSArray page = new JSArray();
+
+        try (Cursor cursor = resolver.query(ContactsContract.Data.CONTENT_URI, READ_PROJECTION,
+                READ_SELECTION, READ_MIMETYPES, ContactsContract.Data.CONTACT_ID)) {
+            if (cursor != null) {
+                int idColumn = cursor.getColumnIndexOrThrow(ContactsContract.Data.CONTACT_ID);
+                int mimeColumn = cursor.getColumnIndexOrThrow(ContactsContract.Data.MIMETYPE);
+                int nameColumn = cursor.getColumnIndexOrThrow(ContactsContract.Data.DISPLAY_NAME_PRIMARY);
+                int data1Column = cursor.getColumnIndexOrThrow(ContactsContract.Data.DATA1);
+                int data4Column = cursor.getColumnIndexOrThrow(ContactsContract.Data.DATA4);
+
+                long currentId = -1;
+                JSObject current = null;
+                while (cursor.moveToNext()) {
+                    long id = cursor.getLong(idColumn);
+                    if (id != currentId) {
+                        if (current != null) {
+                            page.put(current);
+                            total++;
+                            if (page.length() >= pageSize) {
+                                sendPage(page, pages++);
+                                page = new JSArray();
+                            }
+                        }
+                        currentId = id;
+                        current = new JSObject();
+                        current.put("id", String.valueOf(id));
+                        current.put("name", cursor.getString(nameColumn));
+                    }
+                    addField(current, cursor.getString(mimeColumn),
+                        cursor.getString(data1Column), cursor.getString(data4Column));
+                }
+                if (current != null) {
+                    page.put(current);
+                    total++;
+                }
+            }
+        } catch (SecurityException | IllegalArgumentException e) {
+            Log.e(TAG, "Failed to read contacts", e);
+            call.reject("Failed to read contacts: " + e.getMessage());
+            return;
+        }
+
+        if (page.length() > 0) {
+            sendPage(page, pages++);
+        }
+        JSObject result = new JSObject();
+        result.put("total", total);
+        result.put("pages", pages);
+        call.resolve(result);
+    }
+
+    /** Maps one Data row onto the CRM contact shape; first value wins for single fields. */
+    private static void addField(JSObject contact, String mimeType, String data1, String data4) {
+        if (data1 == null && data4 == null) {
+            return;
+        }
+        if (CommonDataKinds.Phone.CONTENT_ITEM_TYPE.equals(mimeType)) {
+            if (!contact.has("phone")) {
+                contact.put("phone", data1);
+            } else {
+                appendTo(contact, "otherPhones", data1);
+            }
+        } else if (CommonDataKinds.Email.CONTENT_ITEM_TYPE.equals(mimeType)) {
+            if (!contact.has("email")) {
+                contact.put("email", data1);
+            }
+        } else if (CommonDataKinds.Organization.CONTENT_ITEM_TYPE.equals(mimeType)) {
+            // Organization: DATA1 is the company, DATA4 the title
+            if (!contact.has("company") && data1 != null) {
+                contact.put("company", data1);
+            }
+            if (!contact.has("designation") && data4 != null) {
+                contact.put("designation", data4);
+            }
+        } else if (CommonDataKinds.Website.CONTENT_ITEM_TYPE.equals(mimeType)) {
+            if (!contact.has("website")) {
+                contact.put("website", data1);
+            }
+        } else if (CommonDataKinds.Note.CONTENT_ITEM_TYPE.equals(mimeType)) {
+            if (!contact.has("about") && data1 != null && !data1.isEmpty()) {
+                contact.put("about", data1);
+            }
+        }
+    }
+
+    private static void appendTo(JSObject contact, String key, String value) {
+        JSONArray values = contact.optJSONArray(key);
+        if (values == null) {
+            values = new JSONArray();
+            contact.put(key, values);
+        }
+        values.put(value);
+    }
+
+    private void sendPage(JSArray contacts, int page) {
+        JSObject event = new JSObject();
+        event.put("page", page);
+        event.put("contacts", contacts);
+        notifyListeners("contactsPage", event);
+    }
+}
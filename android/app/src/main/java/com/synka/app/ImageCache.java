@@ -0,0 +1,74 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+
+import com.getcapacitor.JSObject;
+import com.synka.app.imagecache.ImageDiskCache;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+
+/**
+ * The app's {@link ImageDiskCache} for Supabase storage images, read by
+ * {@link ImageCacheWebViewClient}. It lives in the cache dir, so the
+ * system may clear it under storage pressure; it refills on the next
+ * views. Signed storage objects belong to the signed-in user, so it is
+ * emptied whenever {@link #setOwner} sees a different user.
+ */
+final class ImageCache {
+
+    private static final String DIR_NAME = "image_cache";
+    private static final String PREFS_NAME = "SynkaImageCachePrefs";
+    private static final String PREF_OWNER = "owner_id";
+
+    private static ImageDiskCache cache;
+
+    private ImageCache() {
+    }
+
+    static synchronized ImageDiskCache get(Context context) {
+        if (cache == null) {
+            Context appContext = context.getApplicationContext();
+            String host = Uri.parse(appContext.getString(R.string.supabase_url)).getHost();
+            cache = new ImageDiskCache(
+                new File(appContext.getCacheDir(), DIR_NAME),
+                host,
+                ImageDiskCache.DEFAULT_MAX_BYTES,
+                ImageDiskCache.DEFAULT_MAX_AGE_MS,
+                Executors.newSingleThreadExecutor());
+        }
+        return cache;
+    }
+
+    /**
+     * Records the signed-in user, null when signed out, and clears the
+     * cache when it differs from the user it was filled for.
+     */
+    static synchronized void setOwner(Context context, String userId) {
+        SharedPreferences prefs = context.getApplicationContext()
+            .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String previous = prefs.getString(PREF_OWNER, null);
+        if (userId == null ? previous == null : userId.equals(previous)) {
+            return;
+        }
+        get(context).clear();
+        prefs.edit().putString(PREF_OWNER, userId).apply();
+    }
+
+    /** {hits, staleHits, misses, revalidated, evictions, errors, entries, sizeBytes} */
+    static JSObject statsJson(Context context) {
+        ImageDiskCache.Stats stats = get(context).stats();
+        JSObject json = new JSObject();
+        json.put("hits", stats.getHits());
+        json.put("staleHits", stats.getStaleHits());
+        json.put("misses", stats.getMisses());
+        json.put("revalidated", stats.getRevalidated());
+        json.put("evictions", stats.getEvictions());
+        json.put("errors", stats.getErrors());
+        json.put("entries", stats.getEntries());
+        json.put("sizeBytes", stats.getSizeBytes());
+        return json;
+    }
+}
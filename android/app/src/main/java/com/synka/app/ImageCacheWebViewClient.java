@@ -0,0 +1,69 @@
+package com.synka.app;
+
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+import android.webkit.WebView;
+
+import com.getcapacitor.Bridge;
+import com.getcapacitor.BridgeWebViewClient;
+import com.synka.app.imagecache.ImageDiskCache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serves image loads of Supabase storage objects (avatars, card images,
+ * logos) from {@link ImageCache}, so lists and public cards do not
+ * download the same bytes on every start or with every re-signed URL.
+ *
+ * Only {@code <img>}-style requests are taken, recognised by their image
+ * Accept header; fetch and XHR calls, range requests and every other host
+ * go through Capacitor as before. A hit hands the WebView a stream over the
+ * cache file. A miss downloads into the cache first; this runs on the
+ * WebView's network thread, not the UI thread. When the cache cannot help,
+ * the WebView loads the URL itself.
+ */
+class ImageCacheWebViewClient extends BridgeWebViewClient {
+
+    private final ImageDiskCache cache;
+
+    ImageCacheWebViewClient(Bridge bridge) {
+        super(bridge);
+        this.cache = ImageCache.get(bridge.getContext());
+    }
+
+    @Override
+    public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
+        WebResourceResponse cached = fromCache(request);
+        return cached != null ? cached : super.shouldInterceptRequest(view, request);
+    }
+
+    private WebResourceResponse fromCache(WebResourceRequest request) {
+        String url = request.getUrl().toString();
+        if (!"GET".equals(request.getMethod()) || !cache.isCacheable(url)) {
+            return null;
+        }
+        String accept = null;
+        for (Map.Entry<String, String> header : request.getRequestHeaders().entrySet()) {
+            if ("Range".equalsIgnoreCase(header.getKey())) {
+                return null;
+            }
+            if ("Accept".equalsIgnoreCase(header.getKey())) {
+                accept = header.getValue();
+            }
+        }
+        if (accept == null || !accept.startsWith("image/")) {
+            return null;
+        }
+
+        ImageDiskCache.Hit hit = cache.get(url);
+        if (hit == null) {
+            return null;
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Length", String.valueOf(hit.getLength()));
+        // Storage answers with this too; crossorigin images and canvas reads depend on it
+        headers.put("Access-Control-Allow-Origin", "*");
+        return new WebResourceResponse(hit.getMimeType(), null, 200, "OK", headers, hit.getStream());
+    }
+}
@@ -0,0 +1,235 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Rect;
+import android.net.Uri;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crops, resizes and compresses avatar and card images off the WebView.
+ *
+ * The crop region is decoded once with {@link android.graphics.BitmapRegionDecoder}
+ * and power-of-two subsampling, sized for the largest requested output, so
+ * a 12MP photo never exists in memory at full resolution. Every output (the
+ * upload image and the small thumbnail for the widget and watch, say) is
+ * then drawn from that single decode and written to the cache dir. Results
+ * are file URIs; no pixels cross the bridge as base64.
+ */
+@CapacitorPlugin(name = "ImageCrop")
+public class ImageCropPlugin extends Plugin {
+
+    private static final String TAG = "ImageCropPlugin";
+    private static final String OUTPUT_DIR = "image_crop";
+    private static final int MAX_OUTPUT_FILES = 12;
+
+    private static final int DEFAULT_SIZE = 512;
+    private static final int DEFAULT_QUALITY = 85;
+    private static final int MAX_OUTPUTS = 4;
+
+    // Two decodes in flight at most: enough to overlap I/O, bounded for low-RAM devices
+    private static final int WORKERS = 2;
+    private static final int MAX_QUEUED = 4;
+
+    private ThreadPoolExecutor executor;
+
+    @Override
+    public void load() {
+        executor = new ThreadPoolExecutor(
+            WORKERS, WORKERS, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_QUEUED));
+        // Photo edits are rare; do not keep idle threads around between them
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Options: path (file path, file:// or content:// URI), crop
+     * ({left, top, right, bottom}, normalized to the upright image) and
+     * outputs ([{size, format: "jpeg" | "webp", quality}], size being the
+     * longest edge). Resolves with {outputs: [{path, width, height, bytes,
+     * format}], durationMs}, in request order.
+     */
+    @PluginMethod
+    public void process(PluginCall call) {
+        String path = call.getString("path");
+        if (path == null || path.isEmpty()) {
+            call.reject("Image path is required");
+            return;
+        }
+        List<OutputSpec> outputs;
+        try {
+            outputs = parseOutputs(call.getArray("outputs"));
+        } catch (IllegalArgumentException e) {
+            call.reject(e.getMessage());
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    call.resolve(run(getContext(), call, BitmapDecoding.toUri(path), outputs));
+                } catch (IOException | IllegalArgumentException e) {
+                    Log.w(TAG, "Failed to process image: " + e.getMessage());
+                    call.reject("Failed to process image: " + e.getMessage());
+                } catch (OutOfMemoryError e) {
+                    Log.e(TAG, "Out of memory processing image", e);
+                    call.reject("Image is too large to process");
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            call.reject("Too many images in progress, try again");
+        }
+    }
+
+    private static JSObject run(Context context, PluginCall call, Uri uri, List<OutputSpec> outputs)
+            throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        BitmapFactory.Options bounds = BitmapDecoding.readBounds(context, uri);
+        int rotation = BitmapDecoding.readRotation(context, uri);
+
+        JSObject crop = call.getObject("crop");
+        Rect region = crop == null
+            ? new Rect(0, 0, bounds.outWidth, bounds.outHeight)
+            : BitmapDecoding.toRawRect(
+                (float) crop.optDouble("left", 0), (float) crop.optDouble("top", 0),
+                (float) crop.optDouble("right", 1), (float) crop.optDouble("bottom", 1),
+                bounds.outWidth, bounds.outHeight, rotation);
+
+        int largest = 0;
+        for (OutputSpec spec : outputs) {
+            largest = Math.max(largest, spec.size);
+        }
+
+        JSArray results = new JSArray();
+        Bitmap decoded = BitmapDecoding.decodeRegion(context, uri, region, bounds, largest);
+        try {
+            for (OutputSpec spec : outputs) {
+                results.put(encode(context, decoded, rotation, spec));
+            }
+        } finally {
+            decoded.recycle();
+        }
+
+        JSObject result = new JSObject();
+        result.put("outputs", results);
+        result.put("durationMs", SystemClock.elapsedRealtime() - start);
+        return result;
+    }
+
+    private static JSObject encode(Context context, Bitmap decoded, int rotation, OutputSpec spec)
+            throws IOException {
+        Bitmap output = BitmapDecoding.uprightScaled(decoded, rotation, spec.size, null);
+        int width = output.getWidth();
+        int height = output.getHeight();
+
+        File file = newOutputFile(context, spec.webp ? ".webp" : ".jpg");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            if (!output.compress(compressFormat(spec.webp), spec.quality, out)) {
+                throw new IOException("Failed to encode image");
+            }
+        } finally {
+            output.recycle();
+        }
+
+        JSObject result = new JSObject();
+        result.put("path", Uri.fromFile(file).toString());
+        result.put("width", width);
+        result.put("height", height);
+        result.put("bytes", file.length());
+        result.put("format", spec.webp ? "webp" : "jpeg");
+        return result;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat compressFormat(boolean webp) {
+        if (!webp) {
+            return Bitmap.CompressFormat.JPEG;
+        }
+        // WEBP means lossy below API 30 and is deprecated from there on
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+            ? Bitmap.CompressFormat.WEBP_LOSSY
+            : Bitmap.CompressFormat.WEBP;
+    }
+
+    private static List<OutputSpec> parseOutputs(JSArray array) {
+        List<OutputSpec> outputs = new ArrayList<>();
+        if (array == null || array.length() == 0) {
+            outputs.add(new OutputSpec(DEFAULT_SIZE, false, DEFAULT_QUALITY));
+            return outputs;
+        }
+        if (array.length() > MAX_OUTPUTS) {
+            throw new IllegalArgumentException("At most " + MAX_OUTPUTS + " outputs per image");
+        }
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject output = array.optJSONObject(i);
+            if (output == null) {
+                throw new IllegalArgumentException("Output " + i + " must be an object");
+            }
+            String format = output.optString("format", "jpeg");
+            if (!"jpeg".equals(format) && !"webp".equals(format)) {
+                throw new IllegalArgumentException("Unsupported format: " + format);
+            }
+            int size = Math.max(16, output.optInt("size", DEFAULT_SIZE));
+            int quality = Math.max(10, Math.min(100, output.optInt("quality", DEFAULT_QUALITY)));
+            outputs.add(new OutputSpec(size, "webp".equals(format), quality));
+        }
+        return outputs;
+    }
+
+    /** A fresh file in the cache dir; only the most recent outputs are kept. */
+    private static File newOutputFile(Context context, String extension) throws IOException {
+        File dir = new File(context.getCacheDir(), OUTPUT_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        trim(dir);
+        return File.createTempFile("crop_", extension, dir);
+    }
+
+    private static synchronized void trim(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null || files.length < MAX_OUTPUT_FILES) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = MAX_OUTPUT_FILES - 1; i < files.length; i++) {
+            if (!files[i].delete()) {
+                Log.w(TAG, "Failed to delete " + files[i]);
+            }
+        }
+    }
+
+    private static final class OutputSpec {
+        final int size;
+        final boolean webp;
+        final int quality;
+
+        OutputSpec(int size, boolean webp, int quality) {
+            this.size = size;
+            this.webp = webp;
+            this.quality = quality;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.synka.app;
 
+import android.content.Intent;
 import android.os.Bundle;
 import android.view.WindowManager;
 import android.os.Build;
@@ -9,8 +10,21 @@ import com.getcapacitor.BridgeActivity;
 public class MainActivity extends BridgeActivity {
     @Override
     public void onCreate(Bundle savedInstanceState) {
+        // Profile App Links: fetch the profile while the WebView boots rather than after
+        ProfilePrefetch.fromIntent(this, getIntent());
+
         registerPlugin(WidgetBridgePlugin.class);
+        registerPlugin(NfcWriterPlugin.class);
+        registerPlugin(ScanImagePlugin.class);
+        registerPlugin(QrScannerPlugin.class);
+        registerPlugin(ContactsBatchPlugin.class);
+        registerPlugin(ImageCropPlugin.class);
+        registerPlugin(ContactStorePlugin.class);
+        registerPlugin(ProfilePrefetchPlugin.class);
         super.onCreate(savedInstanceState);
+
+        // Storage images (avatars, card images, logos) load from the on-disk cache when possible
+        getBridge().setWebViewClient(new ImageCacheWebViewClient(getBridge()));
         
         // Handle status bar overlay - ensure content doesn't go under system UI
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
@@ -27,4 +41,10 @@ public class MainActivity extends BridgeActivity {
             getWindow().addFlags(WindowManager.LayoutParams.FLAG_DRAWS_SYSTEM_BAR_BACKGROUNDS);
         }
     }
+
+    @Override
+    protected void onNewIntent(Intent intent) {
+        ProfilePrefetch.fromIntent(this, intent);
+        super.onNewIntent(intent);
+    }
 }
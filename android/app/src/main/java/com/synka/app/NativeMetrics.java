@@ -0,0 +1,127 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.google.firebase.analytics.FirebaseAnalytics;
+import com.synka.app.metrics.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms for the native widget and watch paths.
+ *
+ * Each stage records into its own ring with {@link LatencyHistogram#recordSince},
+ * which costs an atomic increment and never allocates. Percentiles are only
+ * computed when JS asks for them or when the optional Analytics export runs.
+ */
+final class NativeMetrics {
+
+    private static final String TAG = "NativeMetrics";
+    private static final int SAMPLES = 256;
+    private static final String ANALYTICS_EVENT = "native_metrics";
+
+    static final LatencyHistogram QR_ENCODE = new LatencyHistogram(SAMPLES);
+    static final LatencyHistogram QR_RASTER = new LatencyHistogram(SAMPLES);
+    static final LatencyHistogram PNG_COMPRESS = new LatencyHistogram(SAMPLES);
+    static final LatencyHistogram WIDGET_PUSH = new LatencyHistogram(SAMPLES);
+    /** From the first updateWidget call in a burst to the last widget pushed. */
+    static final LatencyHistogram WIDGET_LATENCY = new LatencyHistogram(SAMPLES);
+    /** From putDataItem to the watch acknowledging the rendered tile. */
+    static final LatencyHistogram WEAR_ROUND_TRIP = new LatencyHistogram(SAMPLES);
+
+    private static final Map<String, LatencyHistogram> ALL;
+
+    static {
+        Map<String, LatencyHistogram> all = new LinkedHashMap<>();
+        all.put("qr_encode", QR_ENCODE);
+        all.put("qr_raster", QR_RASTER);
+        all.put("png_compress", PNG_COMPRESS);
+        all.put("widget_push", WIDGET_PUSH);
+        all.put("widget_latency", WIDGET_LATENCY);
+        all.put("wear_round_trip", WEAR_ROUND_TRIP);
+        ALL = Collections.unmodifiableMap(all);
+    }
+
+    private static ScheduledExecutorService exportExecutor;
+    private static ScheduledFuture<?> exportTask;
+
+    private NativeMetrics() {
+    }
+
+    /**
+     * {stage: {count, p50, p90, p99, max}} with times in milliseconds.
+     * Stages with no samples yet are omitted.
+     */
+    static JSObject toJson() {
+        JSObject metrics = new JSObject();
+        for (Map.Entry<String, LatencyHistogram> entry : ALL.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+            if (snapshot.isEmpty()) {
+                continue;
+            }
+            JSObject stage = new JSObject();
+            stage.put("count", snapshot.getCount());
+            stage.put("p50", toMillis(snapshot.percentile(0.5)));
+            stage.put("p90", toMillis(snapshot.percentile(0.9)));
+            stage.put("p99", toMillis(snapshot.percentile(0.99)));
+            stage.put("max", toMillis(snapshot.getMax()));
+            metrics.put(entry.getKey(), stage);
+        }
+        return metrics;
+    }
+
+    /**
+     * Logs a native_metrics Analytics event every {@code intervalMinutes},
+     * replacing any previous schedule. Pass 0 to stop exporting.
+     */
+    static synchronized void setAnalyticsExport(Context context, long intervalMinutes) {
+        if (exportTask != null) {
+            exportTask.cancel(false);
+            exportTask = null;
+        }
+        if (intervalMinutes <= 0) {
+            return;
+        }
+        if (exportExecutor == null) {
+            exportExecutor = Executors.newSingleThreadScheduledExecutor();
+        }
+        Context appContext = context.getApplicationContext();
+        exportTask = exportExecutor.scheduleWithFixedDelay(
+            () -> exportToAnalytics(appContext), intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    private static void exportToAnalytics(Context context) {
+        // Analytics caps events at 25 params; three per stage keeps six stages well inside it
+        Bundle params = new Bundle();
+        for (Map.Entry<String, LatencyHistogram> entry : ALL.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+            if (snapshot.isEmpty()) {
+                continue;
+            }
+            params.putLong(entry.getKey() + "_n", snapshot.getCount());
+            params.putLong(entry.getKey() + "_p50_us", TimeUnit.NANOSECONDS.toMicros(snapshot.percentile(0.5)));
+            params.putLong(entry.getKey() + "_p99_us", TimeUnit.NANOSECONDS.toMicros(snapshot.percentile(0.99)));
+        }
+        if (params.isEmpty()) {
+            return;
+        }
+        try {
+            FirebaseAnalytics.getInstance(context).logEvent(ANALYTICS_EVENT, params);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Failed to export metrics: " + e.getMessage());
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,355 @@
+package com.synka.app;
+
+import android.app.Activity;
+import android.net.Uri;
+import android.nfc.FormatException;
+import android.nfc.NdefMessage;
+import android.nfc.NdefRecord;
+import android.nfc.NfcAdapter;
+import android.nfc.Tag;
+import android.nfc.tech.Ndef;
+import android.nfc.tech.NdefFormatable;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes a queue of NDEF messages to NFC tags back to back using reader mode.
+ *
+ * Messages are built once when the batch starts. Each tap writes, verifies
+ * and optionally locks the next tag entirely on the NFC thread, and progress
+ * is reported through events, so JS is never in the loop between tags.
+ */
+@CapacitorPlugin(name = "NfcWriter")
+public class NfcWriterPlugin extends Plugin {
+
+    private static final String TAG = "NfcWriterPlugin";
+
+    private static final int READER_FLAGS = NfcAdapter.FLAG_READER_NFC_A
+        | NfcAdapter.FLAG_READER_NFC_B
+        | NfcAdapter.FLAG_READER_NFC_F
+        | NfcAdapter.FLAG_READER_NFC_V;
+
+    private static final class Job {
+        final String id;
+        final NdefMessage message;
+
+        Job(String id, NdefMessage message) {
+            this.id = id;
+            this.message = message;
+        }
+    }
+
+    // Batch state, guarded by this
+    private List<Job> queue;
+    private int nextIndex;
+    private int failures;
+    private boolean verify;
+    private boolean lock;
+    private final Set<String> writtenTags = new HashSet<>();
+
+    @PluginMethod
+    public void isAvailable(PluginCall call) {
+        NfcAdapter adapter = NfcAdapter.getDefaultAdapter(getContext());
+        JSObject result = new JSObject();
+        result.put("available", adapter != null);
+        result.put("enabled", adapter != null && adapter.isEnabled());
+        call.resolve(result);
+    }
+
+    /**
+     * Starts writing {@code jobs} to the next tags presented. Resolves once
+     * reader mode is on; progress arrives as tagWritten, tagError,
+     * tagSkipped and batchComplete events.
+     */
+    @PluginMethod
+    public void startBatch(PluginCall call) {
+        NfcAdapter adapter = NfcAdapter.getDefaultAdapter(getContext());
+        if (adapter == null || !adapter.isEnabled()) {
+            call.reject("NFC is not available or is turned off");
+            return;
+        }
+
+        JSArray jobs = call.getArray("jobs");
+        if (jobs == null || jobs.length() == 0) {
+            call.reject("At least one job is required");
+            return;
+        }
+
+        List<Job> built = new ArrayList<>(jobs.length());
+        try {
+            for (int i = 0; i < jobs.length(); i++) {
+                JSONObject job = jobs.getJSONObject(i);
+                built.add(new Job(job.optString("id", String.valueOf(i)), buildMessage(job)));
+            }
+        } catch (JSONException | IllegalArgumentException e) {
+            call.reject("Invalid job: " + e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            queue = built;
+            nextIndex = 0;
+            failures = 0;
+            verify = call.getBoolean("verify", true);
+            lock = call.getBoolean("lock", false);
+            writtenTags.clear();
+        }
+        enableReaderMode();
+
+        JSObject result = new JSObject();
+        result.put("total", built.size());
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void stopBatch(PluginCall call) {
+        synchronized (this) {
+            queue = null;
+        }
+        disableReaderMode();
+        call.resolve();
+    }
+
+    @Override
+    protected void handleOnResume() {
+        super.handleOnResume();
+        // Reader mode is dropped when the activity pauses
+        if (isBatchActive()) {
+            enableReaderMode();
+        }
+    }
+
+    @Override
+    protected void handleOnPause() {
+        super.handleOnPause();
+        if (isBatchActive()) {
+            disableReaderMode();
+        }
+    }
+
+    private synchronized boolean isBatchActive() {
+        return queue != null && nextIndex < queue.size();
+    }
+
+    private void enableReaderMode() {
+        Activity activity = getActivity();
+        NfcAdapter adapter = NfcAdapter.getDefaultAdapter(getContext());
+        if (activity == null || adapter == null) {
+            return;
+        }
+        activity.runOnUiThread(() -> adapter.enableReaderMode(activity, this::onTagDiscovered, READER_FLAGS, null));
+    }
+
+    private void disableReaderMode() {
+        Activity activity = getActivity();
+        NfcAdapter adapter = NfcAdapter.getDefaultAdapter(getContext());
+        if (activity == null || adapter == null) {
+            return;
+        }
+        activity.runOnUiThread(() -> adapter.disableReaderMode(activity));
+    }
+
+    /** Runs on the NFC reader thread, one tag at a time. */
+    private void onTagDiscovered(Tag tag) {
+        Job job;
+        int index;
+        int total;
+        boolean verifyTag;
+        boolean lockTag;
+        String tagId = toHex(tag.getId());
+        synchronized (this) {
+            if (queue == null || nextIndex >= queue.size()) {
+                return;
+            }
+            if (writtenTags.contains(tagId)) {
+                // Same card tapped twice; never overwrite it with the next job
+                JSObject skipped = new JSObject();
+                skipped.put("tagId", tagId);
+                notifyListeners("tagSkipped", skipped);
+                return;
+            }
+            index = nextIndex;
+            total = queue.size();
+            job = queue.get(index);
+            verifyTag = verify;
+            lockTag = lock;
+        }
+
+        long start = SystemClock.elapsedRealtime();
+        try {
+            boolean locked = writeTag(tag, job.message, verifyTag, lockTag);
+
+            boolean done;
+            synchronized (this) {
+                writtenTags.add(tagId);
+                nextIndex = index + 1;
+                done = nextIndex >= total;
+            }
+
+            JSObject progress = new JSObject();
+            progress.put("index", index);
+            progress.put("id", job.id);
+            progress.put("total", total);
+            progress.put("tagId", tagId);
+            progress.put("locked", locked);
+            progress.put("durationMs", SystemClock.elapsedRealtime() - start);
+            notifyListeners("tagWritten", progress);
+
+            if (done) {
+                finishBatch(total);
+            }
+        } catch (IOException | FormatException | IllegalStateException | SecurityException e) {
+            // SecurityException means the tag left the field and its handle went stale.
+            // Either way, leave the job at the head of the queue so the next tap retries it
+            Log.w(TAG, "Failed to write tag " + tagId + ": " + e.getMessage());
+            synchronized (this) {
+                failures++;
+            }
+            JSObject error = new JSObject();
+            error.put("index", index);
+            error.put("id", job.id);
+            error.put("tagId", tagId);
+            error.put("error", e.getMessage());
+            notifyListeners("tagError", error);
+        }
+    }
+
+    private void finishBatch(int total) {
+        int failed;
+        synchronized (this) {
+            failed = failures;
+            queue = null;
+        }
+        disableReaderMode();
+
+        JSObject complete = new JSObject();
+        complete.put("written", total);
+        complete.put("failedAttempts", failed);
+        notifyListeners("batchComplete", complete);
+    }
+
+    /**
+     * Writes, optionally verifies by reading back, and optionally locks the tag.
+     * Returns whether the tag was made read-only.
+     */
+    private static boolean writeTag(Tag tag, NdefMessage message, boolean verify, boolean lock)
+            throws IOException, FormatException {
+        Ndef ndef = Ndef.get(tag);
+        if (ndef == null) {
+            NdefFormatable formatable = NdefFormatable.get(tag);
+            if (formatable == null) {
+                throw new IllegalStateException("Tag does not support NDEF");
+            }
+            formatable.connect();
+            try {
+                formatable.format(message);
+            } finally {
+                formatable.close();
+            }
+            ndef = Ndef.get(tag);
+            if (ndef == null) {
+                // Formatted and written, but cannot be read back or locked in this session
+                return false;
+            }
+            return verifyAndLock(ndef, message, verify, lock);
+        }
+
+        ndef.connect();
+        try {
+            if (!ndef.isWritable()) {
+                throw new IllegalStateException("Tag is read-only");
+            }
+            if (ndef.getMaxSize() < message.getByteArrayLength()) {
+                throw new IllegalStateException("Message is " + message.getByteArrayLength()
+                    + " bytes, tag holds " + ndef.getMaxSize());
+            }
+            ndef.writeNdefMessage(message);
+        } finally {
+            ndef.close();
+        }
+        return verifyAndLock(ndef, message, verify, lock);
+    }
+
+    private static boolean verifyAndLock(Ndef ndef, NdefMessage message, boolean verify, boolean lock)
+            throws IOException, FormatException {
+        if (!verify && !lock) {
+            return false;
+        }
+        ndef.connect();
+        try {
+            if (verify) {
+                NdefMessage written = ndef.getNdefMessage();
+                if (written == null || !Arrays.equals(written.toByteArray(), message.toByteArray())) {
+                    throw new IllegalStateException("Verification failed");
+                }
+            }
+            if (lock) {
+                if (!ndef.canMakeReadOnly()) {
+                    throw new IllegalStateException("Tag cannot be locked");
+                }
+                return ndef.makeReadOnly();
+            }
+            return false;
+        } finally {
+            ndef.close();
+        }
+    }
+
+    /**
+     * Builds an NDEF message from {"records": [{"type": "uri"|"text"|"mime", "value", "mimeType"}]}.
+     */
+    private static NdefMessage buildMessage(JSONObject job) throws JSONException {
+        JSONArray records = job.getJSONArray("records");
+        if (records.length() == 0) {
+            throw new IllegalArgumentException("Job has no records");
+        }
+        NdefRecord[] ndefRecords = new NdefRecord[records.length()];
+        for (int i = 0; i < records.length(); i++) {
+            JSONObject record = records.getJSONObject(i);
+            String type = record.getString("type");
+            String value = record.getString("value");
+            switch (type) {
+                case "uri":
+                    ndefRecords[i] = NdefRecord.createUri(Uri.parse(value));
+                    break;
+                case "text":
+                    ndefRecords[i] = NdefRecord.createTextRecord("en", value);
+                    break;
+                case "mime":
+                    ndefRecords[i] = NdefRecord.createMime(
+                        record.getString("mimeType"), value.getBytes(StandardCharsets.UTF_8));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown record type: " + type);
+            }
+        }
+        return new NdefMessage(ndefRecords);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder out = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            out.append(String.format("%02X", b));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.synka.app;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.wearable.MessageEvent;
+import com.google.android.gms.wearable.WearableListenerService;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Receives messages from the Synka watch app.
+ */
+public class PhoneWearListenerService extends WearableListenerService {
+
+    private static final String TAG = "PhoneWearListener";
+    private static final String QR_ACK_PATH = "/synka/qr_ack";
+    private static final String QR_REQUEST_PATH = "/synka/qr_request";
+
+    @Override
+    public void onMessageReceived(@NonNull MessageEvent messageEvent) {
+        if (QR_ACK_PATH.equals(messageEvent.getPath())) {
+            // Watch has rendered the tile for this payload hash
+            String hash = new String(messageEvent.getData(), StandardCharsets.UTF_8);
+            Log.d(TAG, "Watch acknowledged QR " + hash);
+            WidgetSyncEngine.getInstance(this).onWearAck(hash);
+        } else if (QR_REQUEST_PATH.equals(messageEvent.getPath())) {
+            // Tile added or empty on the watch; answer with the current QR
+            WidgetSyncEngine.getInstance(this).replyToWatch(messageEvent.getSourceNodeId());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import com.synka.app.prefetch.ProfilePrefetcher;
+
+import java.util.concurrent.Executors;
+
+/**
+ * The app's {@link ProfilePrefetcher}. {@link MainActivity} starts a
+ * prefetch for profile App Links before the WebView boots, and
+ * {@link ProfilePrefetchPlugin} hands the result to the public card page.
+ */
+final class ProfilePrefetch {
+
+    private static ProfilePrefetcher prefetcher;
+
+    private ProfilePrefetch() {
+    }
+
+    static synchronized ProfilePrefetcher get(Context context) {
+        if (prefetcher == null) {
+            Context appContext = context.getApplicationContext();
+            prefetcher = new ProfilePrefetcher(
+                appContext.getString(R.string.supabase_url),
+                appContext.getString(R.string.supabase_anon_key),
+                Executors.newSingleThreadExecutor());
+        }
+        return prefetcher;
+    }
+
+    /** Starts fetching the profile an App Link or synka:// intent points at; other intents are ignored. */
+    static void fromIntent(Context context, Intent intent) {
+        if (intent == null || !Intent.ACTION_VIEW.equals(intent.getAction())) {
+            return;
+        }
+        Uri data = intent.getData();
+        String slug = data != null ? ProfilePrefetcher.slugFromLink(data.toString()) : null;
+        if (slug != null) {
+            get(context).prefetch(slug);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.synka.app;
+
+import android.net.Uri;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.CapacitorPlugin;
+import com.synka.app.prefetch.ProfilePrefetcher;
+
+import org.json.JSONException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hands the public card page the profile {@link MainActivity} started
+ * fetching when an App Link opened the app, so the page does not repeat
+ * those requests after the WebView has booted.
+ */
+@CapacitorPlugin(name = "ProfilePrefetch")
+public class ProfilePrefetchPlugin extends Plugin {
+
+    private static final String TAG = "ProfilePrefetchPlugin";
+    private static final String AVATAR_DIR = "profile_prefetch";
+    // The page's own fetch takes about this long; waiting longer would only delay it
+    private static final int DEFAULT_TIMEOUT_MS = 1500;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    /**
+     * Claims the prefetch for {@code slug}, waiting up to {@code timeoutMs}
+     * if it is still in flight. Resolves with {found: false} when there is
+     * none, else {found: true, profile, card, avatarUrl, avatarPath}:
+     * the raw profiles and cards rows, the photo URL the page will show and
+     * a file URI holding that photo when it was fetched.
+     */
+    @PluginMethod
+    public void claim(PluginCall call) {
+        String slug = call.getString("slug");
+        if (slug == null || slug.isEmpty()) {
+            call.reject("slug is required");
+            return;
+        }
+        int timeoutMs = Math.max(0, call.getInt("timeoutMs", DEFAULT_TIMEOUT_MS));
+
+        executor.execute(() -> {
+            JSObject result = new JSObject();
+            try {
+                ProfilePrefetcher.Result prefetched = ProfilePrefetch.get(getContext()).claim(slug, timeoutMs);
+                if (prefetched == null) {
+                    result.put("found", false);
+                    call.resolve(result);
+                    return;
+                }
+                result.put("found", true);
+                result.put("profile", new JSObject(prefetched.getProfileJson()));
+                if (prefetched.getCardJson() != null) {
+                    result.put("card", new JSObject(prefetched.getCardJson()));
+                }
+                if (prefetched.getAvatarUrl() != null) {
+                    result.put("avatarUrl", prefetched.getAvatarUrl());
+                }
+                if (prefetched.getAvatar() != null) {
+                    result.put("avatarPath", writeAvatar(prefetched.getSlug(), prefetched.getAvatarUrl(), prefetched.getAvatar()));
+                }
+                call.resolve(result);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                call.reject("Interrupted");
+            } catch (JSONException e) {
+                Log.w(TAG, "Prefetched profile is not valid JSON: " + e.getMessage());
+                result.put("found", false);
+                call.resolve(result);
+            }
+        });
+    }
+
+    /**
+     * Writes the avatar under a name unique to the profile and photo URL, so
+     * the WebView never serves another profile's photo from its cache for
+     * the same file URI. Earlier files are removed. Returns the file URI or
+     * null.
+     */
+    private String writeAvatar(String slug, String url, byte[] avatar) {
+        File dir = new File(getContext().getCacheDir(), AVATAR_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            return null;
+        }
+        String name = slug + "-" + Integer.toHexString(url.hashCode());
+        File[] previous = dir.listFiles();
+        if (previous != null) {
+            for (File old : previous) {
+                if (!old.getName().equals(name)) {
+                    old.delete();
+                }
+            }
+        }
+        File file = new File(dir, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(avatar);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write prefetched avatar: " + e.getMessage());
+            return null;
+        }
+        return Uri.fromFile(file).toString();
+    }
+}
@@ -0,0 +1,142 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.google.zxing.WriterException;
+import com.synka.app.qr.QrCacheKey;
+import com.synka.app.qr.QrEncoder;
+import com.synka.app.qr.QrMatrix;
+import com.synka.app.qr.QrOptions;
+import com.synka.app.qr.QrPng;
+import com.synka.app.qr.QrRasterizer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Content-addressed cache of rendered QR codes.
+ *
+ * Renders are keyed by a hash of (content, size, colours, margin, EC level)
+ * and kept as PNG files in app storage, with a small in-memory LRU in front.
+ * A widget refresh after a reboot or process restart decodes the file instead
+ * of running ZXing again. Old entries are never invalidated explicitly; they
+ * simply stop being requested and age out of the bounded disk store.
+ *
+ * Opaque two-colour renders use RGB_565, half the memory and binder payload
+ * of ARGB_8888 with no visible difference.
+ */
+final class QRBitmapCache {
+
+    private static final String TAG = "QRBitmapCache";
+    private static final String CACHE_DIR = "qr_cache";
+    private static final String EXTENSION = ".png";
+    private static final int MAX_DISK_ENTRIES = 8;
+    private static final int MAX_MEMORY_BYTES = 4 * 1024 * 1024;
+
+    private static final LruCache<String, Bitmap> memoryCache =
+        new LruCache<String, Bitmap>(MAX_MEMORY_BYTES) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+
+    private QRBitmapCache() {
+    }
+
+    static synchronized Bitmap get(Context context, String content, int size, QrOptions options)
+            throws WriterException {
+        String key = QrCacheKey.of(content, size, options);
+
+        Bitmap bitmap = memoryCache.get(key);
+        if (bitmap != null) {
+            return bitmap;
+        }
+
+        Bitmap.Config config = configFor(options);
+        File file = new File(getCacheDir(context), key + EXTENSION);
+        if (file.isFile()) {
+            BitmapFactory.Options decodeOptions = new BitmapFactory.Options();
+            decodeOptions.inPreferredConfig = config;
+            bitmap = BitmapFactory.decodeFile(file.getAbsolutePath(), decodeOptions);
+            if (bitmap != null) {
+                file.setLastModified(System.currentTimeMillis());
+                memoryCache.put(key, bitmap);
+                return bitmap;
+            }
+            // Unreadable entry, render it again below
+            file.delete();
+        }
+
+        long start = System.nanoTime();
+        QrMatrix matrix = QrEncoder.encode(content, options);
+        NativeMetrics.QR_ENCODE.recordSince(start);
+
+        start = System.nanoTime();
+        int outputSize = QrRasterizer.outputSize(matrix, size);
+        int[] pixels = QrRasterizer.rasterize(matrix, size, options, null);
+        bitmap = Bitmap.createBitmap(pixels, outputSize, outputSize, config);
+        NativeMetrics.QR_RASTER.recordSince(start);
+        memoryCache.put(key, bitmap);
+
+        start = System.nanoTime();
+        byte[] png = QrPng.encode(matrix, size, options);
+        NativeMetrics.PNG_COMPRESS.recordSince(start);
+        write(file, png);
+        trim(file.getParentFile());
+        return bitmap;
+    }
+
+    /** Bytes per pixel of the bitmaps returned for {@code options}. */
+    static int bytesPerPixel(QrOptions options) {
+        return configFor(options) == Bitmap.Config.RGB_565 ? 2 : 4;
+    }
+
+    private static Bitmap.Config configFor(QrOptions options) {
+        boolean opaque = (options.getForegroundColor() >>> 24) == 0xFF
+            && (options.getBackgroundColor() >>> 24) == 0xFF;
+        return opaque ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+    }
+
+    private static File getCacheDir(Context context) {
+        File dir = new File(context.getNoBackupFilesDir(), CACHE_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "Could not create " + dir);
+        }
+        return dir;
+    }
+
+    private static void write(File file, byte[] png) {
+        // Write to a temp file and rename so a crash never leaves a truncated entry
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(png);
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write " + file.getName() + ": " + e.getMessage());
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+        }
+    }
+
+    /** Keeps the most recently used entries, dropping the rest. */
+    private static void trim(File dir) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(EXTENSION));
+        if (files == null || files.length <= MAX_DISK_ENTRIES) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = MAX_DISK_ENTRIES; i < files.length; i++) {
+            files[i].delete();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.synka.app.qr.ContactQr;
+import com.synka.app.qr.QrCacheKey;
+import com.synka.app.qr.QrErrorCorrection;
+import com.synka.app.qr.QrOptions;
+
+/**
+ * What the widget and watch QR encodes: the public profile URL, or an
+ * offline contact card that scans without network access.
+ *
+ * Contact cards are fitted once when they are stored, so renders only read
+ * the final payload and its error-correction level.
+ */
+final class QRPayloadStore {
+
+    static final String MODE_URL = "url";
+    static final String MODE_VCARD = "vcard";
+
+    private static final String PREFS_NAME = "SynkaWidgetPrefs";
+    private static final String PREF_PROFILE_SLUG = "profile_slug";
+    private static final String PREF_MODE = "qr_mode";
+    private static final String PREF_VCARD_CONTENT = "vcard_content";
+    private static final String PREF_VCARD_EC = "vcard_ec";
+    private static final String BASE_URL = "https://synka.in/u/";
+
+    static final class Payload {
+        final String content;
+        final QrOptions options;
+
+        Payload(String content, QrOptions options) {
+            this.content = content;
+            this.options = options;
+        }
+
+        /** Content hash shared by every cache and sync target. */
+        String hash() {
+            return QrCacheKey.of(content, options);
+        }
+    }
+
+    private QRPayloadStore() {
+    }
+
+    static void setProfileSlug(Context context, String profileSlug) {
+        prefs(context).edit().putString(PREF_PROFILE_SLUG, profileSlug).apply();
+    }
+
+    static String getProfileSlug(Context context) {
+        return prefs(context).getString(PREF_PROFILE_SLUG, null);
+    }
+
+    /** Switches back to encoding the profile URL, keeping any stored card. */
+    static void useUrl(Context context) {
+        prefs(context).edit().putString(PREF_MODE, MODE_URL).apply();
+    }
+
+    static void useContactCard(Context context, ContactQr.Fitted fitted) {
+        prefs(context).edit()
+            .putString(PREF_MODE, MODE_VCARD)
+            .putString(PREF_VCARD_CONTENT, fitted.getContent())
+            .putString(PREF_VCARD_EC, fitted.getOptions().getErrorCorrection().name())
+            .apply();
+    }
+
+    /** Payload to render, or {@code null} when nothing has been set up yet. */
+    static Payload current(Context context) {
+        SharedPreferences prefs = prefs(context);
+        if (MODE_VCARD.equals(prefs.getString(PREF_MODE, MODE_URL))) {
+            String content = prefs.getString(PREF_VCARD_CONTENT, null);
+            String level = prefs.getString(PREF_VCARD_EC, null);
+            if (content != null && level != null) {
+                QrOptions options = QrOptions.DEFAULT.toBuilder()
+                    .setErrorCorrection(QrErrorCorrection.valueOf(level))
+                    .build();
+                return new Payload(content, options);
+            }
+        }
+
+        String profileSlug = prefs.getString(PREF_PROFILE_SLUG, null);
+        if (profileSlug == null || profileSlug.isEmpty()) {
+            return null;
+        }
+        return new Payload(BASE_URL + profileSlug, QrOptions.DEFAULT);
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
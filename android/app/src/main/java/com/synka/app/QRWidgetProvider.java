@@ -3,47 +3,139 @@ package com.synka.app;
 import android.app.PendingIntent;
 import android.appwidget.AppWidgetManager;
 import android.appwidget.AppWidgetProvider;
+import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.graphics.Bitmap;
+import android.os.Bundle;
+import android.util.SparseArray;
 import android.widget.RemoteViews;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
+import com.synka.app.card.CardSnapshot;
+import com.synka.app.qr.QrOptions;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class QRWidgetProvider extends AppWidgetProvider {
 
-    private static final String PREFS_NAME = "SynkaWidgetPrefs";
-    private static final String PREF_PROFILE_SLUG = "profile_slug";
-    private static final String BASE_URL = "https://synka.in/u/";
+    // Used when the launcher reports no size; clamped to the budget like any other size
+    private static final int DEFAULT_SIZE_DP = 110;
+    // Matches the image margin in widget_qr_code.xml
+    private static final int IMAGE_MARGIN_DP = 8;
+    private static final int MIN_QR_SIZE = 64;
+    // Upper bound for the bitmap carried by a single RemoteViews payload
+    private static final int MAX_BITMAP_BYTES = 256 * 1024;
+
+    // Window in which repeated updateWidget calls collapse into one render
+    private static final long COALESCE_WINDOW_MS = 300;
+
+    // Single worker so renders never run on the receiver's main thread and never overlap
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private static ScheduledFuture<?> pendingUpdate;
+    // nanoTime of the first updateWidget call not yet rendered, or 0
+    private static long pendingSince;
 
     @Override
     public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
+        Context appContext = context.getApplicationContext();
+        PendingResult result = goAsync();
+        executor.execute(() -> {
+            try {
+                updateAppWidgets(appContext, appWidgetManager, appWidgetIds);
+            } finally {
+                result.finish();
+            }
+        });
+    }
+
+    @Override
+    public void onAppWidgetOptionsChanged(Context context, AppWidgetManager appWidgetManager,
+                                          int appWidgetId, Bundle newOptions) {
+        // Widget was resized, re-render at the new pixel size
+        Context appContext = context.getApplicationContext();
+        PendingResult result = goAsync();
+        executor.execute(() -> {
+            try {
+                updateAppWidgets(appContext, appWidgetManager, new int[] {appWidgetId});
+            } finally {
+                result.finish();
+            }
+        });
+    }
+
+    /**
+     * Renders the QR once per distinct widget size and pushes the same views
+     * to every widget instance of that size.
+     */
+    static void updateAppWidgets(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
+        if (appWidgetIds == null || appWidgetIds.length == 0) {
+            return;
+        }
+
+        SparseArray<List<Integer>> idsBySize = new SparseArray<>();
         for (int appWidgetId : appWidgetIds) {
-            updateAppWidget(context, appWidgetManager, appWidgetId);
+            int size = getQrSizePx(context, appWidgetManager, appWidgetId);
+            List<Integer> ids = idsBySize.get(size);
+            if (ids == null) {
+                ids = new ArrayList<>();
+                idsBySize.put(size, ids);
+            }
+            ids.add(appWidgetId);
+        }
+
+        for (int i = 0; i < idsBySize.size(); i++) {
+            List<Integer> ids = idsBySize.valueAt(i);
+            int[] group = new int[ids.size()];
+            for (int j = 0; j < group.length; j++) {
+                group[j] = ids.get(j);
+            }
+            RemoteViews views = buildViews(context, idsBySize.keyAt(i));
+            long start = System.nanoTime();
+            appWidgetManager.updateAppWidget(group, views);
+            NativeMetrics.WIDGET_PUSH.recordSince(start);
         }
     }
 
-    static void updateAppWidget(Context context, AppWidgetManager appWidgetManager, int appWidgetId) {
+    /**
+     * Pixel size of the square QR for a widget instance, taken from the
+     * launcher-reported bounds and capped so the bitmap fits the byte budget.
+     */
+    private static int getQrSizePx(Context context, AppWidgetManager appWidgetManager, int appWidgetId) {
+        Bundle options = appWidgetManager.getAppWidgetOptions(appWidgetId);
+        int minWidth = options.getInt(AppWidgetManager.OPTION_APPWIDGET_MIN_WIDTH);
+        int maxWidth = options.getInt(AppWidgetManager.OPTION_APPWIDGET_MAX_WIDTH);
+        int minHeight = options.getInt(AppWidgetManager.OPTION_APPWIDGET_MIN_HEIGHT);
+        int maxHeight = options.getInt(AppWidgetManager.OPTION_APPWIDGET_MAX_HEIGHT);
+
+        // Portrait uses min width x max height, landscape max width x min height
+        int sizeDp = Math.max(Math.min(minWidth, maxHeight), Math.min(maxWidth, minHeight));
+        if (sizeDp <= 0) {
+            sizeDp = DEFAULT_SIZE_DP;
+        }
+        sizeDp -= IMAGE_MARGIN_DP * 2;
+
+        float density = context.getResources().getDisplayMetrics().density;
+        int maxSize = (int) Math.sqrt(MAX_BITMAP_BYTES / (double) QRBitmapCache.bytesPerPixel(QrOptions.DEFAULT));
+        int sizePx = Math.round(sizeDp * density);
+        return Math.max(MIN_QR_SIZE, Math.min(sizePx, maxSize));
+    }
+
+    private static RemoteViews buildViews(Context context, int qrSize) {
         RemoteViews views = new RemoteViews(context.getPackageName(), R.layout.widget_qr_code);
 
-        // Get the stored profile slug
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        String profileSlug = prefs.getString(PREF_PROFILE_SLUG, null);
+        // Profile URL or offline contact card, whichever is selected
+        QRPayloadStore.Payload payload = QRPayloadStore.current(context);
 
-        if (profileSlug != null && !profileSlug.isEmpty()) {
-            String publicUrl = BASE_URL + profileSlug;
-            
+        if (payload != null) {
             try {
-                // Generate QR code
-                Bitmap qrBitmap = generateQRCode(publicUrl, 512);
+                // Decode the cached render, encoding only when the payload changed
+                Bitmap qrBitmap = QRBitmapCache.get(context, payload.content, qrSize, payload.options);
                 views.setImageViewBitmap(R.id.qr_code_image, qrBitmap);
                 views.setViewVisibility(R.id.placeholder_text, android.view.View.GONE);
                 views.setViewVisibility(R.id.qr_code_image, android.view.View.VISIBLE);
@@ -55,8 +147,16 @@ public class QRWidgetProvider extends AppWidgetProvider {
             showPlaceholder(views);
         }
 
-        // Set up click to open the app
-        Intent intent = new Intent(context, MainActivity.class);
+        CardSnapshot card = CardSnapshots.active(context);
+        if (card != null && card.getName() != null) {
+            views.setTextViewText(R.id.card_name, card.getName());
+            views.setViewVisibility(R.id.card_name, android.view.View.VISIBLE);
+        } else {
+            views.setViewVisibility(R.id.card_name, android.view.View.GONE);
+        }
+
+        // Tapping opens the native QR screen; the WebView only starts if the user asks for the app
+        Intent intent = new Intent(context, QuickShareActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
         PendingIntent pendingIntent = PendingIntent.getActivity(
             context, 
@@ -66,7 +166,7 @@ public class QRWidgetProvider extends AppWidgetProvider {
         );
         views.setOnClickPendingIntent(R.id.qr_code_image, pendingIntent);
 
-        appWidgetManager.updateAppWidget(appWidgetId, views);
+        return views;
     }
 
     private static void showPlaceholder(RemoteViews views) {
@@ -74,38 +174,33 @@ public class QRWidgetProvider extends AppWidgetProvider {
         views.setViewVisibility(R.id.qr_code_image, android.view.View.GONE);
     }
 
-    private static Bitmap generateQRCode(String content, int size) throws WriterException {
-        Map<EncodeHintType, Object> hints = new HashMap<>();
-        hints.put(EncodeHintType.MARGIN, 1);
-        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-
-        QRCodeWriter writer = new QRCodeWriter();
-        BitMatrix bitMatrix = writer.encode(content, BarcodeFormat.QR_CODE, size, size, hints);
-
-        int width = bitMatrix.getWidth();
-        int height = bitMatrix.getHeight();
-        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                bitmap.setPixel(x, y, bitMatrix.get(x, y) ? 0xFF1C1C1E : 0xFFFFFFFF);
-            }
-        }
-
-        return bitmap;
-    }
-
     /**
-     * Call this method from the web app via a Capacitor plugin to update the widget
+     * Re-renders every widget from the payload in {@link QRPayloadStore}.
+     * Calls within {@link #COALESCE_WINDOW_MS} of each other result in a single render.
      */
-    public static void updateWidget(Context context, String profileSlug) {
-        // Save the profile slug
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        prefs.edit().putString(PREF_PROFILE_SLUG, profileSlug).apply();
-
-        // Trigger widget update
-        Intent intent = new Intent(context, QRWidgetProvider.class);
-        intent.setAction(AppWidgetManager.ACTION_APPWIDGET_UPDATE);
-        context.sendBroadcast(intent);
+    public static void updateWidget(Context context) {
+        // Render directly on the worker; the last call in a burst wins
+        Context appContext = context.getApplicationContext();
+        synchronized (QRWidgetProvider.class) {
+            if (pendingUpdate != null) {
+                pendingUpdate.cancel(false);
+            }
+            if (pendingSince == 0) {
+                pendingSince = System.nanoTime();
+            }
+            pendingUpdate = executor.schedule(() -> {
+                long requestedAt;
+                synchronized (QRWidgetProvider.class) {
+                    requestedAt = pendingSince;
+                    pendingSince = 0;
+                }
+                AppWidgetManager manager = AppWidgetManager.getInstance(appContext);
+                int[] ids = manager.getAppWidgetIds(new ComponentName(appContext, QRWidgetProvider.class));
+                updateAppWidgets(appContext, manager, ids);
+                if (ids.length > 0) {
+                    NativeMetrics.WIDGET_LATENCY.recordSince(requestedAt);
+                }
+            }, COALESCE_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
     }
 }
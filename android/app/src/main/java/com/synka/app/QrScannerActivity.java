@@ -0,0 +1,172 @@
+package com.synka.app;
+
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.util.Size;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+import androidx.camera.core.Preview;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.camera.view.PreviewView;
+import androidx.core.content.ContextCompat;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.synka.app.qr.QrFrameDecoder;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Full-screen camera that decodes QR codes natively and returns the first hit.
+ *
+ * Frames are analysed on a single background thread with KEEP_ONLY_LATEST
+ * backpressure, so frames that arrive while a decode is running are dropped
+ * by CameraX instead of queueing. Synka profile links are handed straight to
+ * the app's own App Link routing.
+ */
+public class QrScannerActivity extends AppCompatActivity {
+
+    private static final String TAG = "QrScannerActivity";
+
+    static final String EXTRA_TEXT = "text";
+    static final String EXTRA_FORMAT = "format";
+    static final String EXTRA_ROUTED = "routed";
+
+    // Centered square the decoder reads, as a fraction of the frame's short edge
+    private static final float ROI_FRACTION = 0.7f;
+    // 720p keeps small printed codes readable without slowing the binarizer down
+    private static final Size ANALYSIS_SIZE = new Size(1280, 720);
+
+    private static final String PROFILE_HOST = "synka.in";
+
+    private final AtomicBoolean handled = new AtomicBoolean();
+    private ExecutorService analysisExecutor;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_qr_scanner);
+
+        // The preview fills the screen, so the decoded square always covers at least this much of it
+        DisplayMetrics metrics = getResources().getDisplayMetrics();
+        View frame = findViewById(R.id.scanner_frame);
+        ViewGroup.LayoutParams params = frame.getLayoutParams();
+        params.width = params.height = (int) (Math.min(metrics.widthPixels, metrics.heightPixels) * ROI_FRACTION);
+        frame.setLayoutParams(params);
+
+        analysisExecutor = Executors.newSingleThreadExecutor();
+
+        ListenableFuture<ProcessCameraProvider> providerFuture = ProcessCameraProvider.getInstance(this);
+        providerFuture.addListener(() -> {
+            try {
+                bindCamera(providerFuture.get());
+            } catch (ExecutionException | InterruptedException | IllegalArgumentException e) {
+                Log.e(TAG, "Failed to start camera", e);
+                setResult(RESULT_CANCELED);
+                finish();
+            }
+        }, ContextCompat.getMainExecutor(this));
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (analysisExecutor != null) {
+            analysisExecutor.shutdown();
+        }
+    }
+
+    private void bindCamera(ProcessCameraProvider provider) {
+        PreviewView previewView = findViewById(R.id.scanner_preview);
+        Preview preview = new Preview.Builder().build();
+        preview.setSurfaceProvider(previewView.getSurfaceProvider());
+
+        ImageAnalysis analysis = new ImageAnalysis.Builder()
+            .setResolutionSelector(new ResolutionSelector.Builder()
+                .setResolutionStrategy(new ResolutionStrategy(ANALYSIS_SIZE,
+                    ResolutionStrategy.FALLBACK_RULE_CLOSEST_LOWER_THEN_HIGHER))
+                .build())
+            .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+            .setOutputImageFormat(ImageAnalysis.OUTPUT_IMAGE_FORMAT_YUV_420_888)
+            .build();
+
+        // Confined to the analysis thread; its ROI buffer is reused for every frame
+        QrFrameDecoder decoder = new QrFrameDecoder(ROI_FRACTION);
+        analysis.setAnalyzer(analysisExecutor, image -> analyze(decoder, image));
+
+        provider.unbindAll();
+        provider.bindToLifecycle(this, CameraSelector.DEFAULT_BACK_CAMERA, preview, analysis);
+    }
+
+    private void analyze(QrFrameDecoder decoder, ImageProxy image) {
+        try {
+            if (handled.get()) {
+                return;
+            }
+            // Plane 0 of YUV_420_888 is luminance with a pixel stride of 1
+            ImageProxy.PlaneProxy luminance = image.getPlanes()[0];
+            QrFrameDecoder.Decoded decoded = decoder.decode(
+                luminance.getBuffer(), image.getWidth(), image.getHeight(), luminance.getRowStride());
+            if (decoded != null && handled.compareAndSet(false, true)) {
+                runOnUiThread(() -> deliver(decoded));
+            }
+        } finally {
+            image.close();
+        }
+    }
+
+    private void deliver(QrFrameDecoder.Decoded decoded) {
+        Uri profileLink = toProfileLink(decoded.getText());
+        if (profileLink != null) {
+            // Same path as a tapped link: MainActivity is singleTask, so this lands in onNewIntent
+            Intent view = new Intent(Intent.ACTION_VIEW, profileLink)
+                .addCategory(Intent.CATEGORY_BROWSABLE)
+                .setPackage(getPackageName());
+            startActivity(view);
+        }
+
+        Intent data = new Intent()
+            .putExtra(EXTRA_TEXT, decoded.getText())
+            .putExtra(EXTRA_FORMAT, decoded.getFormat())
+            .putExtra(EXTRA_ROUTED, profileLink != null);
+        setResult(RESULT_OK, data);
+        finish();
+    }
+
+    /**
+     * Returns the App Link form of a scanned synka.in /u/ or /card/ URL, or
+     * {@code null} when the code is anything else.
+     */
+    static Uri toProfileLink(String text) {
+        Uri uri = Uri.parse(text.trim());
+        String host = uri.getHost();
+        String path = uri.getPath();
+        if (!"https".equalsIgnoreCase(uri.getScheme()) && !"http".equalsIgnoreCase(uri.getScheme())) {
+            return null;
+        }
+        if (host == null || path == null) {
+            return null;
+        }
+        host = host.toLowerCase();
+        if (!host.equals(PROFILE_HOST) && !host.equals("www." + PROFILE_HOST)) {
+            return null;
+        }
+        if (!path.startsWith("/u/") && !path.startsWith("/card/")) {
+            return null;
+        }
+        // The App Link intent filter only matches https://synka.in
+        return uri.buildUpon().scheme("https").authority(PROFILE_HOST).build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.synka.app;
+
+import android.Manifest;
+import android.app.Activity;
+import android.content.Intent;
+
+import androidx.activity.result.ActivityResult;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PermissionState;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.ActivityCallback;
+import com.getcapacitor.annotation.CapacitorPlugin;
+import com.getcapacitor.annotation.Permission;
+import com.getcapacitor.annotation.PermissionCallback;
+
+/**
+ * Opens {@link QrScannerActivity} and resolves with the first decoded code.
+ * Synka profile links are already routed in-app by the time this resolves.
+ */
+@CapacitorPlugin(
+    name = "QrScanner",
+    permissions = {
+        @Permission(strings = { Manifest.permission.CAMERA }, alias = QrScannerPlugin.CAMERA)
+    }
+)
+public class QrScannerPlugin extends Plugin {
+
+    static final String CAMERA = "camera";
+
+    @PluginMethod
+    public void scan(PluginCall call) {
+        if (getPermissionState(CAMERA) != PermissionState.GRANTED) {
+            requestPermissionForAlias(CAMERA, call, "cameraPermsCallback");
+            return;
+        }
+        launchScanner(call);
+    }
+
+    @PermissionCallback
+    private void cameraPermsCallback(PluginCall call) {
+        if (getPermissionState(CAMERA) != PermissionState.GRANTED) {
+            call.reject("Camera permission denied");
+            return;
+        }
+        launchScanner(call);
+    }
+
+    private void launchScanner(PluginCall call) {
+        Intent intent = new Intent(getContext(), QrScannerActivity.class);
+        startActivityForResult(call, intent, "scanResult");
+    }
+
+    @ActivityCallback
+    private void scanResult(PluginCall call, ActivityResult result) {
+        if (call == null) {
+            return;
+        }
+        Intent data = result.getData();
+        if (result.getResultCode() != Activity.RESULT_OK || data == null) {
+            call.reject("cancelled");
+            return;
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("text", data.getStringExtra(QrScannerActivity.EXTRA_TEXT));
+        ret.put("format", data.getStringExtra(QrScannerActivity.EXTRA_FORMAT));
+        ret.put("routed", data.getBooleanExtra(QrScannerActivity.EXTRA_ROUTED, false));
+        call.resolve(ret);
+    }
+}
@@ -0,0 +1,134 @@
+package com.synka.app;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Bundle;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.view.View;
+import android.view.WindowManager;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import com.google.zxing.WriterException;
+import com.synka.app.card.CardSnapshot;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shows the user's QR full-screen without starting the WebView.
+ *
+ * Opened from the home-screen widget and the "Show QR" app shortcut. The QR
+ * comes from {@link QRBitmapCache}, so after the first render it is a PNG
+ * decode from app storage; name, title and avatar come from
+ * {@link CardSnapshots}. A plain {@link Activity} keeps the cold start
+ * down to inflating one small layout; the full app is one tap away.
+ */
+public class QuickShareActivity extends Activity {
+
+    private static final String TAG = "QuickShareActivity";
+
+    // Fraction of the short screen edge the QR fills, leaving a quiet zone around it
+    private static final float QR_FRACTION = 0.75f;
+    // Keeps the cached PNG small on tablets; modules are still many pixels wide at this size
+    private static final int MAX_QR_SIZE = 1024;
+
+    private ExecutorService renderExecutor;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_quick_share);
+
+        // Scanners read a bright screen far more reliably, whatever the system setting is
+        WindowManager.LayoutParams attributes = getWindow().getAttributes();
+        attributes.screenBrightness = WindowManager.LayoutParams.BRIGHTNESS_OVERRIDE_FULL;
+        getWindow().setAttributes(attributes);
+        getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
+
+        findViewById(R.id.quick_share_open).setOnClickListener(v -> openApp());
+
+        DisplayMetrics metrics = getResources().getDisplayMetrics();
+        int size = Math.min(MAX_QR_SIZE,
+            (int) (Math.min(metrics.widthPixels, metrics.heightPixels) * QR_FRACTION));
+
+        renderExecutor = Executors.newSingleThreadExecutor();
+        renderExecutor.execute(() -> {
+            CardSnapshot card = CardSnapshots.active(this);
+            Bitmap avatar = decodeAvatar(card);
+            Bitmap qr = load(size);
+            runOnUiThread(() -> show(card, avatar, qr));
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (renderExecutor != null) {
+            renderExecutor.shutdownNow();
+        }
+    }
+
+    private Bitmap load(int size) {
+        QRPayloadStore.Payload payload = QRPayloadStore.current(this);
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return QRBitmapCache.get(this, payload.content, size, payload.options);
+        } catch (WriterException e) {
+            Log.e(TAG, "Failed to render QR", e);
+            return null;
+        }
+    }
+
+    private static Bitmap decodeAvatar(CardSnapshot card) {
+        byte[] avatar = card != null ? card.getAvatar() : null;
+        return avatar != null ? BitmapFactory.decodeByteArray(avatar, 0, avatar.length) : null;
+    }
+
+    private void show(CardSnapshot card, Bitmap avatar, Bitmap qr) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        if (card != null) {
+            showText(R.id.quick_share_name, card.getName());
+            showText(R.id.quick_share_title, card.getCompany() != null && card.getTitle() != null
+                ? card.getTitle() + " · " + card.getCompany()
+                : card.getTitle() != null ? card.getTitle() : card.getCompany());
+        }
+        if (avatar != null) {
+            ImageView avatarView = findViewById(R.id.quick_share_avatar);
+            avatarView.setImageBitmap(avatar);
+            avatarView.setVisibility(View.VISIBLE);
+        }
+        ImageView image = findViewById(R.id.quick_share_qr);
+        View placeholder = findViewById(R.id.quick_share_placeholder);
+        if (qr != null) {
+            image.setImageBitmap(qr);
+            image.setVisibility(View.VISIBLE);
+            placeholder.setVisibility(View.GONE);
+        } else {
+            image.setVisibility(View.GONE);
+            placeholder.setVisibility(View.VISIBLE);
+        }
+    }
+
+    private void showText(int viewId, String text) {
+        if (text != null) {
+            TextView view = findViewById(viewId);
+            view.setText(text);
+            view.setVisibility(View.VISIBLE);
+        }
+    }
+
+    private void openApp() {
+        Intent intent = new Intent(this, MainActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        startActivity(intent);
+        finish();
+    }
+}
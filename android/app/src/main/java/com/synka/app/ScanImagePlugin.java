@@ -0,0 +1,156 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.ColorFilter;
+import android.graphics.ColorMatrix;
+import android.graphics.ColorMatrixColorFilter;
+import android.graphics.Rect;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Base64;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shrinks camera photos of business cards before they are uploaded for OCR.
+ *
+ * The image is decoded straight to roughly the target size (subsampled, and
+ * only the cropped region when a crop is given), then rotated, scaled and
+ * converted to grayscale in a single draw, and re-encoded as JPEG. Text
+ * recognition does not need colour or more than ~1600px, and the upload is
+ * what dominates scan latency on mobile data.
+ */
+@CapacitorPlugin(name = "ScanImage")
+public class ScanImagePlugin extends Plugin {
+
+    private static final String TAG = "ScanImagePlugin";
+    private static final String OUTPUT_DIR = "scan_images";
+    private static final int MAX_OUTPUT_FILES = 4;
+
+    private static final int DEFAULT_MAX_EDGE = 1600;
+    private static final int DEFAULT_QUALITY = 75;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    /**
+     * Options: path (file path, file:// or content:// URI), maxEdge, quality,
+     * grayscale (default true), crop ({left, top, right, bottom}, normalized
+     * to the upright image) and output ("file" or "base64").
+     */
+    @PluginMethod
+    public void prepare(PluginCall call) {
+        String path = call.getString("path");
+        if (path == null || path.isEmpty()) {
+            call.reject("Image path is required");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                call.resolve(process(getContext(), call, BitmapDecoding.toUri(path)));
+            } catch (IOException | IllegalArgumentException e) {
+                Log.w(TAG, "Failed to prepare scan image: " + e.getMessage());
+                call.reject("Failed to prepare image: " + e.getMessage());
+            } catch (OutOfMemoryError e) {
+                Log.e(TAG, "Out of memory preparing scan image", e);
+                call.reject("Image is too large to process");
+            }
+        });
+    }
+
+    private static JSObject process(Context context, PluginCall call, Uri uri) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        int maxEdge = Math.max(64, call.getInt("maxEdge", DEFAULT_MAX_EDGE));
+        int quality = Math.max(10, Math.min(100, call.getInt("quality", DEFAULT_QUALITY)));
+        boolean grayscale = call.getBoolean("grayscale", true);
+        boolean base64 = "base64".equals(call.getString("output", "file"));
+
+        BitmapFactory.Options bounds = BitmapDecoding.readBounds(context, uri);
+        int rotation = BitmapDecoding.readRotation(context, uri);
+
+        JSObject crop = call.getObject("crop");
+        Rect region = crop == null
+            ? new Rect(0, 0, bounds.outWidth, bounds.outHeight)
+            : BitmapDecoding.toRawRect(
+                (float) crop.optDouble("left", 0), (float) crop.optDouble("top", 0),
+                (float) crop.optDouble("right", 1), (float) crop.optDouble("bottom", 1),
+                bounds.outWidth, bounds.outHeight, rotation);
+
+        Bitmap decoded = BitmapDecoding.decodeRegion(context, uri, region, bounds, maxEdge);
+        Bitmap output;
+        try {
+            ColorFilter filter = null;
+            if (grayscale) {
+                ColorMatrix colorMatrix = new ColorMatrix();
+                colorMatrix.setSaturation(0f);
+                filter = new ColorMatrixColorFilter(colorMatrix);
+            }
+            output = BitmapDecoding.uprightScaled(decoded, rotation, maxEdge, filter);
+        } finally {
+            decoded.recycle();
+        }
+
+        int width = output.getWidth();
+        int height = output.getHeight();
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream(64 * 1024);
+        try {
+            output.compress(Bitmap.CompressFormat.JPEG, quality, jpeg);
+        } finally {
+            output.recycle();
+        }
+        byte[] bytes = jpeg.toByteArray();
+
+        JSObject result = new JSObject();
+        result.put("width", width);
+        result.put("height", height);
+        result.put("bytes", bytes.length);
+        if (base64) {
+            result.put("base64", Base64.encodeToString(bytes, Base64.NO_WRAP));
+        } else {
+            result.put("path", Uri.fromFile(writeOutput(context, bytes)).toString());
+        }
+        result.put("durationMs", SystemClock.elapsedRealtime() - start);
+        return result;
+    }
+
+    /** Writes to the cache dir, keeping only the last few outputs around. */
+    private static File writeOutput(Context context, byte[] bytes) throws IOException {
+        File dir = new File(context.getCacheDir(), OUTPUT_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        File file = new File(dir, "scan_" + System.currentTimeMillis() + ".jpg");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+        trim(dir);
+        return file;
+    }
+
+    private static void trim(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null || files.length <= MAX_OUTPUT_FILES) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = MAX_OUTPUT_FILES; i < files.length; i++) {
+            if (!files[i].delete()) {
+                Log.w(TAG, "Failed to delete " + files[i]);
+            }
+        }
+    }
+}
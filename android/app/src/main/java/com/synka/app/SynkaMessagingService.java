@@ -0,0 +1,93 @@
+package com.synka.app;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.messaging.FirebaseMessagingService;
+import com.google.firebase.messaging.RemoteMessage;
+import com.synka.app.card.CardSnapshot;
+import com.synka.app.card.CardSnapshotStore;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Handles data-only "card_updated" pushes sent when the profile changes
+ * elsewhere, e.g. an edit on the web.
+ *
+ * The stored slug and card snapshot are updated here and the widget and
+ * watch re-synced through {@link WidgetSyncEngine}, all without starting
+ * MainActivity or the WebView. Payload keys mirror updateCardSnapshot:
+ * {type, card_id, slug?, name?, title?, company?, avatar_url?}. Only keys
+ * present change, and an empty value clears the field. Snapshots are keyed
+ * by cards row id, so card_id is the id of the user's default card, the
+ * one the widget and watch show.
+ */
+public class SynkaMessagingService extends FirebaseMessagingService {
+
+    private static final String TAG = "SynkaMessaging";
+    private static final String TYPE_CARD_UPDATED = "card_updated";
+
+    @Override
+    public void onMessageReceived(@NonNull RemoteMessage message) {
+        Map<String, String> data = message.getData();
+        if (!TYPE_CARD_UPDATED.equals(data.get("type"))) {
+            Log.d(TAG, "Ignoring message of type " + data.get("type"));
+            return;
+        }
+
+        String slug = data.get("slug");
+        if (slug != null && !slug.isEmpty()) {
+            QRPayloadStore.setProfileSlug(this, slug);
+        }
+        String cardId = data.get("card_id");
+        if (cardId != null && !cardId.isEmpty()) {
+            updateCard(cardId, data);
+        }
+
+        // Skips the widget and watch when they already show this payload and card
+        WidgetSyncEngine.getInstance(this).sync(false);
+    }
+
+    @Override
+    public void onNewToken(@NonNull String token) {
+        // JS reads the current token through WidgetBridge.getMessagingToken and registers it
+        Log.d(TAG, "Messaging token refreshed");
+    }
+
+    /** The pushed card becomes the active one; pushes only ever describe the default card. */
+    private void updateCard(String cardId, Map<String, String> data) {
+        try {
+            CardSnapshotStore store = CardSnapshots.get(this);
+            CardSnapshot existing = store.read().get(cardId);
+            CardSnapshot.Builder builder = existing != null
+                ? existing.toBuilder()
+                : new CardSnapshot.Builder(cardId);
+            if (data.containsKey("slug")) {
+                builder.setSlug(emptyToNull(data.get("slug")));
+            }
+            if (data.containsKey("name")) {
+                builder.setName(emptyToNull(data.get("name")));
+            }
+            if (data.containsKey("title")) {
+                builder.setTitle(emptyToNull(data.get("title")));
+            }
+            if (data.containsKey("company")) {
+                builder.setCompany(emptyToNull(data.get("company")));
+            }
+            if (data.containsKey("avatar_url")) {
+                // onMessageReceived may block for a few seconds; the fetch times out well inside that
+                CardSnapshots.updateAvatar(this, builder, existing, emptyToNull(data.get("avatar_url")));
+            }
+            store.put(builder.build(), true);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to store pushed card", e);
+        }
+    }
+
+    // FCM data values are strings, so a cleared field arrives as ""
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
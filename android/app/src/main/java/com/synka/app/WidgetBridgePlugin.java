@@ -8,36 +8,45 @@ import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
 
-import com.google.android.gms.tasks.Task;
-import com.google.android.gms.wearable.DataClient;
-import com.google.android.gms.wearable.DataItem;
-import com.google.android.gms.wearable.PutDataMapRequest;
-import com.google.android.gms.wearable.PutDataRequest;
-import com.google.android.gms.wearable.Wearable;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.zxing.WriterException;
+import com.synka.app.card.CardSnapshot;
+import com.synka.app.card.CardSnapshotStore;
+import com.synka.app.qr.ContactCard;
+import com.synka.app.qr.ContactQr;
+import com.synka.app.qr.QrOptions;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @CapacitorPlugin(name = "WidgetBridge")
 public class WidgetBridgePlugin extends Plugin {
 
     private static final String TAG = "WidgetBridgePlugin";
-    private static final String PROFILE_SLUG_PATH = "/synka/profile_slug";
-    private static final String KEY_PROFILE_SLUG = "profile_slug";
+
+    // Offline cards are fitted to the smallest surface: the 180px watch tile at 3px per module
+    private static final int TILE_QR_SIZE = 180;
+    private static final int MIN_MODULE_PX = 3;
+
+    // Snapshot writes may fetch an avatar, so they run off the plugin thread, one at a time
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor();
 
     @PluginMethod
     public void updateWidget(PluginCall call) {
         String profileSlug = call.getString("profileSlug");
-        
+
         if (profileSlug == null || profileSlug.isEmpty()) {
             call.reject("Profile slug is required");
             return;
         }
 
         try {
-            // Update phone home screen widget
-            QRWidgetProvider.updateWidget(getContext(), profileSlug);
-            
-            // Sync to Wear OS watch
-            syncToWearOS(profileSlug);
-            
+            QRPayloadStore.setProfileSlug(getContext(), profileSlug);
+
+            // Update the phone widget and Wear OS watch, skipping whichever is already current
+            WidgetSyncEngine.getInstance(getContext()).sync(call.getBoolean("force", false));
+
             call.resolve();
         } catch (Exception e) {
             Log.e(TAG, "Failed to update widget", e);
@@ -46,28 +55,195 @@ public class WidgetBridgePlugin extends Plugin {
     }
 
     /**
-     * Sync profile slug to connected Wear OS watches via Data Layer API
+     * Choose what the widget and watch QR encodes: "url" for the public profile
+     * link, or "vcard" to embed the given card fields for offline exchange.
      */
-    private void syncToWearOS(String profileSlug) {
+    @PluginMethod
+    public void setCardPayload(PluginCall call) {
+        String mode = call.getString("mode", QRPayloadStore.MODE_URL);
+
+        if (QRPayloadStore.MODE_URL.equals(mode)) {
+            QRPayloadStore.useUrl(getContext());
+            WidgetSyncEngine.getInstance(getContext()).sync(false);
+            JSObject result = new JSObject();
+            result.put("mode", mode);
+            call.resolve(result);
+            return;
+        }
+
+        if (!QRPayloadStore.MODE_VCARD.equals(mode)) {
+            call.reject("Unknown mode: " + mode);
+            return;
+        }
+
+        JSObject card = call.getObject("card");
+        if (card == null || card.getString("name") == null) {
+            call.reject("Card with at least a name is required");
+            return;
+        }
+
+        ContactCard contactCard = new ContactCard.Builder()
+            .setName(card.getString("name"))
+            .setTitle(card.getString("title"))
+            .setCompany(card.getString("company"))
+            .setPhone(card.getString("phone"))
+            .setEmail(card.getString("email"))
+            .setWebsite(card.getString("website"))
+            .setAddress(card.getString("address"))
+            .setNote(card.getString("note"))
+            .build();
+        ContactQr.Format format = "vcard".equals(call.getString("format"))
+            ? ContactQr.Format.VCARD
+            : ContactQr.Format.MECARD;
+
         try {
-            DataClient dataClient = Wearable.getDataClient(getContext());
-            
-            PutDataMapRequest putDataMapReq = PutDataMapRequest.create(PROFILE_SLUG_PATH);
-            putDataMapReq.getDataMap().putString(KEY_PROFILE_SLUG, profileSlug);
-            putDataMapReq.getDataMap().putLong("timestamp", System.currentTimeMillis());
-            putDataMapReq.setUrgent();
-            
-            PutDataRequest putDataReq = putDataMapReq.asPutDataRequest();
-            
-            Task<DataItem> putDataTask = dataClient.putDataItem(putDataReq);
-            putDataTask.addOnSuccessListener(dataItem -> {
-                Log.d(TAG, "Successfully synced profile slug to Wear OS");
-            });
-            putDataTask.addOnFailureListener(e -> {
-                Log.w(TAG, "Failed to sync to Wear OS (no watch connected?): " + e.getMessage());
-            });
-        } catch (Exception e) {
-            Log.w(TAG, "Wear OS sync not available: " + e.getMessage());
+            ContactQr.Fitted fitted = ContactQr.fit(
+                contactCard, format, QrOptions.DEFAULT, TILE_QR_SIZE / MIN_MODULE_PX);
+            QRPayloadStore.useContactCard(getContext(), fitted);
+            WidgetSyncEngine.getInstance(getContext()).sync(false);
+
+            JSObject result = new JSObject();
+            result.put("mode", mode);
+            result.put("content", fitted.getContent());
+            result.put("errorCorrection", fitted.getOptions().getErrorCorrection().name());
+            result.put("modules", fitted.getMatrix().getSize());
+            call.resolve(result);
+        } catch (WriterException e) {
+            Log.w(TAG, "Card does not fit in a scannable QR: " + e.getMessage());
+            call.reject("Card is too large for an offline QR code");
+        }
+    }
+
+    /**
+     * Stores a card's display fields for the widget, QuickShare and watch:
+     * {id, slug?, name?, title?, company?, avatarUrl?, avatarPath?, active?}.
+     * Only keys present in the call change, null clears a field, and the
+     * avatar is only fetched when its URL differs from the stored one. An
+     * avatarPath (e.g. an ImageCrop thumbnail) is stored as-is instead of
+     * fetching avatarUrl. Resolves with
+     * {changed, hash}; targets are re-synced only when something changed.
+     */
+    @PluginMethod
+    public void updateCardSnapshot(PluginCall call) {
+        String id = call.getString("id");
+        if (id == null || id.isEmpty()) {
+            call.reject("Card id is required");
+            return;
         }
+
+        snapshotExecutor.execute(() -> {
+            try {
+                CardSnapshotStore store = CardSnapshots.get(getContext());
+                CardSnapshot existing = store.read().get(id);
+                CardSnapshot.Builder builder = existing != null ? existing.toBuilder() : new CardSnapshot.Builder(id);
+                JSObject data = call.getData();
+                if (data.has("slug")) {
+                    builder.setSlug(call.getString("slug"));
+                }
+                if (data.has("name")) {
+                    builder.setName(call.getString("name"));
+                }
+                if (data.has("title")) {
+                    builder.setTitle(call.getString("title"));
+                }
+                if (data.has("company")) {
+                    builder.setCompany(call.getString("company"));
+                }
+                if (data.has("avatarPath")) {
+                    CardSnapshots.useLocalAvatar(getContext(), builder, call.getString("avatarPath"), call.getString("avatarUrl"));
+                } else if (data.has("avatarUrl")) {
+                    CardSnapshots.updateAvatar(getContext(), builder, existing, call.getString("avatarUrl"));
+                }
+
+                CardSnapshot card = builder.build();
+                boolean changed = store.put(card, call.getBoolean("active", false));
+                if (changed) {
+                    WidgetSyncEngine.getInstance(getContext()).sync(false);
+                }
+
+                JSObject result = new JSObject();
+                result.put("changed", changed);
+                result.put("hash", card.getHash());
+                call.resolve(result);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to store card snapshot", e);
+                call.reject("Failed to store card snapshot: " + e.getMessage());
+            }
+        });
+    }
+
+    @PluginMethod
+    public void removeCardSnapshot(PluginCall call) {
+        String id = call.getString("id");
+        if (id == null || id.isEmpty()) {
+            call.reject("Card id is required");
+            return;
+        }
+
+        snapshotExecutor.execute(() -> {
+            try {
+                boolean changed = CardSnapshots.get(getContext()).remove(id);
+                if (changed) {
+                    WidgetSyncEngine.getInstance(getContext()).sync(false);
+                }
+                JSObject result = new JSObject();
+                result.put("changed", changed);
+                call.resolve(result);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to remove card snapshot", e);
+                call.reject("Failed to remove card snapshot: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Percentiles (ms) for the native QR, widget and watch stages, plus the
+     * WebView image cache counters:
+     * {metrics: {stage: {count, p50, p90, p99, max}}, imageCache: {hits, misses, ...}}.
+     */
+    @PluginMethod
+    public void getNativeMetrics(PluginCall call) {
+        JSObject result = new JSObject();
+        result.put("metrics", NativeMetrics.toJson());
+        result.put("imageCache", ImageCache.statsJson(getContext()));
+        call.resolve(result);
+    }
+
+    /**
+     * Tells the WebView image cache who is signed in, {userId} or {} when
+     * signed out. A change of user empties the cache.
+     */
+    @PluginMethod
+    public void setImageCacheOwner(PluginCall call) {
+        ImageCache.setOwner(getContext(), call.getString("userId"));
+        call.resolve();
+    }
+
+    /** Periodically logs the metrics to Firebase Analytics; intervalMinutes 0 turns it off. */
+    @PluginMethod
+    public void setMetricsExport(PluginCall call) {
+        int intervalMinutes = call.getInt("intervalMinutes", 0);
+        NativeMetrics.setAnalyticsExport(getContext(), intervalMinutes);
+        call.resolve();
+    }
+
+    /**
+     * The FCM token for this install, {token}. The backend sends data-only
+     * card_updated pushes to it, which {@link SynkaMessagingService} applies
+     * to the widget and watch without opening the app.
+     */
+    @PluginMethod
+    public void getMessagingToken(PluginCall call) {
+        FirebaseMessaging.getInstance().getToken().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Exception e = task.getException();
+                Log.w(TAG, "Failed to get messaging token: " + (e != null ? e.getMessage() : "unknown"));
+                call.reject("Failed to get messaging token");
+                return;
+            }
+            JSObject result = new JSObject();
+            result.put("token", task.getResult());
+            call.resolve(result);
+        });
     }
 }
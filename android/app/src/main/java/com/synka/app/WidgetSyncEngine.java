@@ -0,0 +1,260 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.wearable.Asset;
+import com.google.android.gms.wearable.CapabilityClient;
+import com.google.android.gms.wearable.DataClient;
+import com.google.android.gms.wearable.DataItem;
+import com.google.android.gms.wearable.Node;
+import com.google.android.gms.wearable.PutDataMapRequest;
+import com.google.android.gms.wearable.PutDataRequest;
+import com.google.android.gms.wearable.Wearable;
+import com.google.zxing.WriterException;
+import com.synka.app.card.CardSnapshot;
+import com.synka.app.qr.QrEncoder;
+import com.synka.app.qr.QrMatrix;
+import com.synka.app.qr.QrPushMessage;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes the profile QR and active card snapshot to the home screen widget
+ * and Wear OS, skipping targets that already have the current payload.
+ *
+ * The last synced content hash (QR plus card) is stored per target. A target
+ * is only touched when its hash differs, so repeated calls from useProfile
+ * with an unchanged profile cost nothing. Failed Wear syncs are retried with bounded
+ * exponential backoff; a newer payload supersedes any pending retry.
+ *
+ * Watches in reach also get the QR directly over MessageClient, which lands
+ * well before the DataItem does. Watches can ask for it with a request
+ * message, so a newly added tile does not wait for Data Layer sync.
+ */
+final class WidgetSyncEngine {
+
+    private static final String TAG = "WidgetSyncEngine";
+    private static final String PREFS_NAME = "SynkaSyncPrefs";
+    private static final String PREF_WIDGET_HASH = "widget_hash";
+    private static final String PREF_WEAR_HASH = "wear_hash";
+
+    private static final String PROFILE_SLUG_PATH = "/synka/profile_slug";
+    private static final String KEY_PROFILE_SLUG = "profile_slug";
+    private static final String KEY_QR_MATRIX = "qr_matrix";
+    private static final String KEY_QR_SIZE = "qr_size";
+    private static final String KEY_QR_HASH = "qr_hash";
+    private static final String KEY_CARD = "card";
+    private static final String KEY_CARD_HASH = "card_hash";
+
+    // Declared by the watch app in res/values/wear.xml
+    private static final String WATCH_CAPABILITY = "synka_qr_tile";
+    private static final String QR_PUSH_PATH = "/synka/qr_push";
+
+    private static final int MAX_WEAR_ATTEMPTS = 5;
+    private static final long INITIAL_BACKOFF_MS = 2000;
+    private static final long MAX_BACKOFF_MS = 60000;
+
+    private static WidgetSyncEngine instance;
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final ScheduledExecutorService retryExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    // Bumped for every new Wear payload so stale retries drop out
+    private int wearGeneration;
+    // Last payload put for the watch and when, for the round-trip metric
+    private String wearSentHash;
+    private long wearSentAt;
+
+    private WidgetSyncEngine(Context context) {
+        this.context = context.getApplicationContext();
+        this.prefs = this.context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    static synchronized WidgetSyncEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new WidgetSyncEngine(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Syncs the current {@link QRPayloadStore} payload to every target that is
+     * not up to date. With {@code force} set, all targets are pushed regardless of state.
+     */
+    synchronized void sync(boolean force) {
+        QRPayloadStore.Payload payload = QRPayloadStore.current(context);
+        if (payload == null) {
+            return;
+        }
+        String hash = payload.hash();
+        CardSnapshot card = CardSnapshots.active(context);
+        // Both targets show the card's name too, so a card edit alone also needs a push
+        String state = card != null ? hash + ':' + card.getHash() : hash;
+
+        if (force || !state.equals(prefs.getString(PREF_WIDGET_HASH, null))) {
+            QRWidgetProvider.updateWidget(context);
+            prefs.edit().putString(PREF_WIDGET_HASH, state).apply();
+        } else {
+            Log.d(TAG, "Widget already up to date");
+        }
+
+        boolean wearChanged = !state.equals(prefs.getString(PREF_WEAR_HASH, null));
+        if (force || wearChanged) {
+            int generation = ++wearGeneration;
+            QrMatrix matrix = encodeForWear(payload);
+            // Direct message first for watches in reach; the DataItem is the durable copy
+            pushToReachableWatches(hash, matrix);
+            PutDataRequest request = buildWearRequest(QRPayloadStore.getProfileSlug(context), matrix, hash, card,
+                wearChanged);
+            syncToWearOS(request, hash, state, generation, 1);
+        } else {
+            Log.d(TAG, "Wear OS already up to date");
+        }
+    }
+
+    /**
+     * The DataItem for connected Wear OS watches. The QR is encoded here and
+     * sent as a packed 1-bit matrix so the watch never has to run the encoder
+     * itself; the active card travels alongside it for the tile's label.
+     * Only a changed payload is {@code urgent}: a forced re-sync of what the
+     * watch already has can wait for the next batched Data Layer delivery.
+     */
+    private static PutDataRequest buildWearRequest(String profileSlug, QrMatrix matrix, String hash,
+                                                   CardSnapshot card, boolean urgent) {
+        // No timestamp: an unchanged payload must map to an unchanged DataItem
+        PutDataMapRequest putDataMapReq = PutDataMapRequest.create(PROFILE_SLUG_PATH);
+        if (profileSlug != null) {
+            putDataMapReq.getDataMap().putString(KEY_PROFILE_SLUG, profileSlug);
+        }
+        if (matrix != null) {
+            putDataMapReq.getDataMap().putAsset(KEY_QR_MATRIX, Asset.createFromBytes(matrix.toPackedBytes()));
+            putDataMapReq.getDataMap().putInt(KEY_QR_SIZE, matrix.getSize());
+            putDataMapReq.getDataMap().putString(KEY_QR_HASH, hash);
+        }
+        if (card != null) {
+            // The hash lets the watch skip fetching an asset it already has
+            putDataMapReq.getDataMap().putAsset(KEY_CARD, Asset.createFromBytes(card.toBytes()));
+            putDataMapReq.getDataMap().putString(KEY_CARD_HASH, card.getHash());
+        }
+        if (urgent) {
+            putDataMapReq.setUrgent();
+        }
+        return putDataMapReq.asPutDataRequest();
+    }
+
+    /** Puts {@code request} via the Data Layer API, retrying with backoff on failure. */
+    private void syncToWearOS(PutDataRequest request, String hash, String state,
+                              int generation, int attempt) {
+        try {
+            DataClient dataClient = Wearable.getDataClient(context);
+            markWearSent(hash);
+
+            Task<DataItem> putDataTask = dataClient.putDataItem(request);
+            putDataTask.addOnSuccessListener(dataItem -> {
+                Log.d(TAG, "Successfully synced profile slug to Wear OS");
+                synchronized (this) {
+                    if (generation == wearGeneration) {
+                        prefs.edit().putString(PREF_WEAR_HASH, state).apply();
+                    }
+                }
+            });
+            putDataTask.addOnFailureListener(e -> {
+                Log.w(TAG, "Failed to sync to Wear OS (attempt " + attempt + "): " + e.getMessage());
+                scheduleWearRetry(request, hash, state, generation, attempt);
+            });
+        } catch (Exception e) {
+            Log.w(TAG, "Wear OS sync not available: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Answers a watch that asked for the current QR, typically because its
+     * tile was just added or has nothing rendered yet.
+     */
+    void replyToWatch(String nodeId) {
+        QRPayloadStore.Payload payload = QRPayloadStore.current(context);
+        if (payload == null) {
+            return;
+        }
+        String hash = payload.hash();
+        QrMatrix matrix = encodeForWear(payload);
+        if (matrix != null) {
+            sendQrMessage(nodeId, hash, matrix);
+        }
+    }
+
+    /** Sends the QR to every watch that declares the tile capability and is reachable now. */
+    private void pushToReachableWatches(String hash, QrMatrix matrix) {
+        if (matrix == null) {
+            return;
+        }
+        try {
+            Wearable.getCapabilityClient(context)
+                .getCapability(WATCH_CAPABILITY, CapabilityClient.FILTER_REACHABLE)
+                .addOnSuccessListener(info -> {
+                    for (Node node : info.getNodes()) {
+                        sendQrMessage(node.getId(), hash, matrix);
+                    }
+                })
+                .addOnFailureListener(e -> Log.w(TAG, "Watch capability lookup failed: " + e.getMessage()));
+        } catch (Exception e) {
+            Log.w(TAG, "Wear OS messaging not available: " + e.getMessage());
+        }
+    }
+
+    private void sendQrMessage(String nodeId, String hash, QrMatrix matrix) {
+        markWearSent(hash);
+        Wearable.getMessageClient(context)
+            .sendMessage(nodeId, QR_PUSH_PATH, QrPushMessage.encode(hash, matrix))
+            .addOnFailureListener(e -> Log.w(TAG, "Failed to push QR to " + nodeId + ": " + e.getMessage()));
+    }
+
+    /** Starts the round-trip clock, keeping the earliest send of a payload. */
+    private synchronized void markWearSent(String hash) {
+        if (!hash.equals(wearSentHash)) {
+            wearSentHash = hash;
+            wearSentAt = System.nanoTime();
+        }
+    }
+
+    /** Called when the watch reports it has rendered the payload with {@code hash}. */
+    synchronized void onWearAck(String hash) {
+        if (hash != null && hash.equals(wearSentHash)) {
+            NativeMetrics.WEAR_ROUND_TRIP.recordSince(wearSentAt);
+            wearSentHash = null;
+        }
+    }
+
+    private void scheduleWearRetry(PutDataRequest request, String hash, String state,
+                                   int generation, int attempt) {
+        if (attempt >= MAX_WEAR_ATTEMPTS) {
+            Log.w(TAG, "Giving up on Wear OS sync after " + attempt + " attempts");
+            return;
+        }
+        long delay = Math.min(INITIAL_BACKOFF_MS << (attempt - 1), MAX_BACKOFF_MS);
+        retryExecutor.schedule(() -> {
+            synchronized (this) {
+                if (generation != wearGeneration) {
+                    return;
+                }
+            }
+            syncToWearOS(request, hash, state, generation, attempt + 1);
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /** Encodes once per payload for both the message and the DataItem; {@code null} on failure. */
+    private static QrMatrix encodeForWear(QRPayloadStore.Payload payload) {
+        try {
+            return QrEncoder.encode(payload.content, payload.options);
+        } catch (WriterException e) {
+            Log.w(TAG, "Failed to encode QR for Wear OS: " + e.getMessage());
+            return null;
+        }
+    }
+}
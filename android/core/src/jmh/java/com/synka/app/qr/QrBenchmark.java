@@ -0,0 +1,84 @@
+package com.synka.app.qr;
+
+import com.google.zxing.WriterException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Encode and render costs for the payloads the widget and watch tile
+ * actually draw, at the tile (180px) and large widget (512px) sizes.
+ *
+ * Run with {@code ./gradlew :core:jmh}; results land in
+ * build/results/jmh. The gc profiler reports allocation per operation,
+ * and sample mode reports p99 latency.
+ */
+@State(Scope.Thread)
+public class QrBenchmark {
+
+    private static final ContactCard CARD = new ContactCard.Builder()
+        .setName("Priya Raman")
+        .setTitle("Head of Partnerships")
+        .setCompany("Synka Technologies")
+        .setPhone("+91 98765 43210")
+        .setEmail("priya.raman@synka.in")
+        .setWebsite("https://synka.in/u/priya-raman")
+        .setAddress("12 MG Road, Bengaluru 560001")
+        .setNote("Met at NFC Expo")
+        .build();
+
+    @Param({"slug", "vcard"})
+    public String payload;
+
+    @Param({"180", "512"})
+    public int size;
+
+    private String content;
+    private QrMatrix matrix;
+    private int[] reuse;
+
+    @Setup
+    public void setUp() throws WriterException {
+        content = "slug".equals(payload)
+            ? "https://synka.in/u/john-doe"
+            : ContactQr.format(CARD, ContactQr.Format.VCARD);
+        matrix = QrEncoder.encode(content, QrOptions.DEFAULT);
+        int output = QrRasterizer.outputSize(matrix, size);
+        reuse = new int[output * output];
+    }
+
+    @Benchmark
+    public QrMatrix encode() throws WriterException {
+        return QrEncoder.encode(content, QrOptions.DEFAULT);
+    }
+
+    /** Steady-state widget render: the pixel buffer is reused, as QRBitmapCache does. */
+    @Benchmark
+    public int[] rasterize() {
+        return QrRasterizer.rasterize(matrix, size, QrOptions.DEFAULT, reuse);
+    }
+
+    @Benchmark
+    public int[] rasterizeFresh() {
+        return QrRasterizer.rasterize(matrix, size, QrOptions.DEFAULT, null);
+    }
+
+    /** What the watch does per payload change. */
+    @Benchmark
+    public byte[] png() {
+        return QrPng.encode(matrix, size, QrOptions.DEFAULT);
+    }
+
+    @Benchmark
+    public byte[] encodeToPng() throws WriterException {
+        return QrPng.encode(QrEncoder.encode(content, QrOptions.DEFAULT), size, QrOptions.DEFAULT);
+    }
+
+    @Benchmark
+    public String cacheKey() {
+        return QrCacheKey.of(content, size, QrOptions.DEFAULT);
+    }
+}
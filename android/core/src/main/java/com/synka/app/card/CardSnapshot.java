@@ -0,0 +1,246 @@
+package com.synka.app.card;
+
+import com.synka.app.util.Sha256;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Display fields of one card as native surfaces show them: who it is, the
+ * slug its QR links to and a small pre-compressed avatar.
+ *
+ * The hash covers every displayed field, so a widget or tile can compare it
+ * with what it last drew and skip the redraw when nothing changed.
+ */
+public final class CardSnapshot {
+
+    private static final int WIRE_VERSION = 1;
+    private static final int NULL_STRING = 0xFFFF;
+
+    private final String id;
+    private final String slug;
+    private final String name;
+    private final String title;
+    private final String company;
+    private final byte[] avatar;
+    private final String avatarSource;
+    private final String hash;
+
+    private CardSnapshot(Builder builder, String hash) {
+        this.id = builder.id;
+        this.slug = builder.slug;
+        this.name = builder.name;
+        this.title = builder.title;
+        this.company = builder.company;
+        this.avatar = builder.avatar;
+        this.avatarSource = builder.avatarSource;
+        this.hash = hash != null ? hash : computeHash(builder);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getCompany() {
+        return company;
+    }
+
+    /** Encoded (JPEG) avatar bytes, or {@code null}. Not copied; do not modify. */
+    public byte[] getAvatar() {
+        return avatar;
+    }
+
+    /** URL or path the avatar was made from, so an unchanged source is not fetched again. */
+    public String getAvatarSource() {
+        return avatarSource;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public Builder toBuilder() {
+        return new Builder(id)
+            .setSlug(slug)
+            .setName(name)
+            .setTitle(title)
+            .setCompany(company)
+            .setAvatar(avatar, avatarSource);
+    }
+
+    /** Standalone encoding of this card, e.g. for sending it to the watch. */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + (avatar != null ? avatar.length : 0));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(WIRE_VERSION);
+            write(out);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** @throws IOException when the bytes are truncated or from an unknown version */
+    public static CardSnapshot fromBytes(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            int version = buffer.get() & 0xFF;
+            if (version != WIRE_VERSION) {
+                throw new IOException("Unsupported card version " + version);
+            }
+            return read(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated card", e);
+        }
+    }
+
+    /** Record layout shared with {@link CardSnapshotStore}. */
+    void write(DataOutputStream out) throws IOException {
+        writeString(out, id);
+        writeString(out, hash);
+        writeString(out, slug);
+        writeString(out, name);
+        writeString(out, title);
+        writeString(out, company);
+        writeString(out, avatarSource);
+        out.writeInt(avatar != null ? avatar.length : -1);
+        if (avatar != null) {
+            out.write(avatar);
+        }
+    }
+
+    /** @throws BufferUnderflowException when the record is truncated */
+    static CardSnapshot read(ByteBuffer in) throws IOException {
+        String id = readString(in);
+        String hash = readString(in);
+        if (id == null || hash == null) {
+            throw new IOException("Card record without id or hash");
+        }
+        Builder builder = new Builder(id)
+            .setSlug(readString(in))
+            .setName(readString(in))
+            .setTitle(readString(in))
+            .setCompany(readString(in));
+        String avatarSource = readString(in);
+        int avatarLength = in.getInt();
+        byte[] avatar = null;
+        if (avatarLength >= 0) {
+            avatar = new byte[avatarLength];
+            in.get(avatar);
+        }
+        builder.setAvatar(avatar, avatarSource);
+        // The stored hash was computed when the card was built; no need to digest again on every read
+        return new CardSnapshot(builder, hash);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IOException("Field too long: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String computeHash(Builder builder) {
+        MessageDigest digest = Sha256.newDigest();
+        for (String field : new String[] {builder.slug, builder.name, builder.title, builder.company}) {
+            // Length-prefixed so ("ab", "c") and ("a", "bc") differ
+            byte[] bytes = field != null ? field.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            digest.update(ByteBuffer.allocate(4).putInt(field != null ? bytes.length : -1).array());
+            digest.update(bytes);
+        }
+        if (builder.avatar != null) {
+            digest.update(builder.avatar);
+        }
+        return Sha256.hex(digest.digest(), 16);
+    }
+
+    public static final class Builder {
+        private final String id;
+        private String slug;
+        private String name;
+        private String title;
+        private String company;
+        private byte[] avatar;
+        private String avatarSource;
+
+        public Builder(String id) {
+            if (id == null || id.isEmpty()) {
+                throw new IllegalArgumentException("Card id is required");
+            }
+            this.id = id;
+        }
+
+        public Builder setSlug(String slug) {
+            this.slug = clean(slug);
+            return this;
+        }
+
+        public Builder setName(String name) {
+            this.name = clean(name);
+            return this;
+        }
+
+        public Builder setTitle(String title) {
+            this.title = clean(title);
+            return this;
+        }
+
+        public Builder setCompany(String company) {
+            this.company = clean(company);
+            return this;
+        }
+
+        /** @param avatar encoded image bytes, kept as given; {@code null} removes the avatar */
+        public Builder setAvatar(byte[] avatar, String source) {
+            this.avatar = avatar;
+            this.avatarSource = avatar != null ? clean(source) : null;
+            return this;
+        }
+
+        public CardSnapshot build() {
+            return new CardSnapshot(this, null);
+        }
+
+        private static String clean(String value) {
+            if (value == null) {
+                return null;
+            }
+            String trimmed = value.trim();
+            return trimmed.isEmpty() ? null : trimmed;
+        }
+    }
+}
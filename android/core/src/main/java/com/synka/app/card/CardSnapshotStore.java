@@ -0,0 +1,204 @@
+package com.synka.app.card;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Every card the native surfaces can show, in one small binary file.
+ *
+ * Layout: magic, version, active card id, card count, then one record per
+ * card as written by {@link CardSnapshot}. Reads memory-map the file and
+ * the parsed {@link Snapshot} is kept until the file changes, so widget and
+ * tile refreshes cost a stat call. Writes go to a temp file that is synced
+ * and renamed over the old one, so readers only ever see a complete file,
+ * and writes that would not change anything are skipped entirely.
+ */
+public final class CardSnapshotStore {
+
+    private static final int MAGIC = 0x53594e4b; // "SYNK"
+    private static final int VERSION = 1;
+
+    private final File file;
+
+    private Snapshot cached;
+    private long cachedModified;
+    private long cachedLength;
+
+    public CardSnapshotStore(File file) {
+        this.file = file;
+    }
+
+    /** Current contents; {@link Snapshot#EMPTY} when nothing has been stored yet. */
+    public synchronized Snapshot read() throws IOException {
+        if (!file.isFile()) {
+            return Snapshot.EMPTY;
+        }
+        long modified = file.lastModified();
+        long length = file.length();
+        if (cached != null && modified == cachedModified && length == cachedLength) {
+            return cached;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            Snapshot snapshot = parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            remember(snapshot, modified, length);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Inserts or replaces {@code card}, optionally making it the active one.
+     * Returns whether the file changed.
+     */
+    public synchronized boolean put(CardSnapshot card, boolean makeActive) throws IOException {
+        Snapshot current = read();
+        CardSnapshot existing = current.get(card.getId());
+        String activeId = makeActive || current.activeId == null ? card.getId() : current.activeId;
+        if (existing != null && existing.getHash().equals(card.getHash())
+                && activeId.equals(current.activeId)) {
+            return false;
+        }
+
+        List<CardSnapshot> cards = new ArrayList<>(current.cards);
+        int index = cards.indexOf(existing);
+        if (index >= 0) {
+            cards.set(index, card);
+        } else {
+            cards.add(card);
+        }
+        write(new Snapshot(cards, activeId));
+        return true;
+    }
+
+    /** Removes the card with {@code id}. Returns whether it was stored. */
+    public synchronized boolean remove(String id) throws IOException {
+        Snapshot current = read();
+        CardSnapshot existing = current.get(id);
+        if (existing == null) {
+            return false;
+        }
+        List<CardSnapshot> cards = new ArrayList<>(current.cards);
+        cards.remove(existing);
+        String activeId = id.equals(current.activeId)
+            ? (cards.isEmpty() ? null : cards.get(0).getId())
+            : current.activeId;
+        write(new Snapshot(cards, activeId));
+        return true;
+    }
+
+    private void write(Snapshot snapshot) throws IOException {
+        byte[] bytes = serialize(snapshot);
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(bytes);
+            out.getFD().sync();
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Cannot replace " + file);
+        }
+        remember(snapshot, file.lastModified(), file.length());
+    }
+
+    private void remember(Snapshot snapshot, long modified, long length) {
+        cached = snapshot;
+        cachedModified = modified;
+        cachedLength = length;
+    }
+
+    static byte[] serialize(Snapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            byte[] activeId = snapshot.activeId != null
+                ? snapshot.activeId.getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+            out.writeShort(activeId.length);
+            out.write(activeId);
+            out.writeShort(snapshot.cards.size());
+            for (CardSnapshot card : snapshot.cards) {
+                card.write(out);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static Snapshot parse(ByteBuffer in) throws IOException {
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a card snapshot file");
+            }
+            int version = in.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            byte[] activeId = new byte[in.getShort() & 0xFFFF];
+            in.get(activeId);
+            int count = in.getShort() & 0xFFFF;
+            List<CardSnapshot> cards = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                cards.add(CardSnapshot.read(in));
+            }
+            return new Snapshot(cards,
+                activeId.length > 0 ? new String(activeId, StandardCharsets.UTF_8) : null);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated snapshot file", e);
+        }
+    }
+
+    /** Immutable view of the stored cards. */
+    public static final class Snapshot {
+
+        public static final Snapshot EMPTY = new Snapshot(Collections.<CardSnapshot>emptyList(), null);
+
+        private final List<CardSnapshot> cards;
+        private final String activeId;
+
+        Snapshot(List<CardSnapshot> cards, String activeId) {
+            this.cards = Collections.unmodifiableList(new ArrayList<>(cards));
+            this.activeId = activeId;
+        }
+
+        public List<CardSnapshot> getCards() {
+            return cards;
+        }
+
+        public boolean isEmpty() {
+            return cards.isEmpty();
+        }
+
+        public CardSnapshot get(String id) {
+            for (CardSnapshot card : cards) {
+                if (card.getId().equals(id)) {
+                    return card;
+                }
+            }
+            return null;
+        }
+
+        /** The card to show by default, or {@code null} when there are none. */
+        public CardSnapshot getActive() {
+            CardSnapshot active = activeId != null ? get(activeId) : null;
+            return active != null || cards.isEmpty() ? active : cards.get(0);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.synka.app.crm;
+
+/**
+ * Turns what the user typed into the CRM search box into an FTS4 MATCH
+ * expression.
+ *
+ * Every word becomes a quoted prefix term, so "pri syn" matches
+ * "Priya Raman at Synka" while quotes, dashes, asterisks and column
+ * filters in the input can never be read as query syntax. Terms are
+ * ANDed, which is FTS4's default for space separated terms.
+ */
+public final class FtsQuery {
+
+    /** Further words rarely narrow the result and each one costs another index scan. */
+    static final int MAX_TERMS = 8;
+
+    private FtsQuery() {
+    }
+
+    /**
+     * MATCH expression for {@code input}, or null when it contains no
+     * letters or digits to search for.
+     */
+    public static String build(String input) {
+        if (input == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        int terms = 0;
+        int length = input.length();
+        int i = 0;
+        while (i < length && terms < MAX_TERMS) {
+            while (i < length && !isWordChar(input.codePointAt(i))) {
+                i += Character.charCount(input.codePointAt(i));
+            }
+            int start = i;
+            while (i < length && isWordChar(input.codePointAt(i))) {
+                i += Character.charCount(input.codePointAt(i));
+            }
+            if (i > start) {
+                if (terms > 0) {
+                    query.append(' ');
+                }
+                // The star goes inside the quotes; after them FTS4 drops it and matches the whole token only
+                query.append('"').append(input, start, i).append("*\"");
+                terms++;
+            }
+        }
+        return terms == 0 ? null : query.toString();
+    }
+
+    // Close to the unicode61 tokenizer: letters, digits and the combining
+    // marks that Indic scripts need inside a word; anything else separates tokens
+    private static boolean isWordChar(int codePoint) {
+        if (Character.isLetterOrDigit(codePoint)) {
+            return true;
+        }
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK
+            || type == Character.COMBINING_SPACING_MARK
+            || type == Character.ENCLOSING_MARK;
+    }
+}
@@ -0,0 +1,82 @@
+package com.synka.app.crm;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Okapi BM25 over SQLite FTS4 {@code matchinfo(table, 'pcnalx')} output,
+ * with a weight per column.
+ *
+ * FTS4 has no built-in ranking and Android's SQLite gives no way to
+ * register a ranking function, so rows come back with their raw matchinfo
+ * and are scored here. The IDF term is the always-positive
+ * {@code ln(1 + (N - n + 0.5) / (n + 0.5))} form, so a word that appears in
+ * most contacts still adds a little instead of pushing rows down.
+ */
+public final class MatchRanker {
+
+    public static final String MATCHINFO_FORMAT = "pcnalx";
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final double[] weights;
+
+    /** @param weights one weight per FTS column, in table order */
+    public MatchRanker(double... weights) {
+        if (weights.length == 0) {
+            throw new IllegalArgumentException("weights must not be empty");
+        }
+        this.weights = weights.clone();
+    }
+
+    /** Score for one row's matchinfo; higher is a better match. */
+    public double score(int[] info) {
+        int phrases = info[0];
+        int columns = info[1];
+        if (columns != weights.length) {
+            throw new IllegalArgumentException(
+                "matchinfo has " + columns + " columns, expected " + weights.length);
+        }
+        long rows = Integer.toUnsignedLong(info[2]);
+        int averages = 3;
+        int lengths = averages + columns;
+        int hits = lengths + columns;
+
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int offset = hits + 3 * (phrase * columns + column);
+                long termFrequency = Integer.toUnsignedLong(info[offset]);
+                if (termFrequency == 0 || weights[column] == 0) {
+                    continue;
+                }
+                long rowsWithHits = Integer.toUnsignedLong(info[offset + 2]);
+                double idf = Math.log(1 + (rows - rowsWithHits + 0.5) / (rowsWithHits + 0.5));
+
+                long averageLength = Integer.toUnsignedLong(info[averages + column]);
+                long length = Integer.toUnsignedLong(info[lengths + column]);
+                double lengthRatio = averageLength == 0 ? 1 : (double) length / averageLength;
+                double saturation = termFrequency * (K1 + 1)
+                    / (termFrequency + K1 * (1 - B + B * lengthRatio));
+
+                score += weights[column] * idf * saturation;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * The matchinfo blob as ints. SQLite writes it as 32-bit unsigned
+     * integers in the host's byte order, so pass {@link ByteOrder#nativeOrder()}
+     * for blobs read from a local database.
+     */
+    public static int[] parse(byte[] blob, ByteOrder order) {
+        ByteBuffer buffer = ByteBuffer.wrap(blob).order(order);
+        int[] info = new int[blob.length / Integer.BYTES];
+        for (int i = 0; i < info.length; i++) {
+            info[i] = buffer.getInt();
+        }
+        return info;
+    }
+}
@@ -0,0 +1,595 @@
+package com.synka.app.imagecache;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded LRU disk cache for Supabase storage images, keyed by the
+ * {@link StorageUrls#normalize normalized} URL so a re-signed URL still
+ * hits.
+ *
+ * Each entry is the response body as sent, {@code <key>.img}, plus a small
+ * {@code <key>.meta} text file with its content type, validators and fetch
+ * time. Hits are handed out as a stream over the body file. Entries older
+ * than the max age are still served, and a conditional request refreshes
+ * them in the background. Recency survives restarts through the body
+ * file's modification time, which every hit bumps.
+ *
+ * A signed URL is only served from disk while the token it was fetched
+ * with is unexpired; after that the request's own URL revalidates the
+ * entry before it is served again. Requests whose token has expired are
+ * not handled at all. {@link #clear} empties the cache when the signed-in
+ * user changes.
+ *
+ * Safe for concurrent use. Concurrent misses for one key share a single
+ * download.
+ */
+public final class ImageDiskCache {
+
+    public static final long DEFAULT_MAX_BYTES = 48L * 1024 * 1024;
+    public static final long DEFAULT_MAX_AGE_MS = TimeUnit.DAYS.toMillis(1);
+
+    static final int CONNECT_TIMEOUT_MS = 5000;
+    static final int READ_TIMEOUT_MS = 10_000;
+
+    private static final String DATA_SUFFIX = ".img";
+    private static final String META_SUFFIX = ".meta";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String META_VERSION = "2";
+    // A single entry may take at most this share of the cache
+    private static final int MAX_ENTRY_FRACTION = 8;
+
+    /** An open cached body. The caller owns {@link #getStream()} and must close it. */
+    public static final class Hit {
+        private final String mimeType;
+        private final InputStream stream;
+        private final long length;
+        private final boolean stale;
+
+        Hit(String mimeType, InputStream stream, long length, boolean stale) {
+            this.mimeType = mimeType;
+            this.stream = stream;
+            this.length = length;
+            this.stale = stale;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        public InputStream getStream() {
+            return stream;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        /** True when served past its max age; a refresh has been queued. */
+        public boolean isStale() {
+            return stale;
+        }
+    }
+
+    /** Counters since the cache was created, plus its current size. */
+    public static final class Stats {
+        private final long hits;
+        private final long staleHits;
+        private final long misses;
+        private final long revalidated;
+        private final long evictions;
+        private final long errors;
+        private final int entries;
+        private final long sizeBytes;
+
+        Stats(long hits, long staleHits, long misses, long revalidated,
+              long evictions, long errors, int entries, long sizeBytes) {
+            this.hits = hits;
+            this.staleHits = staleHits;
+            this.misses = misses;
+            this.revalidated = revalidated;
+            this.evictions = evictions;
+            this.errors = errors;
+            this.entries = entries;
+            this.sizeBytes = sizeBytes;
+        }
+
+        /** Requests served from disk, stale ones included. */
+        public long getHits() {
+            return hits;
+        }
+
+        public long getStaleHits() {
+            return staleHits;
+        }
+
+        /** Requests that went to the network, whether or not the body could be stored. */
+        public long getMisses() {
+            return misses;
+        }
+
+        /** Refreshes of a stale or expired entry the server answered, 304 or a new body. */
+        public long getRevalidated() {
+            return revalidated;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /** Network failures, on either a miss or a refresh. */
+        public long getErrors() {
+            return errors;
+        }
+
+        public int getEntries() {
+            return entries;
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+    }
+
+    private static final class Meta {
+        final String mimeType;
+        final String etag;
+        final String lastModified;
+        final long fetchedAt;
+        final long size;
+        // StorageUrls.expiresAt of the URL it was fetched or revalidated with
+        final long expiresAt;
+
+        Meta(String mimeType, String etag, String lastModified, long fetchedAt, long size, long expiresAt) {
+            this.mimeType = mimeType;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fetchedAt = fetchedAt;
+            this.size = size;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final File dir;
+    private final String host;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+    private final Executor revalidator;
+    private final LongSupplier clock;
+    private final boolean plainHttp;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Meta> index = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Object> downloads = new ConcurrentHashMap<>();
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private long sizeBytes;
+    private boolean loaded;
+    // Bumped by clear() so downloads started before it are not stored
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidated = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * @param host        the Supabase project host; only its storage URLs are cached
+     * @param revalidator runs background refreshes of stale entries
+     */
+    public ImageDiskCache(File dir, String host, long maxBytes, long maxAgeMillis, Executor revalidator) {
+        this(dir, host, maxBytes, maxAgeMillis, revalidator, System::currentTimeMillis, false);
+    }
+
+    ImageDiskCache(File dir, String host, long maxBytes, long maxAgeMillis,
+                   Executor revalidator, LongSupplier clock, boolean plainHttp) {
+        this.dir = dir;
+        this.host = host;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        this.revalidator = revalidator;
+        this.clock = clock;
+        this.plainHttp = plainHttp;
+    }
+
+    /** Whether {@link #get} would handle {@code url} at all. */
+    public boolean isCacheable(String url) {
+        return StorageUrls.normalize(url, host, plainHttp) != null;
+    }
+
+    /**
+     * The body for {@code url}, from disk or downloaded into the cache first.
+     * Null when the URL is not cacheable or the download failed or was not
+     * an image within the size limit, or carries an expired token; the
+     * caller then loads it as usual. Blocks on the network on a miss.
+     */
+    public Hit get(String url) {
+        String normalized = StorageUrls.normalize(url, host, plainHttp);
+        if (normalized == null) {
+            return null;
+        }
+        long expiresAt = StorageUrls.expiresAt(url);
+        if (expiresAt <= clock.getAsLong()) {
+            // The server turns this token away; a cached copy must not stand in for it
+            return null;
+        }
+        String key = StorageUrls.key(normalized);
+        Hit hit = open(key);
+        if (hit != null) {
+            if (hit.isStale()) {
+                revalidate(url, key);
+            }
+            return hit;
+        }
+
+        Object download = downloads.computeIfAbsent(key, k -> new Object());
+        synchronized (download) {
+            try {
+                // Another request may have stored it while this one waited
+                hit = open(key);
+                if (hit != null) {
+                    return hit;
+                }
+                misses.incrementAndGet();
+                Meta previous;
+                synchronized (this) {
+                    // Only left in the index when its token expired: revalidate with this one
+                    previous = index.get(key);
+                }
+                try {
+                    if (fetch(url, key, previous, expiresAt)) {
+                        return open(key);
+                    }
+                } catch (IOException e) {
+                    errors.incrementAndGet();
+                }
+                return null;
+            } finally {
+                downloads.remove(key, download);
+            }
+        }
+    }
+
+    /**
+     * Deletes every entry. Called when the signed-in user changes, so objects
+     * fetched for one account are never served to the next; downloads still
+     * in flight are dropped when they finish.
+     */
+    public synchronized void clear() {
+        generation++;
+        index.clear();
+        sizeBytes = 0;
+        loaded = true;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    public synchronized Stats stats() {
+        ensureLoaded();
+        return new Stats(hits.get(), staleHits.get(), misses.get(), revalidated.get(),
+            evictions.get(), errors.get(), index.size(), sizeBytes);
+    }
+
+    private synchronized Hit open(String key) {
+        ensureLoaded();
+        Meta meta = index.get(key);
+        long now = clock.getAsLong();
+        if (meta == null || meta.expiresAt <= now) {
+            return null;
+        }
+        File data = dataFile(key);
+        InputStream stream;
+        try {
+            stream = new FileInputStream(data);
+        } catch (FileNotFoundException e) {
+            // Deleted behind our back; treat as a miss
+            remove(key);
+            return null;
+        }
+        data.setLastModified(now);
+        boolean stale = now - meta.fetchedAt > maxAgeMillis;
+        hits.incrementAndGet();
+        if (stale) {
+            staleHits.incrementAndGet();
+        }
+        return new Hit(meta.mimeType, stream, meta.size, stale);
+    }
+
+    private void revalidate(String url, String key) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+        try {
+            revalidator.execute(() -> {
+                try {
+                    Meta previous;
+                    synchronized (this) {
+                        previous = index.get(key);
+                    }
+                    if (previous != null) {
+                        fetch(url, key, previous, StorageUrls.expiresAt(url));
+                    }
+                } catch (IOException e) {
+                    // Keep serving the stale copy; the next hit tries again
+                    errors.incrementAndGet();
+                } finally {
+                    revalidating.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            revalidating.remove(key);
+        }
+    }
+
+    /**
+     * Downloads {@code url} into the entry for {@code key}, conditionally
+     * when {@code previous} is given. Returns whether the entry is now
+     * current.
+     */
+    private boolean fetch(String url, String key, Meta previous, long expiresAt) throws IOException {
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            if (previous != null && previous.etag != null) {
+                connection.setRequestProperty("If-None-Match", previous.etag);
+            }
+            if (previous != null && previous.lastModified != null) {
+                connection.setRequestProperty("If-Modified-Since", previous.lastModified);
+            }
+            int status = connection.getResponseCode();
+            if (previous != null) {
+                if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    revalidated.incrementAndGet();
+                    touch(key, previous, expiresAt);
+                    return true;
+                }
+                if (status == HttpURLConnection.HTTP_NOT_FOUND || status == HttpURLConnection.HTTP_GONE) {
+                    synchronized (this) {
+                        remove(key);
+                    }
+                    return false;
+                }
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                return false;
+            }
+            String mimeType = mimeType(connection.getContentType());
+            long maxEntryBytes = maxBytes / MAX_ENTRY_FRACTION;
+            if (mimeType == null || connection.getContentLengthLong() > maxEntryBytes) {
+                return false;
+            }
+
+            ensureDir();
+            File tmp = File.createTempFile(key, TMP_SUFFIX, dir);
+            long size;
+            try (InputStream in = connection.getInputStream()) {
+                size = copy(in, tmp, maxEntryBytes);
+            } catch (IOException e) {
+                tmp.delete();
+                throw e;
+            }
+            if (size < 0) {
+                tmp.delete();
+                return false;
+            }
+            if (previous != null) {
+                revalidated.incrementAndGet();
+            }
+            Meta meta = new Meta(mimeType, connection.getHeaderField("ETag"),
+                connection.getHeaderField("Last-Modified"), clock.getAsLong(), size, expiresAt);
+            commit(key, tmp, meta, startGeneration);
+            return true;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private synchronized void commit(String key, File tmp, Meta meta, long startGeneration) throws IOException {
+        if (startGeneration != generation) {
+            // Fetched for whoever was signed in before clear()
+            tmp.delete();
+            return;
+        }
+        ensureLoaded();
+        if (!tmp.renameTo(dataFile(key))) {
+            tmp.delete();
+            throw new IOException("Failed to store " + key);
+        }
+        writeMeta(key, meta);
+        Meta old = index.put(key, meta);
+        sizeBytes += meta.size - (old != null ? old.size : 0);
+        trim();
+    }
+
+    /** Marks an entry fresh again after a 304, valid as long as the revalidating URL. */
+    private synchronized void touch(String key, Meta previous, long expiresAt) throws IOException {
+        if (index.get(key) != previous) {
+            // Replaced or evicted while the request was out
+            return;
+        }
+        Meta meta = new Meta(previous.mimeType, previous.etag, previous.lastModified,
+            clock.getAsLong(), previous.size, expiresAt);
+        writeMeta(key, meta);
+        index.put(key, meta);
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<String, Meta>> eldest = index.entrySet().iterator();
+        while (sizeBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Meta> entry = eldest.next();
+            eldest.remove();
+            sizeBytes -= entry.getValue().size;
+            deleteFiles(entry.getKey());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(String key) {
+        Meta meta = index.remove(key);
+        if (meta != null) {
+            sizeBytes -= meta.size;
+        }
+        deleteFiles(key);
+    }
+
+    /** Rebuilds the index from disk on first use, least recently used first. */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> bodies = new ArrayList<>();
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(TMP_SUFFIX)) {
+                // Left by a download the process did not survive
+                file.delete();
+            } else if (name.endsWith(DATA_SUFFIX)) {
+                bodies.add(file);
+            }
+        }
+        bodies.sort((a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File body : bodies) {
+            String key = body.getName().substring(0, body.getName().length() - DATA_SUFFIX.length());
+            Meta meta = readMeta(key);
+            if (meta == null || meta.size != body.length()) {
+                deleteFiles(key);
+                continue;
+            }
+            index.put(key, meta);
+            sizeBytes += meta.size;
+        }
+        trim();
+    }
+
+    private void ensureDir() throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Cannot create " + dir);
+        }
+    }
+
+    private Meta readMeta(String key) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(metaFile(key)), StandardCharsets.UTF_8))) {
+            if (!META_VERSION.equals(reader.readLine())) {
+                return null;
+            }
+            String mimeType = reader.readLine();
+            String etag = reader.readLine();
+            String lastModified = reader.readLine();
+            String fetchedAt = reader.readLine();
+            String size = reader.readLine();
+            String expiresAt = reader.readLine();
+            if (mimeType == null || size == null || expiresAt == null) {
+                return null;
+            }
+            return new Meta(mimeType, emptyToNull(etag), emptyToNull(lastModified),
+                Long.parseLong(fetchedAt), Long.parseLong(size), Long.parseLong(expiresAt));
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void writeMeta(String key, Meta meta) throws IOException {
+        File tmp = new File(dir, key + META_SUFFIX + TMP_SUFFIX);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            writer.write(META_VERSION + "\n"
+                + meta.mimeType + "\n"
+                + nullToEmpty(meta.etag) + "\n"
+                + nullToEmpty(meta.lastModified) + "\n"
+                + meta.fetchedAt + "\n"
+                + meta.size + "\n"
+                + meta.expiresAt + "\n");
+        }
+        if (!tmp.renameTo(metaFile(key))) {
+            tmp.delete();
+            throw new IOException("Failed to store metadata for " + key);
+        }
+    }
+
+    private void deleteFiles(String key) {
+        dataFile(key).delete();
+        metaFile(key).delete();
+    }
+
+    private File dataFile(String key) {
+        return new File(dir, key + DATA_SUFFIX);
+    }
+
+    private File metaFile(String key) {
+        return new File(dir, key + META_SUFFIX);
+    }
+
+    /** Copies {@code in} to {@code file}, returning its size, or -1 once it passes {@code limit}. */
+    private static long copy(InputStream in, File file, long limit) throws IOException {
+        long size = 0;
+        try (OutputStream out = new FileOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > limit) {
+                    return -1;
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return size;
+    }
+
+    /** The image/* type without parameters, or null for anything else. */
+    private static String mimeType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        return type.startsWith("image/") ? type : null;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,202 @@
+package com.synka.app.imagecache;
+
+import com.synka.app.util.Sha256;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache identity for Supabase storage image URLs.
+ *
+ * Signed URLs carry a fresh {@code token} every time one is issued, while
+ * the object behind them stays the same, so the token is dropped from the
+ * key. The remaining query (image transform sizes and the like) is kept,
+ * sorted, because it does change the bytes. The token's expiry is read
+ * separately, by {@link #expiresAt}, so cached copies of signed objects are
+ * only served while the token they were fetched with is still valid.
+ */
+public final class StorageUrls {
+
+    private static final String[] CACHEABLE_PATHS = {
+        "/storage/v1/object/public/",
+        "/storage/v1/object/sign/",
+        "/storage/v1/render/image/public/",
+        "/storage/v1/render/image/sign/",
+    };
+    private static final String[] SIGNED_PATHS = {
+        "/storage/v1/object/sign/",
+        "/storage/v1/render/image/sign/",
+    };
+    private static final String SIGNATURE_PARAM = "token";
+    private static final Pattern EXP_CLAIM = Pattern.compile("\"exp\"\\s*:\\s*(\\d+)");
+    // java.util.Base64 needs API 26
+    private static final String BASE64_URL =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+
+    /** {@link #expiresAt} of a public URL. */
+    public static final long NEVER_EXPIRES = Long.MAX_VALUE;
+
+    private StorageUrls() {
+    }
+
+    /**
+     * Canonical form of {@code url} when it is an https storage object on
+     * {@code host}, or null when it should not be cached.
+     */
+    public static String normalize(String url, String host) {
+        return normalize(url, host, false);
+    }
+
+    /** {@code plainHttp} also admits http on any port, for tests against a local server. */
+    static String normalize(String url, String host, boolean plainHttp) {
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        boolean https = "https".equalsIgnoreCase(uri.getScheme());
+        if (!(https || (plainHttp && "http".equalsIgnoreCase(uri.getScheme())))
+                || uri.getHost() == null
+                || !uri.getHost().equalsIgnoreCase(host)
+                || (!plainHttp && uri.getPort() != -1 && uri.getPort() != 443)) {
+            return null;
+        }
+        String path = uri.getRawPath();
+        if (path == null || !isCacheablePath(path)) {
+            return null;
+        }
+
+        List<String> params = new ArrayList<>();
+        String query = uri.getRawQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.isEmpty()) {
+                    continue;
+                }
+                String name = param.split("=", 2)[0];
+                if (!SIGNATURE_PARAM.equals(name)) {
+                    params.add(param);
+                }
+            }
+        }
+        Collections.sort(params);
+
+        StringBuilder normalized = new StringBuilder(https ? "https://" : "http://")
+            .append(uri.getHost().toLowerCase(Locale.ROOT));
+        if (plainHttp && uri.getPort() != -1) {
+            normalized.append(':').append(uri.getPort());
+        }
+        normalized.append(path);
+        for (int i = 0; i < params.size(); i++) {
+            normalized.append(i == 0 ? '?' : '&').append(params.get(i));
+        }
+        return normalized.toString();
+    }
+
+    /** File-name-safe key for a {@link #normalize normalized} URL. */
+    public static String key(String normalizedUrl) {
+        return Sha256.hex(normalizedUrl, 16);
+    }
+
+    /**
+     * Until when {@code url} is accepted, in epoch millis: the {@code exp}
+     * claim of a signed URL's token, {@link #NEVER_EXPIRES} for a public URL
+     * and 0 when a signed URL has no readable token. The token's signature is
+     * left to the server.
+     */
+    static long expiresAt(String url) {
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            return 0;
+        }
+        String path = uri.getRawPath();
+        if (path == null || !startsWithAny(path, SIGNED_PATHS)) {
+            return NEVER_EXPIRES;
+        }
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return 0;
+        }
+        for (String param : query.split("&")) {
+            String[] pair = param.split("=", 2);
+            if (SIGNATURE_PARAM.equals(pair[0]) && pair.length == 2) {
+                return tokenExpiry(pair[1]);
+            }
+        }
+        return 0;
+    }
+
+    /** The JWT's {@code exp} claim in millis, or 0 when it cannot be read. */
+    private static long tokenExpiry(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return 0;
+        }
+        byte[] payload = decodeBase64Url(parts[1]);
+        if (payload == null) {
+            return 0;
+        }
+        Matcher exp = EXP_CLAIM.matcher(new String(payload, StandardCharsets.UTF_8));
+        if (!exp.find()) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(exp.group(1)));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] decodeBase64Url(String value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(value.length() * 3 / 4);
+        int buffer = 0;
+        int bits = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '=') {
+                break;
+            }
+            int digit = BASE64_URL.indexOf(c);
+            if (digit < 0) {
+                return null;
+            }
+            buffer = ((buffer << 6) | digit) & 0xFFFF;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out.write(buffer >>> bits);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean startsWithAny(String path, String[] prefixes) {
+        for (String prefix : prefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCacheablePath(String path) {
+        for (String prefix : CACHEABLE_PATHS) {
+            if (path.startsWith(prefix) && path.length() > prefix.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
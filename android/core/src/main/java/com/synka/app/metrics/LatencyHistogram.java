@@ -0,0 +1,88 @@
+package com.synka.app.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring of the most recent latency samples.
+ *
+ * Recording is one atomic increment and one ordered store into a
+ * preallocated array, so it is safe from any thread, never blocks and never
+ * allocates. Percentiles are computed over the retained window only when a
+ * {@link Snapshot} is taken; samples that land while a snapshot is being
+ * copied may or may not be included.
+ */
+public final class LatencyHistogram {
+
+    private final AtomicLongArray ring;
+    private final int mask;
+    private final AtomicLong recorded = new AtomicLong();
+
+    /** @param capacity samples retained; rounded up to a power of two */
+    public LatencyHistogram(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        ring = new AtomicLongArray(size);
+        mask = size - 1;
+    }
+
+    public void record(long nanos) {
+        long index = recorded.getAndIncrement();
+        ring.lazySet((int) (index & mask), nanos);
+    }
+
+    /** Records the time elapsed since {@code startNanos}, a {@link System#nanoTime()} reading. */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public Snapshot snapshot() {
+        long total = recorded.get();
+        int retained = (int) Math.min(total, ring.length());
+        long[] samples = new long[retained];
+        for (int i = 0; i < retained; i++) {
+            samples[i] = ring.get(i);
+        }
+        Arrays.sort(samples);
+        return new Snapshot(total, samples);
+    }
+
+    /** Percentiles over the retained window, in nanoseconds. */
+    public static final class Snapshot {
+        private final long count;
+        private final long[] sorted;
+
+        Snapshot(long count, long[] sorted) {
+            this.count = count;
+            this.sorted = sorted;
+        }
+
+        /** Samples recorded since creation, including those no longer retained. */
+        public long getCount() {
+            return count;
+        }
+
+        public boolean isEmpty() {
+            return sorted.length == 0;
+        }
+
+        /** Nearest-rank percentile for {@code quantile} in [0, 1]; 0 when empty. */
+        public long percentile(double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+        }
+
+        public long getMax() {
+            return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+        }
+    }
+}
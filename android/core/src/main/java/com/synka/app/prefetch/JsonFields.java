@@ -0,0 +1,173 @@
+package com.synka.app.prefetch;
+
+/**
+ * Just enough JSON reading for the prefetcher: pull the first element out
+ * of a PostgREST array and read top-level string fields from it.
+ *
+ * Rows are handed to JS as the raw text the server sent, so nothing here
+ * builds a tree; it only scans. Malformed input yields null rather than an
+ * exception, and the caller then falls back to the web layer's own fetch.
+ */
+final class JsonFields {
+
+    private JsonFields() {
+    }
+
+    /** Raw text of the first element of a JSON array, or null if the array is empty or malformed. */
+    static String firstElement(String array) {
+        if (array == null) {
+            return null;
+        }
+        int i = skipWhitespace(array, 0);
+        if (i >= array.length() || array.charAt(i) != '[') {
+            return null;
+        }
+        int start = skipWhitespace(array, i + 1);
+        if (start >= array.length() || array.charAt(start) == ']') {
+            return null;
+        }
+        int end = skipValue(array, start);
+        return end < 0 ? null : array.substring(start, end);
+    }
+
+    /**
+     * Value of {@code key} in a JSON object when it is a string; null when
+     * it is missing, null, another type, or the object is malformed.
+     */
+    static String string(String object, String key) {
+        if (object == null) {
+            return null;
+        }
+        int i = skipWhitespace(object, 0);
+        if (i >= object.length() || object.charAt(i) != '{') {
+            return null;
+        }
+        i = skipWhitespace(object, i + 1);
+        while (i < object.length() && object.charAt(i) == '"') {
+            StringBuilder name = new StringBuilder();
+            i = readString(object, i, name);
+            if (i < 0) {
+                return null;
+            }
+            i = skipWhitespace(object, i);
+            if (i >= object.length() || object.charAt(i) != ':') {
+                return null;
+            }
+            i = skipWhitespace(object, i + 1);
+            if (i >= object.length()) {
+                return null;
+            }
+            if (key.contentEquals(name)) {
+                if (object.charAt(i) != '"') {
+                    return null;
+                }
+                StringBuilder value = new StringBuilder();
+                return readString(object, i, value) < 0 ? null : value.toString();
+            }
+            i = skipValue(object, i);
+            if (i < 0) {
+                return null;
+            }
+            i = skipWhitespace(object, i);
+            if (i < object.length() && object.charAt(i) == ',') {
+                i = skipWhitespace(object, i + 1);
+            }
+        }
+        return null;
+    }
+
+    /** Index just past the value starting at {@code i}, or -1 if it is unterminated. */
+    private static int skipValue(String json, int i) {
+        char c = json.charAt(i);
+        if (c == '"') {
+            return readString(json, i, null);
+        }
+        if (c != '{' && c != '[') {
+            // Number, true, false or null: runs to the next delimiter
+            while (i < json.length() && ",}] \t\r\n".indexOf(json.charAt(i)) < 0) {
+                i++;
+            }
+            return i;
+        }
+        int depth = 0;
+        while (i < json.length()) {
+            c = json.charAt(i);
+            if (c == '"') {
+                i = readString(json, i, null);
+                if (i < 0) {
+                    return -1;
+                }
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the string starting at the quote at {@code i}, appending its
+     * decoded value to {@code out} when non-null. Returns the index past
+     * the closing quote, or -1.
+     */
+    private static int readString(String json, int i, StringBuilder out) {
+        i++;
+        while (i < json.length()) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                return i + 1;
+            }
+            if (c != '\\') {
+                if (out != null) {
+                    out.append(c);
+                }
+                i++;
+                continue;
+            }
+            if (i + 1 >= json.length()) {
+                return -1;
+            }
+            char escaped = json.charAt(i + 1);
+            if (escaped == 'u') {
+                if (i + 6 > json.length()) {
+                    return -1;
+                }
+                if (out != null) {
+                    try {
+                        out.append((char) Integer.parseInt(json.substring(i + 2, i + 6), 16));
+                    } catch (NumberFormatException e) {
+                        return -1;
+                    }
+                }
+                i += 6;
+                continue;
+            }
+            if (out != null) {
+                switch (escaped) {
+                    case 'b': out.append('\b'); break;
+                    case 'f': out.append('\f'); break;
+                    case 'n': out.append('\n'); break;
+                    case 'r': out.append('\r'); break;
+                    case 't': out.append('\t'); break;
+                    default: out.append(escaped); break;
+                }
+            }
+            i += 2;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(String json, int i) {
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
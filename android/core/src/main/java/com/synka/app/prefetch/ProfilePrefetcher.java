@@ -0,0 +1,295 @@
+package com.synka.app.prefetch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fetches a public profile the moment an App Link arrives, before the
+ * WebView has booted, and holds it briefly for the web layer to claim.
+ *
+ * The requests mirror what the public card page makes through the Supabase
+ * client: the profile row by slug, then the owner's default card, then
+ * the avatar those rows point at. Rows are kept as the raw JSON the server
+ * returned. The avatar downloads separately, so a slow photo never holds
+ * back rows that have already arrived. A prefetch that nobody claims within
+ * the TTL is dropped, and so is one that is claimed: every result is handed
+ * out at most once.
+ */
+public final class ProfilePrefetcher {
+
+    public static final long DEFAULT_TTL_MS = 30_000;
+
+    static final int CONNECT_TIMEOUT_MS = 5000;
+    static final int READ_TIMEOUT_MS = 5000;
+    // Larger avatars are left to the WebView; the page shows the URL either way
+    static final int MAX_AVATAR_BYTES = 2 * 1024 * 1024;
+
+    // Slugs are generated from [a-z0-9]; anything else is not a profile link
+    private static final Pattern PROFILE_LINK = Pattern.compile(
+        "^(?:https://(?:www\\.)?synka\\.in/|synka://)u/([A-Za-z0-9_-]+)/?(?:[?#].*)?$");
+    private static final Pattern SLUG = Pattern.compile("^[A-Za-z0-9_-]+$");
+
+    /** A claimed prefetch: raw row JSON plus the avatar bytes when they arrived. */
+    public static final class Result {
+        private final String slug;
+        private final String profileJson;
+        private final String cardJson;
+        private final String avatarUrl;
+        private final byte[] avatar;
+
+        Result(String slug, String profileJson, String cardJson, String avatarUrl, byte[] avatar) {
+            this.slug = slug;
+            this.profileJson = profileJson;
+            this.cardJson = cardJson;
+            this.avatarUrl = avatarUrl;
+            this.avatar = avatar;
+        }
+
+        public String getSlug() {
+            return slug;
+        }
+
+        /** The profiles row as a JSON object. */
+        public String getProfileJson() {
+            return profileJson;
+        }
+
+        /** The owner's default cards row, or null when they have none. */
+        public String getCardJson() {
+            return cardJson;
+        }
+
+        /** The photo the page will show: the card's, else the profile's. Null when neither has one. */
+        public String getAvatarUrl() {
+            return avatarUrl;
+        }
+
+        /** Bytes of {@link #getAvatarUrl()}, or null when it was not fetched. */
+        public byte[] getAvatar() {
+            return avatar;
+        }
+    }
+
+    /** Rows as fetched, with the avatar still downloading when there is one. */
+    private static final class Rows {
+        final Result result;
+        final Future<byte[]> avatar;
+
+        Rows(Result result, Future<byte[]> avatar) {
+            this.result = result;
+            this.avatar = avatar;
+        }
+    }
+
+    private static final class Entry {
+        final Future<Rows> future;
+        final long startedAt;
+
+        Entry(Future<Rows> future, long startedAt) {
+            this.future = future;
+            this.startedAt = startedAt;
+        }
+    }
+
+    private final String restUrl;
+    private final String apiKey;
+    private final ExecutorService executor;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * @param baseUrl Supabase project URL, e.g. https://xyz.supabase.co; tests pass a local server
+     * @param apiKey  the public anon key the web client also uses
+     */
+    public ProfilePrefetcher(String baseUrl, String apiKey, ExecutorService executor) {
+        this(baseUrl, apiKey, executor, DEFAULT_TTL_MS, System::nanoTime);
+    }
+
+    ProfilePrefetcher(String baseUrl, String apiKey, ExecutorService executor,
+                      long ttlMillis, LongSupplier nanoClock) {
+        this.restUrl = stripTrailingSlash(baseUrl) + "/rest/v1/";
+        this.apiKey = apiKey;
+        this.executor = executor;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /** Profile slug of an App Link or synka:// link, or null when it is not a profile link. */
+    public static String slugFromLink(String link) {
+        if (link == null) {
+            return null;
+        }
+        Matcher matcher = PROFILE_LINK.matcher(link);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /** Starts fetching {@code slug} unless a fresh prefetch for it is already held. */
+    public synchronized void prefetch(String slug) {
+        if (slug == null || !SLUG.matcher(slug).matches()) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        evictExpired(now);
+        if (entries.containsKey(slug)) {
+            return;
+        }
+        entries.put(slug, new Entry(executor.submit(() -> fetch(slug)), now));
+    }
+
+    /**
+     * Hands over the prefetch for {@code slug}, waiting up to
+     * {@code timeoutMillis} for one still in flight. Returns null when none
+     * was started, it expired, the profile does not exist, or the rows failed
+     * or timed out; the caller then fetches as it normally would. The avatar
+     * is included only if it arrives within the same timeout.
+     */
+    public Result claim(String slug, long timeoutMillis) throws InterruptedException {
+        Entry entry;
+        synchronized (this) {
+            evictExpired(nanoClock.getAsLong());
+            entry = entries.remove(slug);
+        }
+        if (entry == null) {
+            return null;
+        }
+        // Real time, unlike the TTL clock: this bounds how long the caller blocks
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Rows rows;
+        try {
+            rows = entry.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+        if (rows == null || rows.avatar == null) {
+            return rows != null ? rows.result : null;
+        }
+
+        byte[] avatar = null;
+        try {
+            avatar = rows.avatar.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // The page loads the photo itself
+            rows.avatar.cancel(true);
+        }
+        Result result = rows.result;
+        return new Result(result.slug, result.profileJson, result.cardJson, result.avatarUrl, avatar);
+    }
+
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> now - entry.startedAt > ttlNanos);
+    }
+
+    private Rows fetch(String slug) throws IOException {
+        String profile = JsonFields.firstElement(getText(
+            "profiles?select=*&slug=eq." + encode(slug) + "&limit=1"));
+        String userId = JsonFields.string(profile, "user_id");
+        if (profile == null || userId == null) {
+            return null;
+        }
+        String card = JsonFields.firstElement(getText(
+            "cards?select=*&user_id=eq." + encode(userId) + "&is_default=eq.true&limit=1"));
+
+        String avatarUrl = nonEmpty(JsonFields.string(card, "photo_url"));
+        if (avatarUrl == null) {
+            avatarUrl = nonEmpty(JsonFields.string(profile, "photo_url"));
+        }
+        Future<byte[]> avatar = null;
+        if (avatarUrl != null) {
+            String url = avatarUrl;
+            try {
+                avatar = executor.submit(() -> getBytes(url));
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the page loads the photo itself
+            }
+        }
+        return new Rows(new Result(slug, profile, card, avatarUrl, null), avatar);
+    }
+
+    private String getText(String path) throws IOException {
+        HttpURLConnection connection = open(restUrl + path, apiKey);
+        try (InputStream in = connection.getInputStream()) {
+            return new String(readAll(in, Integer.MAX_VALUE), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private byte[] getBytes(String url) throws IOException {
+        if (!url.startsWith("https://") && !url.startsWith("http://")) {
+            return null;
+        }
+        HttpURLConnection connection = open(url, null);
+        try (InputStream in = connection.getInputStream()) {
+            return readAll(in, MAX_AVATAR_BYTES);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /** Connects and checks for 200; {@code apiKey} adds the Supabase REST headers. */
+    private static HttpURLConnection open(String url, String apiKey) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        if (apiKey != null) {
+            connection.setRequestProperty("apikey", apiKey);
+            connection.setRequestProperty("Authorization", "Bearer " + apiKey);
+            connection.setRequestProperty("Accept", "application/json");
+        }
+        int status = connection.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            connection.disconnect();
+            throw new IOException("HTTP " + status + " for " + url);
+        }
+        return connection;
+    }
+
+    /** Reads the stream to the end, or returns null once it passes {@code limit} bytes. */
+    private static byte[] readAll(InputStream in, int limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > limit) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            // UTF-8 is always supported
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String nonEmpty(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,134 @@
+package com.synka.app.qr;
+
+/**
+ * Locally stored contact fields for the offline QR mode.
+ */
+public final class ContactCard {
+
+    private final String name;
+    private final String title;
+    private final String company;
+    private final String phone;
+    private final String email;
+    private final String website;
+    private final String address;
+    private final String note;
+
+    private ContactCard(Builder builder) {
+        this.name = builder.name;
+        this.title = builder.title;
+        this.company = builder.company;
+        this.phone = builder.phone;
+        this.email = builder.email;
+        this.website = builder.website;
+        this.address = builder.address;
+        this.note = builder.note;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getCompany() {
+        return company;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getWebsite() {
+        return website;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getNote() {
+        return note;
+    }
+
+    public Builder toBuilder() {
+        return new Builder()
+            .setName(name)
+            .setTitle(title)
+            .setCompany(company)
+            .setPhone(phone)
+            .setEmail(email)
+            .setWebsite(website)
+            .setAddress(address)
+            .setNote(note);
+    }
+
+    public static final class Builder {
+        private String name;
+        private String title;
+        private String company;
+        private String phone;
+        private String email;
+        private String website;
+        private String address;
+        private String note;
+
+        public Builder setName(String name) {
+            this.name = clean(name);
+            return this;
+        }
+
+        public Builder setTitle(String title) {
+            this.title = clean(title);
+            return this;
+        }
+
+        public Builder setCompany(String company) {
+            this.company = clean(company);
+            return this;
+        }
+
+        public Builder setPhone(String phone) {
+            this.phone = clean(phone);
+            return this;
+        }
+
+        public Builder setEmail(String email) {
+            this.email = clean(email);
+            return this;
+        }
+
+        public Builder setWebsite(String website) {
+            this.website = clean(website);
+            return this;
+        }
+
+        public Builder setAddress(String address) {
+            this.address = clean(address);
+            return this;
+        }
+
+        public Builder setNote(String note) {
+            this.note = clean(note);
+            return this;
+        }
+
+        public ContactCard build() {
+            return new ContactCard(this);
+        }
+
+        private static String clean(String value) {
+            if (value == null) {
+                return null;
+            }
+            String trimmed = value.trim().replaceAll("\\s+", " ");
+            return trimmed.isEmpty() ? null : trimmed;
+        }
+    }
+}
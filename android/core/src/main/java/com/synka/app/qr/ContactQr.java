@@ -0,0 +1,223 @@
+package com.synka.app.qr;
+
+import com.google.zxing.WriterException;
+
+/**
+ * Builds offline contact QR payloads and fits them to a module budget.
+ *
+ * A payload that scans from a small watch tile needs few enough modules
+ * that each one still spans several pixels. {@link #fit} tries the most
+ * robust error correction first, and drops the least important fields
+ * only when even the lowest level does not fit.
+ */
+public final class ContactQr {
+
+    public enum Format {
+        /** Compact MECARD, read by the stock camera apps on Android and iOS */
+        MECARD,
+        /** vCard 3.0, larger but understood by every contacts app */
+        VCARD
+    }
+
+    /** Result of {@link #fit}: the trimmed payload and the options it was encoded with. */
+    public static final class Fitted {
+        private final String content;
+        private final QrOptions options;
+        private final QrMatrix matrix;
+
+        Fitted(String content, QrOptions options, QrMatrix matrix) {
+            this.content = content;
+            this.options = options;
+            this.matrix = matrix;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public QrOptions getOptions() {
+            return options;
+        }
+
+        public QrMatrix getMatrix() {
+            return matrix;
+        }
+    }
+
+    /** Longest value kept for any single field. */
+    static final int MAX_FIELD_LENGTH = 64;
+
+    private static final QrErrorCorrection[] LEVELS = {
+        QrErrorCorrection.Q, QrErrorCorrection.M, QrErrorCorrection.L
+    };
+
+    private ContactQr() {
+    }
+
+    /**
+     * Encodes {@code card} at the strongest error correction whose matrix is
+     * at most {@code maxModules} wide, trimming fields in order of least
+     * importance until it fits. Name and phone are never dropped.
+     */
+    public static Fitted fit(ContactCard card, Format format, QrOptions base, int maxModules)
+            throws WriterException {
+        ContactCard candidate = truncate(card);
+        while (true) {
+            String content = format(candidate, format);
+            for (QrErrorCorrection level : LEVELS) {
+                QrOptions options = base.toBuilder().setErrorCorrection(level).build();
+                try {
+                    QrMatrix matrix = QrEncoder.encode(content, options);
+                    if (matrix.getSize() <= maxModules) {
+                        return new Fitted(content, options, matrix);
+                    }
+                } catch (WriterException e) {
+                    // Too long for any QR version at this level; try a lower one
+                }
+            }
+            ContactCard trimmed = dropLeastImportant(candidate);
+            if (trimmed == null) {
+                throw new WriterException("Contact card does not fit in " + maxModules + " modules");
+            }
+            candidate = trimmed;
+        }
+    }
+
+    public static String format(ContactCard card, Format format) {
+        return format == Format.VCARD ? toVCard(card) : toMeCard(card);
+    }
+
+    private static String toMeCard(ContactCard card) {
+        StringBuilder out = new StringBuilder("MECARD:");
+        appendMeCard(out, "N", card.getName());
+        appendMeCard(out, "ORG", card.getCompany());
+        appendMeCard(out, "TEL", card.getPhone());
+        appendMeCard(out, "EMAIL", card.getEmail());
+        appendMeCard(out, "URL", card.getWebsite());
+        appendMeCard(out, "ADR", card.getAddress());
+        // MECARD has no title field; NOTE is the closest readers display
+        appendMeCard(out, "NOTE", joinNote(card.getTitle(), card.getNote()));
+        return out.append(';').toString();
+    }
+
+    // vCard 3.0 (RFC 2426): N is mandatory and every line ends in CRLF
+    private static String toVCard(ContactCard card) {
+        StringBuilder out = new StringBuilder("BEGIN:VCARD\r\nVERSION:3.0\r\n");
+        appendVCard(out, "FN", card.getName());
+        appendStructuredName(out, card.getName());
+        appendVCard(out, "ORG", card.getCompany());
+        appendVCard(out, "TITLE", card.getTitle());
+        appendVCard(out, "TEL", card.getPhone());
+        appendVCard(out, "EMAIL", card.getEmail());
+        appendVCard(out, "URL", card.getWebsite());
+        if (card.getAddress() != null) {
+            // Free-form address in the street component
+            appendVCardStructured(out, "ADR", "", "", card.getAddress());
+        }
+        appendVCard(out, "NOTE", card.getNote());
+        return out.append("END:VCARD\r\n").toString();
+    }
+
+    private static void appendMeCard(StringBuilder out, String key, String value) {
+        if (value == null) {
+            return;
+        }
+        out.append(key).append(':');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == ';' || c == ',' || c == ':' || c == '"') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+        out.append(';');
+    }
+
+    private static void appendVCard(StringBuilder out, String key, String value) {
+        if (value == null) {
+            return;
+        }
+        out.append(key).append(':');
+        escapeVCard(out, value);
+        out.append("\r\n");
+    }
+
+    /** Writes a structured value; each component is escaped, the separators are not. */
+    private static void appendVCardStructured(StringBuilder out, String key, String... components) {
+        out.append(key).append(':');
+        for (int i = 0; i < components.length; i++) {
+            if (i > 0) {
+                out.append(';');
+            }
+            escapeVCard(out, components[i]);
+        }
+        out.append("\r\n");
+    }
+
+    /** N as family;given;;; split on the last space, as the web app's vCard export does. */
+    private static void appendStructuredName(StringBuilder out, String name) {
+        String trimmed = name == null ? "" : name.trim();
+        int space = trimmed.lastIndexOf(' ');
+        String family = space < 0 ? "" : trimmed.substring(space + 1);
+        String given = space < 0 ? trimmed : trimmed.substring(0, space).trim();
+        appendVCardStructured(out, "N", family, given, "", "", "");
+    }
+
+    private static void escapeVCard(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == ',' || c == ';') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+    }
+
+    private static String joinNote(String title, String note) {
+        if (title == null) {
+            return note;
+        }
+        return note == null ? title : title + " - " + note;
+    }
+
+    private static ContactCard truncate(ContactCard card) {
+        return card.toBuilder()
+            .setName(truncate(card.getName()))
+            .setTitle(truncate(card.getTitle()))
+            .setCompany(truncate(card.getCompany()))
+            .setPhone(truncate(card.getPhone()))
+            .setEmail(truncate(card.getEmail()))
+            .setWebsite(truncate(card.getWebsite()))
+            .setAddress(truncate(card.getAddress()))
+            .setNote(truncate(card.getNote()))
+            .build();
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_FIELD_LENGTH ? value.substring(0, MAX_FIELD_LENGTH) : value;
+    }
+
+    /** Drops the least important remaining field, or returns null when only essentials are left. */
+    private static ContactCard dropLeastImportant(ContactCard card) {
+        ContactCard.Builder builder = card.toBuilder();
+        if (card.getNote() != null) {
+            return builder.setNote(null).build();
+        }
+        if (card.getAddress() != null) {
+            return builder.setAddress(null).build();
+        }
+        if (card.getWebsite() != null) {
+            return builder.setWebsite(null).build();
+        }
+        if (card.getTitle() != null) {
+            return builder.setTitle(null).build();
+        }
+        if (card.getCompany() != null) {
+            return builder.setCompany(null).build();
+        }
+        if (card.getEmail() != null) {
+            return builder.setEmail(null).build();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.synka.app.qr;
+
+import com.synka.app.util.Sha256;
+
+/**
+ * Content-addressed key for a rendered QR code. Any change to the payload
+ * or a render parameter yields a different key, so cached renders never
+ * need explicit invalidation.
+ */
+public final class QrCacheKey {
+
+    private QrCacheKey() {
+    }
+
+    /**
+     * Key for the encoded payload alone: content, margin and EC level. Colours
+     * and size only affect rasterizing, so they are left out.
+     */
+    public static String of(String content, QrOptions options) {
+        String descriptor = content
+            + '\n' + options.getMargin()
+            + '\n' + options.getErrorCorrection().name();
+        return Sha256.hex(descriptor, 16);
+    }
+
+    public static String of(String content, int size, QrOptions options) {
+        String descriptor = content
+            + '\n' + size
+            + '\n' + Integer.toHexString(options.getForegroundColor())
+            + '\n' + Integer.toHexString(options.getBackgroundColor())
+            + '\n' + options.getMargin()
+            + '\n' + options.getErrorCorrection().name();
+        return Sha256.hex(descriptor, 16);
+    }
+}
@@ -0,0 +1,61 @@
+package com.synka.app.qr;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Encodes text into a {@link QrMatrix} at module resolution.
+ *
+ * Unlike QRCodeWriter this never scales to a pixel size; that is left to
+ * {@link QrRasterizer} so one encode can feed any number of output sizes.
+ */
+public final class QrEncoder {
+
+    private QrEncoder() {
+    }
+
+    public static QrMatrix encode(String content, QrOptions options) throws WriterException {
+        if (content == null || content.isEmpty()) {
+            throw new IllegalArgumentException("Content is required");
+        }
+
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+
+        QRCode code = Encoder.encode(content, toZxing(options.getErrorCorrection()), hints);
+        ByteMatrix modules = code.getMatrix();
+
+        int margin = options.getMargin();
+        int width = modules.getWidth();
+        QrMatrix matrix = new QrMatrix(width + margin * 2);
+        for (int y = 0; y < width; y++) {
+            byte[] row = modules.getArray()[y];
+            for (int x = 0; x < width; x++) {
+                if (row[x] == 1) {
+                    matrix.set(x + margin, y + margin);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    private static ErrorCorrectionLevel toZxing(QrErrorCorrection level) {
+        switch (level) {
+            case M:
+                return ErrorCorrectionLevel.M;
+            case Q:
+                return ErrorCorrectionLevel.Q;
+            case H:
+                return ErrorCorrectionLevel.H;
+            default:
+                return ErrorCorrectionLevel.L;
+        }
+    }
+}
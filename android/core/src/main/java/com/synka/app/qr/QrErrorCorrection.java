@@ -0,0 +1,18 @@
+package com.synka.app.qr;
+
+/**
+ * QR error correction levels, mirroring ZXing's ErrorCorrectionLevel.
+ *
+ * Kept separate so options, rasterizing and PNG writing do not load ZXing;
+ * the watch renders pre-encoded matrices and does not ship it.
+ */
+public enum QrErrorCorrection {
+    /** ~7% of codewords can be restored */
+    L,
+    /** ~15% of codewords can be restored */
+    M,
+    /** ~25% of codewords can be restored */
+    Q,
+    /** ~30% of codewords can be restored */
+    H
+}
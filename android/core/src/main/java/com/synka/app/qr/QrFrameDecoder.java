@@ -0,0 +1,109 @@
+package com.synka.app.qr;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.Result;
+import com.google.zxing.common.HybridBinarizer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Decodes QR codes from camera luminance planes.
+ *
+ * Only the Y plane is read, so YUV frames never go through RGB. The centered
+ * square region of interest is copied row by row into a buffer that is kept
+ * across frames, which also strips any row padding. Not thread-safe: use one
+ * instance per analysis thread.
+ */
+public final class QrFrameDecoder {
+
+    /** A decoded code and the format it was read as. */
+    public static final class Decoded {
+        private final String text;
+        private final String format;
+
+        Decoded(String text, String format) {
+            this.text = text;
+            this.format = format;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+    }
+
+    private final MultiFormatReader reader = new MultiFormatReader();
+    private final float roiFraction;
+    private byte[] buffer = new byte[0];
+
+    /**
+     * @param roiFraction side of the centered square to decode, as a fraction
+     *                    of the frame's shorter edge (0-1]
+     */
+    public QrFrameDecoder(float roiFraction) {
+        if (roiFraction <= 0f || roiFraction > 1f) {
+            throw new IllegalArgumentException("roiFraction must be in (0, 1]: " + roiFraction);
+        }
+        this.roiFraction = roiFraction;
+
+        Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+        hints.put(DecodeHintType.POSSIBLE_FORMATS, Arrays.asList(BarcodeFormat.QR_CODE));
+        reader.setHints(hints);
+    }
+
+    /**
+     * Decodes the region of interest of a luminance plane, such as plane 0 of
+     * a camera YUV_420_888 frame. Only the region's rows are read from
+     * {@code yPlane}; its position is left unchanged.
+     *
+     * @param yPlane    luminance bytes, starting at the frame's first pixel
+     * @param width     frame width in pixels
+     * @param height    frame height in pixels
+     * @param rowStride bytes between the starts of consecutive rows
+     * @return the decoded code, or {@code null} when none was found
+     */
+    public Decoded decode(ByteBuffer yPlane, int width, int height, int rowStride) {
+        int side = Math.max(1, (int) (Math.min(width, height) * roiFraction));
+        int left = (width - side) / 2;
+        int top = (height - side) / 2;
+
+        int needed = side * side;
+        if (buffer.length < needed) {
+            buffer = new byte[needed];
+        }
+        ByteBuffer rows = yPlane.duplicate();
+        int src = yPlane.position() + top * rowStride + left;
+        for (int y = 0, dst = 0; y < side; y++, src += rowStride, dst += side) {
+            rows.position(src);
+            rows.get(buffer, dst, side);
+        }
+
+        PlanarYUVLuminanceSource source =
+            new PlanarYUVLuminanceSource(buffer, side, side, 0, 0, side, side, false);
+        try {
+            Result result = reader.decodeWithState(new BinaryBitmap(new HybridBinarizer(source)));
+            return new Decoded(result.getText(), result.getBarcodeFormat().name());
+        } catch (NotFoundException e) {
+            // Also covers blurry frames that fail checksum; the next frame may read
+            return null;
+        } finally {
+            reader.reset();
+        }
+    }
+
+    /** Same as {@link #decode(ByteBuffer, int, int, int)} for a plane held in an array. */
+    public Decoded decode(byte[] yPlane, int width, int height, int rowStride) {
+        return decode(ByteBuffer.wrap(yPlane), width, height, rowStride);
+    }
+}
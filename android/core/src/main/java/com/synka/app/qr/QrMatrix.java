@@ -0,0 +1,71 @@
+package com.synka.app.qr;
+
+/**
+ * A square QR module grid, quiet zone included, stored as packed bit rows.
+ *
+ * {@link #toPackedBytes()} gives a compact row-major, MSB-first bit stream
+ * with no row padding, which is how the phone ships matrices to the watch.
+ */
+public final class QrMatrix {
+
+    private final int size;
+    private final int rowWords;
+    private final int[] bits;
+
+    public QrMatrix(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be > 0: " + size);
+        }
+        this.size = size;
+        this.rowWords = (size + 31) >>> 5;
+        this.bits = new int[rowWords * size];
+    }
+
+    /** Width and height in modules, quiet zone included. */
+    public int getSize() {
+        return size;
+    }
+
+    public boolean get(int x, int y) {
+        return ((bits[y * rowWords + (x >>> 5)] >>> (x & 0x1f)) & 1) != 0;
+    }
+
+    public void set(int x, int y) {
+        bits[y * rowWords + (x >>> 5)] |= 1 << (x & 0x1f);
+    }
+
+    /** Packs the grid into {@code ceil(size * size / 8)} bytes. */
+    public byte[] toPackedBytes() {
+        byte[] out = new byte[packedLength(size)];
+        int bit = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++, bit++) {
+                if (get(x, y)) {
+                    out[bit >>> 3] |= (byte) (0x80 >>> (bit & 7));
+                }
+            }
+        }
+        return out;
+    }
+
+    /** Inverse of {@link #toPackedBytes()}. */
+    public static QrMatrix fromPackedBytes(int size, byte[] packed) {
+        QrMatrix matrix = new QrMatrix(size);
+        if (packed == null || packed.length != packedLength(size)) {
+            throw new IllegalArgumentException("Packed matrix does not match size " + size);
+        }
+        int bit = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++, bit++) {
+                if ((packed[bit >>> 3] & (0x80 >>> (bit & 7))) != 0) {
+                    matrix.set(x, y);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    private static int packedLength(int size) {
+        return (size * size + 7) >>> 3;
+    }
+}
@@ -0,0 +1,87 @@
+package com.synka.app.qr;
+
+/**
+ * Render parameters for a QR code: colours, quiet zone and error correction.
+ */
+public final class QrOptions {
+
+    public static final int DEFAULT_FOREGROUND = 0xFF1C1C1E;
+    public static final int DEFAULT_BACKGROUND = 0xFFFFFFFF;
+    public static final int DEFAULT_MARGIN = 1;
+
+    public static final QrOptions DEFAULT = new Builder().build();
+
+    private final int foregroundColor;
+    private final int backgroundColor;
+    private final int margin;
+    private final QrErrorCorrection errorCorrection;
+
+    private QrOptions(Builder builder) {
+        this.foregroundColor = builder.foregroundColor;
+        this.backgroundColor = builder.backgroundColor;
+        this.margin = builder.margin;
+        this.errorCorrection = builder.errorCorrection;
+    }
+
+    public int getForegroundColor() {
+        return foregroundColor;
+    }
+
+    public int getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    /** Quiet zone width, in modules. */
+    public int getMargin() {
+        return margin;
+    }
+
+    public QrErrorCorrection getErrorCorrection() {
+        return errorCorrection;
+    }
+
+    public Builder toBuilder() {
+        return new Builder()
+            .setForegroundColor(foregroundColor)
+            .setBackgroundColor(backgroundColor)
+            .setMargin(margin)
+            .setErrorCorrection(errorCorrection);
+    }
+
+    public static final class Builder {
+        private int foregroundColor = DEFAULT_FOREGROUND;
+        private int backgroundColor = DEFAULT_BACKGROUND;
+        private int margin = DEFAULT_MARGIN;
+        private QrErrorCorrection errorCorrection = QrErrorCorrection.L;
+
+        public Builder setForegroundColor(int argb) {
+            this.foregroundColor = argb;
+            return this;
+        }
+
+        public Builder setBackgroundColor(int argb) {
+            this.backgroundColor = argb;
+            return this;
+        }
+
+        public Builder setMargin(int modules) {
+            if (modules < 0) {
+                throw new IllegalArgumentException("Margin must be >= 0: " + modules);
+            }
+            this.margin = modules;
+            return this;
+        }
+
+        public Builder setErrorCorrection(QrErrorCorrection level) {
+            if (level == null) {
+                throw new IllegalArgumentException("Error correction level is required");
+            }
+            this.errorCorrection = level;
+            return this;
+        }
+
+        public QrOptions build() {
+            return new QrOptions(this);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.synka.app.qr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a {@link QrMatrix} straight to a 1-bit indexed PNG.
+ *
+ * A two-colour palette image is a fraction of the size of an ARGB PNG and
+ * needs no intermediate bitmap, so it is cheap enough to produce on the
+ * watch and small enough to keep on disk. Geometry matches {@link QrRasterizer}.
+ */
+public final class QrPng {
+
+    private static final byte[] SIGNATURE = {
+        (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'
+    };
+
+    private QrPng() {
+    }
+
+    public static byte[] encode(QrMatrix matrix, int size, QrOptions options) {
+        int output = QrRasterizer.outputSize(matrix, size);
+        int modules = matrix.getSize();
+        int scale = output / modules;
+        int padding = (output - modules * scale) / 2;
+        int rowBytes = (output + 7) >>> 3;
+
+        try {
+            ByteArrayOutputStream png = new ByteArrayOutputStream(256 + output * rowBytes / 8);
+            DataOutputStream out = new DataOutputStream(png);
+            out.write(SIGNATURE);
+
+            ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+            DataOutputStream ihdr = new DataOutputStream(header);
+            ihdr.writeInt(output);
+            ihdr.writeInt(output);
+            ihdr.writeByte(1); // bit depth
+            ihdr.writeByte(3); // colour type: indexed
+            ihdr.writeByte(0); // compression
+            ihdr.writeByte(0); // filter
+            ihdr.writeByte(0); // interlace
+            writeChunk(out, "IHDR", header.toByteArray());
+
+            // Palette index 0 is the background, 1 the foreground
+            int bg = options.getBackgroundColor();
+            int fg = options.getForegroundColor();
+            writeChunk(out, "PLTE", new byte[] {
+                (byte) (bg >>> 16), (byte) (bg >>> 8), (byte) bg,
+                (byte) (fg >>> 16), (byte) (fg >>> 8), (byte) fg
+            });
+            if ((bg >>> 24) != 0xFF || (fg >>> 24) != 0xFF) {
+                writeChunk(out, "tRNS", new byte[] {(byte) (bg >>> 24), (byte) (fg >>> 24)});
+            }
+
+            ByteArrayOutputStream idat = new ByteArrayOutputStream();
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DeflaterOutputStream deflate = new DeflaterOutputStream(idat, deflater)) {
+                // Filter type byte (0 = none) followed by the packed pixels
+                byte[] blank = new byte[rowBytes + 1];
+                byte[] row = new byte[rowBytes + 1];
+                for (int i = 0; i < padding; i++) {
+                    deflate.write(blank);
+                }
+                for (int my = 0; my < modules; my++) {
+                    Arrays.fill(row, (byte) 0);
+                    for (int mx = 0; mx < modules; mx++) {
+                        if (matrix.get(mx, my)) {
+                            int start = padding + mx * scale;
+                            for (int px = start; px < start + scale; px++) {
+                                row[1 + (px >>> 3)] |= (byte) (0x80 >>> (px & 7));
+                            }
+                        }
+                    }
+                    for (int i = 0; i < scale; i++) {
+                        deflate.write(row);
+                    }
+                }
+                for (int i = padding + modules * scale; i < output; i++) {
+                    deflate.write(blank);
+                }
+            } finally {
+                deflater.end();
+            }
+            writeChunk(out, "IDAT", idat.toByteArray());
+            writeChunk(out, "IEND", new byte[0]);
+            return png.toByteArray();
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeChunk(DataOutputStream out, String type, byte[] data) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+
+        out.writeInt(data.length);
+        out.write(typeBytes);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
+}
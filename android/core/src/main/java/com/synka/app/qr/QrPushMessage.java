@@ -0,0 +1,69 @@
+package com.synka.app.qr;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Wire format for pushing a QR straight to the watch over MessageClient:
+ * a version byte, the payload hash, the module count and the packed matrix.
+ * The same hash and matrix also travel in the durable DataItem; this is the
+ * low-latency copy and is small enough for a single message.
+ */
+public final class QrPushMessage {
+
+    private static final int VERSION = 1;
+    // Version 40 is 177 modules; leaves room for any quiet zone we render
+    private static final int MAX_SIZE = 255;
+
+    private final String hash;
+    private final QrMatrix matrix;
+
+    private QrPushMessage(String hash, QrMatrix matrix) {
+        this.hash = hash;
+        this.matrix = matrix;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public QrMatrix getMatrix() {
+        return matrix;
+    }
+
+    public static byte[] encode(String hash, QrMatrix matrix) {
+        byte[] packed = matrix.toPackedBytes();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(packed.length + hash.length() + 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(hash);
+            out.writeInt(matrix.getSize());
+            out.write(packed);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** @throws IOException when the message is truncated or from an unknown version */
+    public static QrPushMessage decode(byte[] message) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported QR message version " + version);
+            }
+            String hash = in.readUTF();
+            int size = in.readInt();
+            if (size <= 0 || size > MAX_SIZE) {
+                throw new IOException("Invalid QR size " + size);
+            }
+            byte[] packed = new byte[(size * size + 7) / 8];
+            in.readFully(packed);
+            return new QrPushMessage(hash, QrMatrix.fromPackedBytes(size, packed));
+        }
+    }
+}
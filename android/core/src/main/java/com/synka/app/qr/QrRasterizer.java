@@ -0,0 +1,75 @@
+package com.synka.app.qr;
+
+import java.util.Arrays;
+
+/**
+ * Scales a {@link QrMatrix} into an ARGB pixel buffer.
+ *
+ * Each module row is written once and then copied down for the remaining
+ * pixel rows of that module, so the cost is one array fill per module plus
+ * one arraycopy per pixel row. Scaling and centring match ZXing's
+ * QRCodeWriter, so output is pixel-identical to the previous renderer.
+ */
+public final class QrRasterizer {
+
+    private QrRasterizer() {
+    }
+
+    /**
+     * Side length of the raster for a requested size. Never smaller than the
+     * matrix itself, as modules are not split across pixels.
+     */
+    public static int outputSize(QrMatrix matrix, int requestedSize) {
+        return Math.max(requestedSize, matrix.getSize());
+    }
+
+    /**
+     * Renders the matrix into a square ARGB buffer of {@code outputSize(matrix, size)}
+     * pixels per side. {@code reuse} is filled in place when it is large enough,
+     * otherwise a new buffer is allocated.
+     */
+    public static int[] rasterize(QrMatrix matrix, int size, QrOptions options, int[] reuse) {
+        int output = outputSize(matrix, size);
+        int length = output * output;
+        int[] pixels = reuse != null && reuse.length >= length ? reuse : new int[length];
+
+        int fg = options.getForegroundColor();
+        int bg = options.getBackgroundColor();
+        int modules = matrix.getSize();
+        int scale = output / modules;
+        int padding = (output - modules * scale) / 2;
+
+        // Top padding rows
+        Arrays.fill(pixels, 0, padding * output, bg);
+
+        for (int my = 0; my < modules; my++) {
+            int rowStart = (padding + my * scale) * output;
+            int rowEnd = rowStart + output;
+
+            Arrays.fill(pixels, rowStart, rowStart + padding, bg);
+            int x = rowStart + padding;
+            int mx = 0;
+            while (mx < modules) {
+                // Fill runs of same-coloured modules in one go
+                boolean dark = matrix.get(mx, my);
+                int run = 1;
+                while (mx + run < modules && matrix.get(mx + run, my) == dark) {
+                    run++;
+                }
+                int end = x + run * scale;
+                Arrays.fill(pixels, x, end, dark ? fg : bg);
+                x = end;
+                mx += run;
+            }
+            Arrays.fill(pixels, x, rowEnd, bg);
+
+            for (int i = 1; i < scale; i++) {
+                System.arraycopy(pixels, rowStart, pixels, rowStart + i * output, output);
+            }
+        }
+
+        // Bottom padding rows
+        Arrays.fill(pixels, (padding + modules * scale) * output, length, bg);
+        return pixels;
+    }
+}
@@ -0,0 +1,38 @@
+package com.synka.app.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/** SHA-256 digests rendered as truncated lowercase hex, for cache keys and content hashes. */
+public final class Sha256 {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Sha256() {
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every JVM and Android release
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Hex SHA-256 of {@code value} as UTF-8, truncated to {@code bytes} bytes. */
+    public static String hex(String value, int bytes) {
+        return hex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)), bytes);
+    }
+
+    /** The first {@code bytes} bytes of {@code hash} as hex. */
+    public static String hex(byte[] hash, int bytes) {
+        char[] out = new char[bytes * 2];
+        for (int i = 0; i < bytes; i++) {
+            out[i * 2] = HEX[(hash[i] >>> 4) & 0xF];
+            out[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(out);
+    }
+}
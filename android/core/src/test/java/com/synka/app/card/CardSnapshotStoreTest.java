@@ -0,0 +1,110 @@
+package com.synka.app.card;
+
+import static org.junit.Assert.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class CardSnapshotStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final CardSnapshot PRIYA = new CardSnapshot.Builder("card-1")
+        .setSlug("priya-raman")
+        .setName("Priya Raman")
+        .setTitle("Head of Partnerships")
+        .setCompany("Synka Technologies")
+        .setAvatar(new byte[] {(byte) 0xFF, (byte) 0xD8, 1, 2, 3}, "https://cdn.synka.in/a/priya.jpg")
+        .build();
+
+    private static final CardSnapshot WORK = new CardSnapshot.Builder("card-2")
+        .setSlug("priya-work")
+        .setName("Priya R.")
+        .build();
+
+    @Test
+    public void emptyWhenNothingStored() throws Exception {
+        CardSnapshotStore store = new CardSnapshotStore(new File(folder.getRoot(), "cards.bin"));
+        assertTrue(store.read().isEmpty());
+        assertNull(store.read().getActive());
+    }
+
+    @Test
+    public void roundTripsCardsThroughTheFile() throws Exception {
+        File file = new File(folder.getRoot(), "cards.bin");
+        CardSnapshotStore store = new CardSnapshotStore(file);
+        assertTrue(store.put(PRIYA, true));
+        assertTrue(store.put(WORK, false));
+
+        // A fresh store has no cache, so this goes through the mapped file
+        CardSnapshotStore.Snapshot snapshot = new CardSnapshotStore(file).read();
+        assertEquals(2, snapshot.getCards().size());
+        CardSnapshot active = snapshot.getActive();
+        assertEquals("card-1", active.getId());
+        assertEquals("Priya Raman", active.getName());
+        assertEquals("Synka Technologies", active.getCompany());
+        assertEquals(PRIYA.getHash(), active.getHash());
+        assertArrayEquals(PRIYA.getAvatar(), active.getAvatar());
+        assertEquals("https://cdn.synka.in/a/priya.jpg", active.getAvatarSource());
+        assertNull(snapshot.get("card-2").getTitle());
+    }
+
+    @Test
+    public void skipsWritesThatChangeNothing() throws Exception {
+        File file = new File(folder.getRoot(), "cards.bin");
+        CardSnapshotStore store = new CardSnapshotStore(file);
+        assertTrue(store.put(PRIYA, true));
+        assertFalse(store.put(PRIYA.toBuilder().build(), true));
+        assertTrue(store.put(PRIYA.toBuilder().setTitle("VP Partnerships").build(), true));
+        assertEquals("VP Partnerships", new CardSnapshotStore(file).read().getActive().getTitle());
+    }
+
+    @Test
+    public void hashCoversDisplayedFields() {
+        assertNotEquals(PRIYA.getHash(), PRIYA.toBuilder().setName("Priya").build().getHash());
+        assertNotEquals(PRIYA.getHash(), PRIYA.toBuilder().setAvatar(null, null).build().getHash());
+        assertEquals(PRIYA.getHash(), PRIYA.toBuilder().setName("  Priya Raman ").build().getHash());
+    }
+
+    @Test
+    public void removingActiveCardFallsBackToAnother() throws Exception {
+        CardSnapshotStore store = new CardSnapshotStore(new File(folder.getRoot(), "cards.bin"));
+        store.put(PRIYA, true);
+        store.put(WORK, false);
+        assertTrue(store.remove("card-1"));
+        assertFalse(store.remove("card-1"));
+        assertEquals("card-2", store.read().getActive().getId());
+    }
+
+    @Test
+    public void cardBytesRoundTrip() throws Exception {
+        CardSnapshot copy = CardSnapshot.fromBytes(PRIYA.toBytes());
+        assertEquals(PRIYA.getHash(), copy.getHash());
+        assertEquals(PRIYA.getSlug(), copy.getSlug());
+        assertArrayEquals(PRIYA.getAvatar(), copy.getAvatar());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedFile() throws Exception {
+        byte[] bytes = CardSnapshotStore.serialize(
+            new CardSnapshotStore.Snapshot(Arrays.asList(PRIYA, WORK), "card-1"));
+        File file = new File(folder.getRoot(), "cards.bin");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bytes, 0, bytes.length - 3);
+        }
+        new CardSnapshotStore(file).read();
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsForeignFile() throws Exception {
+        CardSnapshotStore.parse(ByteBuffer.wrap(new byte[] {'P', 'K', 3, 4, 0, 0, 0, 0}));
+    }
+}
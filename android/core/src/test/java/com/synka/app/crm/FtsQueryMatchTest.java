@@ -0,0 +1,121 @@
+package com.synka.app.crm;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteOrder;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Runs built queries against an FTS4 table shaped like the app's contacts_fts. */
+public class FtsQueryMatchTest {
+
+    private static final MatchRanker RANKER = new MatchRanker(4.0, 2.0, 1.5, 1.0, 2.0, 0.5);
+
+    private Connection db;
+
+    @Before
+    public void setUp() throws SQLException {
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = db.createStatement()) {
+            statement.execute("CREATE VIRTUAL TABLE contacts_fts USING fts4("
+                + "name, company, designation, email, tags, notes, "
+                + "tokenize=unicode61 \"remove_diacritics=1\")");
+        }
+        insert(1, "Priya Raman", "Synka Technologies", "Head of Partnerships", "priya@synka.in", "lead", "");
+        insert(2, "Ravi Kumar", "Acme", "Engineer", "ravi@acme.com", "", "met Priya at the expo");
+        insert(3, "Jos\u00e9 Garc\u00eda", "M\u00fcnchen Labs", "CTO", "jose@labs.de", "vip", "");
+        insert(4, "Pri", "", "", "", "", "");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        db.close();
+    }
+
+    @Test
+    public void wordsMatchAsPrefixes() throws SQLException {
+        assertEquals(List.of(1L, 2L, 4L), match("pri"));
+        assertEquals(List.of(1L), match("Synk"));
+    }
+
+    @Test
+    public void everyWordMustMatch() throws SQLException {
+        assertEquals(List.of(1L), match("pri syn"));
+        assertEquals(List.of(2L), match("ravi expo"));
+        assertEquals(List.of(), match("pri acme zzz"));
+    }
+
+    @Test
+    public void matchesAcrossCaseAndDiacritics() throws SQLException {
+        assertEquals(List.of(3L), match("JOSE garc"));
+        assertEquals(List.of(3L), match("munchen"));
+    }
+
+    @Test
+    public void syntaxInTheInputIsInert() throws SQLException {
+        // Read as a column filter this would be an error: there is no column "priya"
+        assertEquals(List.of(1L), match("priya:raman"));
+        assertEquals(List.of(1L), match("\"priya\" -raman"));
+        assertEquals(List.of(1L), match("priya@synka.in"));
+        assertEquals(List.of(), match("priya OR ravi"));
+    }
+
+    @Test
+    public void nameMatchRanksAboveNotesMatch() throws SQLException {
+        String sql = "SELECT docid, matchinfo(contacts_fts, '" + MatchRanker.MATCHINFO_FORMAT
+            + "') FROM contacts_fts WHERE contacts_fts MATCH ?";
+        double priya = 0;
+        double ravi = 0;
+        try (PreparedStatement statement = db.prepareStatement(sql)) {
+            statement.setString(1, FtsQuery.build("priya"));
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    double score = RANKER.score(MatchRanker.parse(rows.getBytes(2), ByteOrder.nativeOrder()));
+                    if (rows.getLong(1) == 1) {
+                        priya = score;
+                    } else if (rows.getLong(1) == 2) {
+                        ravi = score;
+                    }
+                }
+            }
+        }
+        assertTrue(ravi > 0);
+        assertTrue(priya > ravi);
+    }
+
+    private List<Long> match(String input) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement statement = db.prepareStatement(
+                "SELECT docid FROM contacts_fts WHERE contacts_fts MATCH ? ORDER BY docid")) {
+            statement.setString(1, FtsQuery.build(input));
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    ids.add(rows.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void insert(long id, String... fields) throws SQLException {
+        try (PreparedStatement statement = db.prepareStatement(
+                "INSERT INTO contacts_fts (docid, name, company, designation, email, tags, notes) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            statement.setLong(1, id);
+            for (int i = 0; i < fields.length; i++) {
+                statement.setString(i + 2, fields[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+}
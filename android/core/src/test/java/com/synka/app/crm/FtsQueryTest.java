@@ -0,0 +1,42 @@
+package com.synka.app.crm;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FtsQueryTest {
+
+    @Test
+    public void wordsBecomeQuotedPrefixTerms() {
+        assertEquals("\"pri*\" \"syn*\"", FtsQuery.build("pri syn"));
+    }
+
+    @Test
+    public void punctuationSeparatesTermsAndNeverReachesTheQuery() {
+        assertEquals("\"priya*\" \"synka*\" \"in*\"", FtsQuery.build("priya@synka.in"));
+        assertEquals("\"name*\" \"ravi*\" \"OR*\" \"x*\"", FtsQuery.build("name:ravi OR \"x*"));
+        assertEquals("\"head*\" \"of*\"", FtsQuery.build("  -head- (of)  "));
+    }
+
+    @Test
+    public void keepsNonAsciiLetters() {
+        assertEquals("\"Jos\u00e9*\" \"M\u00fcnchen*\"", FtsQuery.build("Jos\u00e9, M\u00fcnchen"));
+        // Devanagari vowel signs and virama are marks, not letters, but belong to the word
+        String priya = "\u092a\u094d\u0930\u093f\u092f\u093e";
+        assertEquals("\"" + priya + "*\"", FtsQuery.build(priya));
+    }
+
+    @Test
+    public void nullWhenNothingToSearch() {
+        assertNull(FtsQuery.build(null));
+        assertNull(FtsQuery.build(""));
+        assertNull(FtsQuery.build("  *-\"  "));
+    }
+
+    @Test
+    public void capsTheNumberOfTerms() {
+        String query = FtsQuery.build("a b c d e f g h i j");
+        assertEquals(FtsQuery.MAX_TERMS, query.split(" ").length);
+        assertTrue(query.endsWith("\"h*\""));
+    }
+}
@@ -0,0 +1,90 @@
+package com.synka.app.crm;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class MatchRankerTest {
+
+    // Two columns (name, notes), one phrase, 100 rows
+    private static final MatchRanker RANKER = new MatchRanker(4.0, 1.0);
+
+    /** matchinfo 'pcnalx' for one phrase over two columns. */
+    private static int[] info(int nameHits, int notesHits, int nameLength, int notesLength,
+                              int rowsWithNameHit, int rowsWithNotesHit) {
+        return new int[] {
+            1, 2, 100,
+            2, 20,
+            nameLength, notesLength,
+            nameHits, nameHits * 3, rowsWithNameHit,
+            notesHits, notesHits * 3, rowsWithNotesHit,
+        };
+    }
+
+    @Test
+    public void weightedColumnsOutrankOthers() {
+        double inName = RANKER.score(info(1, 0, 2, 20, 5, 5));
+        double inNotes = RANKER.score(info(0, 1, 2, 20, 5, 5));
+        assertTrue(inName > inNotes);
+    }
+
+    @Test
+    public void rarerTermsScoreHigher() {
+        double rare = RANKER.score(info(1, 0, 2, 20, 1, 0));
+        double common = RANKER.score(info(1, 0, 2, 20, 90, 0));
+        assertTrue(rare > common);
+        // Terms in most rows still count for something
+        assertTrue(common > 0);
+    }
+
+    @Test
+    public void shorterFieldsScoreHigherForTheSameHits() {
+        double shortNotes = RANKER.score(info(0, 1, 2, 5, 0, 5));
+        double longNotes = RANKER.score(info(0, 1, 2, 200, 0, 5));
+        assertTrue(shortNotes > longNotes);
+    }
+
+    @Test
+    public void repeatedHitsSaturate() {
+        double once = RANKER.score(info(0, 1, 2, 20, 0, 5));
+        double twice = RANKER.score(info(0, 2, 2, 20, 0, 5));
+        double tenTimes = RANKER.score(info(0, 10, 2, 20, 0, 5));
+        assertTrue(twice > once);
+        // BM25 caps a term's contribution at (k1 + 1) times a single hit
+        assertTrue(tenTimes > twice);
+        assertTrue(tenTimes < once * 2.2);
+    }
+
+    @Test
+    public void sumsOverPhrases() {
+        int[] two = {
+            2, 2, 100,
+            2, 20,
+            2, 20,
+            1, 3, 5,  0, 0, 5,
+            0, 0, 5,  1, 3, 5,
+        };
+        double expected = RANKER.score(info(1, 0, 2, 20, 5, 5)) + RANKER.score(info(0, 1, 2, 20, 5, 5));
+        assertEquals(expected, RANKER.score(two), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsColumnCountMismatch() {
+        new MatchRanker(1.0, 1.0, 1.0).score(info(1, 0, 2, 20, 5, 5));
+    }
+
+    @Test
+    public void parsesBlobInTheGivenByteOrder() {
+        int[] expected = info(1, 2, 3, 4, 5, 6);
+        for (ByteOrder order : new ByteOrder[] {ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+            ByteBuffer blob = ByteBuffer.allocate(expected.length * Integer.BYTES).order(order);
+            for (int value : expected) {
+                blob.putInt(value);
+            }
+            assertArrayEquals(expected, MatchRanker.parse(blob.array(), order));
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.synka.app.imagecache;
+
+import static org.junit.Assert.*;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ImageDiskCacheTest {
+
+    private static final String HOST = "127.0.0.1";
+    private static final long MAX_AGE = 60_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private String baseUrl;
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final List<String> conditionals = new CopyOnWriteArrayList<>();
+    private volatile byte[] body = image(100, 1);
+    private volatile String etag = "\"v1\"";
+    private volatile String contentType = "image/jpeg";
+    private volatile int status = 200;
+    private volatile CountDownLatch gate;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.createContext("/storage/v1/", exchange -> {
+            requests.add(exchange.getRequestURI().toString());
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (ifNoneMatch != null) {
+                conditionals.add(ifNoneMatch);
+            }
+            CountDownLatch latch = gate;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (ifNoneMatch != null && ifNoneMatch.equals(etag)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            respond(exchange);
+        });
+        server.start();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void missDownloadsThenHitServesFromDisk() throws Exception {
+        ImageDiskCache cache = cache(1024 * 1024);
+        String url = url("profiles/a.jpg");
+
+        assertArrayEquals(body, read(cache.get(url)));
+        ImageDiskCache.Hit hit = cache.get(url);
+        assertEquals("image/jpeg", hit.getMimeType());
+        assertEquals(100, hit.getLength());
+        assertFalse(hit.isStale());
+        assertArrayEquals(body, read(hit));
+
+        assertEquals(1, requests.size());
+        ImageDiskCache.Stats stats = cache.stats();
+        assertEquals(1, stats.getMisses());
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getEntries());
+        assertEquals(100, stats.getSizeBytes());
+    }
+
+    @Test
+    public void reSignedUrlHitsSameEntry() throws Exception {
+        ImageDiskCache cache = cache(1024 * 1024);
+        read(cache.get(signed("docs/a.png", 2000)));
+        ImageDiskCache.Hit hit = cache.get(signed("docs/a.png", 3000));
+
+        assertNotNull(hit);
+        read(hit);
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void expiredOrUnreadableTokenIsNeverServed() throws Exception {
+        ImageDiskCache cache = cache(1024 * 1024);
+        read(cache.get(signed("docs/a.png", 2000)));
+        long hits = cache.stats().getHits();
+
+        // The clock starts at 1000 s
+        assertNull(cache.get(signed("docs/a.png", 999)));
+        assertNull(cache.get(baseUrl + "/storage/v1/object/sign/docs/a.png?token=garbage"));
+        assertNull(cache.get(baseUrl + "/storage/v1/object/sign/docs/a.png"));
+        assertEquals(1, requests.size());
+        assertEquals(hits, cache.stats().getHits());
+        assertEquals(1, cache.stats().getMisses());
+    }
+
+    @Test
+    public void entryPastItsTokenExpiryIsRevalidatedBeforeServing() throws Exception {
+        ImageDiskCache cache = cache(1024 * 1024);
+        byte[] original = body;
+        read(cache.get(signed("docs/a.png", 1010)));
+
+        now.addAndGet(20_000);
+        ImageDiskCache.Hit hit = cache.get(signed("docs/a.png", 5000));
+        assertFalse(hit.isStale());
+        assertArrayEquals(original, read(hit));
+        assertEquals(List.of("\"v1\""), conditionals);
+
+        // Good again until the new token expires
+        read(cache.get(signed("docs/a.png", 5000)));
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void expiredEntryIsNotServedWhenTheServerRejectsTheToken() throws Exception {
+        ImageDiskCache cache = cache(1024 * 1024);
+        read(cache.get(signed("docs/a.png", 1010)));
+
+        now.addAndGet(20_000);
+        status = 400;
+        etag = "\"v2\"";
+        assertNull(cache.get(signed("docs/a.png", 5000)));
+    }
+
+    @Test
+    public void clearDropsEveryEntry() throws Exception {
+        ImageDiskCache cache = cache(1024 * 1024);
+        read(cache.get(url("profiles/a.jpg")));
+        read(cache.get(signed("docs/a.png", 2000)));
+
+        cache.clear();
+        assertEquals(0, cache.stats().getEntries());
+        assertEquals(0, cache.stats().getSizeBytes());
+        assertEquals(0, folder.getRoot().listFiles().length);
+        read(cache.get(url("profiles/a.jpg")));
+        assertEquals(3, requests.size());
+    }
+
+    @Test
+    public void downloadInFlightDuringClearIsNotStored() throws Exception {
+        ImageDiskCache cache = cache(1024 * 1024);
+        gate = new CountDownLatch(1);
+        Future<ImageDiskCache.Hit> pending = executor.submit(() -> cache.get(url("profiles/a.jpg")));
+        Thread.sleep(200);
+        cache.clear();
+        gate.countDown();
+
+        assertNull(pending.get(5, TimeUnit.SECONDS));
+        gate = null;
+        assertEquals(0, cache.stats().getEntries());
+    }
+
+    @Test
+    public void staleEntryIsServedAndRevalidated() throws Exception {
+        ImageDiskCache cache = cache(1024 * 1024);
+        String url = url("profiles/a.jpg");
+        byte[] original = body;
+        read(cache.get(url));
+
+        now.addAndGet(MAX_AGE + 1);
+        ImageDiskCache.Hit hit = cache.get(url);
+        assertTrue(hit.isStale());
+        assertArrayEquals(original, read(hit));
+        drain();
+
+        assertEquals(List.of("\"v1\""), conditionals);
+        ImageDiskCache.Hit fresh = cache.get(url);
+        assertFalse(fresh.isStale());
+        assertArrayEquals(original, read(fresh));
+        assertEquals(1, cache.stats().getRevalidated());
+    }
+
+    @Test
+    public void revalidationPicksUpChangedBody() throws Exception {
+        ImageDiskCache cache = cache(1024 * 1024);
+        String url = url("profiles/a.jpg");
+        read(cache.get(url));
+
+        body = image(120, 2);
+        etag = "\"v2\"";
+        contentType = "image/png";
+        now.addAndGet(MAX_AGE + 1);
+        read(cache.get(url));
+        drain();
+
+        ImageDiskCache.Hit hit = cache.get(url);
+        assertEquals("image/png", hit.getMimeType());
+        assertArrayEquals(body, read(hit));
+        assertEquals(120, cache.stats().getSizeBytes());
+    }
+
+    @Test
+    public void revalidationDropsDeletedObject() throws Exception {
+        ImageDiskCache cache = cache(1024 * 1024);
+        String url = url("profiles/a.jpg");
+        read(cache.get(url));
+
+        status = 404;
+        etag = "\"gone\"";
+        now.addAndGet(MAX_AGE + 1);
+        read(cache.get(url));
+        drain();
+
+        assertEquals(0, cache.stats().getEntries());
+        assertNull(cache.get(url));
+    }
+
+    @Test
+    public void failedRevalidationKeepsStaleCopy() throws Exception {
+        ImageDiskCache cache = cache(1024 * 1024);
+        String url = url("profiles/a.jpg");
+        byte[] original = body;
+        read(cache.get(url));
+
+        status = 500;
+        etag = "\"v2\"";
+        now.addAndGet(MAX_AGE + 1);
+        read(cache.get(url));
+        drain();
+
+        ImageDiskCache.Hit hit = cache.get(url);
+        assertTrue(hit.isStale());
+        assertArrayEquals(original, read(hit));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception {
+        ImageDiskCache cache = cache(2400);
+        body = image(250, 3);
+        for (int i = 0; i < 9; i++) {
+            read(cache.get(url("profiles/" + i + ".jpg")));
+            now.incrementAndGet();
+        }
+        // 0 is the oldest, but touching it makes 1 the eviction candidate
+        read(cache.get(url("profiles/0.jpg")));
+        now.incrementAndGet();
+        read(cache.get(url("profiles/9.jpg")));
+
+        ImageDiskCache.Stats stats = cache.stats();
+        assertEquals(1, stats.getEvictions());
+        assertEquals(9, stats.getEntries());
+        assertEquals(2250, stats.getSizeBytes());
+        int before = requests.size();
+        read(cache.get(url("profiles/0.jpg")));
+        assertEquals(before, requests.size());
+        read(cache.get(url("profiles/1.jpg")));
+        assertEquals(before + 1, requests.size());
+    }
+
+    @Test
+    public void reloadsIndexFromDisk() throws Exception {
+        ImageDiskCache first = cache(1024 * 1024);
+        read(first.get(url("profiles/a.jpg")));
+        read(first.get(url("profiles/b.jpg")));
+
+        ImageDiskCache second = cache(1024 * 1024);
+        ImageDiskCache.Stats stats = second.stats();
+        assertEquals(2, stats.getEntries());
+        assertEquals(200, stats.getSizeBytes());
+        assertArrayEquals(body, read(second.get(url("profiles/a.jpg"))));
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void discardsCorruptEntriesOnLoad() throws Exception {
+        ImageDiskCache first = cache(1024 * 1024);
+        read(first.get(url("profiles/a.jpg")));
+        File root = folder.getRoot();
+        for (File file : root.listFiles()) {
+            if (file.getName().endsWith(".meta")) {
+                Files.write(file.toPath(), new byte[] {'x'});
+            }
+        }
+        new File(root, "leftover123.tmp").createNewFile();
+
+        ImageDiskCache second = cache(1024 * 1024);
+        assertEquals(0, second.stats().getEntries());
+        assertEquals(0, root.listFiles().length);
+    }
+
+    @Test
+    public void skipsNonImagesAndOversizedBodies() throws Exception {
+        ImageDiskCache cache = cache(800);
+        contentType = "text/html";
+        assertNull(cache.get(url("profiles/page.jpg")));
+
+        contentType = "image/jpeg";
+        body = image(101, 4);
+        assertNull(cache.get(url("profiles/big.jpg")));
+        assertEquals(0, cache.stats().getEntries());
+
+        status = 403;
+        assertNull(cache.get(url("profiles/denied.jpg")));
+        assertEquals(3, cache.stats().getMisses());
+    }
+
+    @Test
+    public void ignoresOtherUrls() {
+        ImageDiskCache cache = cache(1024 * 1024);
+        assertFalse(cache.isCacheable(baseUrl + "/rest/v1/profiles"));
+        assertNull(cache.get("http://example.com/storage/v1/object/public/a.jpg"));
+        assertTrue(requests.isEmpty());
+        assertEquals(0, cache.stats().getMisses());
+    }
+
+    @Test
+    public void concurrentMissesShareOneDownload() throws Exception {
+        ImageDiskCache cache = cache(1024 * 1024);
+        String url = url("profiles/a.jpg");
+        gate = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(callers.submit(() -> read(cache.get(url))));
+            }
+            Thread.sleep(200);
+            gate.countDown();
+            for (Future<byte[]> result : results) {
+                assertArrayEquals(body, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, requests.size());
+        assertEquals(1, cache.stats().getMisses());
+    }
+
+    private ImageDiskCache cache(long maxBytes) {
+        return new ImageDiskCache(folder.getRoot(), HOST, maxBytes, MAX_AGE, executor, now::get, true);
+    }
+
+    private String url(String path) {
+        return baseUrl + "/storage/v1/object/public/" + path;
+    }
+
+    private String signed(String path, long expSeconds) {
+        String payload = "{\"url\":\"" + path + "\",\"iat\":900,\"exp\":" + expSeconds + "}";
+        String token = "eyJhbGciOiJIUzI1NiJ9."
+            + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+            + ".c2lnbmF0dXJl";
+        return baseUrl + "/storage/v1/object/sign/" + path + "?token=" + token;
+    }
+
+    private void drain() throws Exception {
+        executor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        byte[] bytes = status == 200 ? body : new byte[0];
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    private static byte[] read(ImageDiskCache.Hit hit) throws IOException {
+        assertNotNull(hit);
+        try (InputStream in = hit.getStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] image(int size, int seed) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31 + seed);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,72 @@
+package com.synka.app.imagecache;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class StorageUrlsTest {
+
+    private static final String HOST = "xyz.supabase.co";
+    private static final String PUBLIC = "https://xyz.supabase.co/storage/v1/object/public/profiles/photos/u-1.jpg";
+
+    @Test
+    public void keepsPublicObjectUrls() {
+        assertEquals(PUBLIC, StorageUrls.normalize(PUBLIC, HOST));
+        assertEquals(PUBLIC, StorageUrls.normalize("https://XYZ.supabase.co:443/storage/v1/object/public/profiles/photos/u-1.jpg", HOST));
+    }
+
+    @Test
+    public void dropsSignatureAndSortsQuery() {
+        String a = StorageUrls.normalize(
+            "https://xyz.supabase.co/storage/v1/render/image/sign/docs/a.png?token=abc&width=200&height=100", HOST);
+        String b = StorageUrls.normalize(
+            "https://xyz.supabase.co/storage/v1/render/image/sign/docs/a.png?height=100&width=200&token=def", HOST);
+        assertEquals("https://xyz.supabase.co/storage/v1/render/image/sign/docs/a.png?height=100&width=200", a);
+        assertEquals(a, b);
+        assertEquals(StorageUrls.key(a), StorageUrls.key(b));
+    }
+
+    @Test
+    public void transformsAreDistinctEntries() {
+        String small = StorageUrls.normalize(
+            "https://xyz.supabase.co/storage/v1/render/image/public/profiles/a.jpg?width=64", HOST);
+        String large = StorageUrls.normalize(
+            "https://xyz.supabase.co/storage/v1/render/image/public/profiles/a.jpg?width=512", HOST);
+        assertNotEquals(StorageUrls.key(small), StorageUrls.key(large));
+    }
+
+    @Test
+    public void rejectsEverythingElse() {
+        assertNull(StorageUrls.normalize("http://xyz.supabase.co/storage/v1/object/public/profiles/a.jpg", HOST));
+        assertNull(StorageUrls.normalize("https://abc.supabase.co/storage/v1/object/public/profiles/a.jpg", HOST));
+        assertNull(StorageUrls.normalize("https://xyz.supabase.co:8443/storage/v1/object/public/profiles/a.jpg", HOST));
+        assertNull(StorageUrls.normalize("https://xyz.supabase.co/rest/v1/profiles?select=*", HOST));
+        assertNull(StorageUrls.normalize("https://xyz.supabase.co/storage/v1/object/authenticated/docs/a.jpg", HOST));
+        assertNull(StorageUrls.normalize("https://xyz.supabase.co/storage/v1/object/public/", HOST));
+        assertNull(StorageUrls.normalize("not a url", HOST));
+    }
+
+    @Test
+    public void expiresAtReadsTheSignedTokensExpClaim() {
+        // {"url":"docs/a.png","exp":1700000000}, unpadded base64url
+        String token = "eyJhbGciOiJIUzI1NiJ9.eyJ1cmwiOiJkb2NzL2EucG5nIiwiZXhwIjoxNzAwMDAwMDAwfQ.c2ln";
+        assertEquals(1_700_000_000_000L, StorageUrls.expiresAt(
+            "https://xyz.supabase.co/storage/v1/object/sign/docs/a.png?token=" + token));
+        assertEquals(1_700_000_000_000L, StorageUrls.expiresAt(
+            "https://xyz.supabase.co/storage/v1/render/image/sign/docs/a.png?width=64&token=" + token));
+    }
+
+    @Test
+    public void expiresAtForPublicAndUnreadableUrls() {
+        assertEquals(StorageUrls.NEVER_EXPIRES, StorageUrls.expiresAt(PUBLIC));
+        assertEquals(0, StorageUrls.expiresAt("https://xyz.supabase.co/storage/v1/object/sign/docs/a.png"));
+        assertEquals(0, StorageUrls.expiresAt("https://xyz.supabase.co/storage/v1/object/sign/docs/a.png?token=abc"));
+        assertEquals(0, StorageUrls.expiresAt("https://xyz.supabase.co/storage/v1/object/sign/docs/a.png?token=a.!!.c"));
+    }
+
+    @Test
+    public void keyIsFileNameSafe() {
+        String key = StorageUrls.key(PUBLIC);
+        assertTrue(key.matches("[0-9a-f]{32}"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.synka.app.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void computesNearestRankPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram(128);
+        for (int i = 100; i >= 1; i--) {
+            histogram.record(i);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(50, snapshot.percentile(0.5));
+        assertEquals(99, snapshot.percentile(0.99));
+        assertEquals(100, snapshot.getMax());
+        assertEquals(1, snapshot.percentile(0));
+    }
+
+    @Test
+    public void keepsOnlyMostRecentWindow() {
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10, snapshot.getCount());
+        assertEquals(7000, snapshot.percentile(0));
+        assertEquals(10000, snapshot.getMax());
+    }
+
+    @Test
+    public void roundsCapacityUpToPowerOfTwo() {
+        LatencyHistogram histogram = new LatencyHistogram(5);
+        for (int i = 1; i <= 8; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1, histogram.snapshot().percentile(0));
+    }
+
+    @Test
+    public void emptySnapshotReportsZero() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram(16).snapshot();
+        assertTrue(snapshot.isEmpty());
+        assertEquals(0, snapshot.percentile(0.99));
+        assertEquals(0, snapshot.getMax());
+    }
+
+    @Test
+    public void concurrentWritersLoseNoCount() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(64);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, histogram.snapshot().getCount());
+    }
+}
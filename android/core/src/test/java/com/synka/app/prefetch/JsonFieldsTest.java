@@ -0,0 +1,45 @@
+package com.synka.app.prefetch;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class JsonFieldsTest {
+
+    @Test
+    public void firstElementIsTheRawObjectText() {
+        assertEquals("{\"a\":[1,{\"b\":\"]\"}]}", JsonFields.firstElement(" [{\"a\":[1,{\"b\":\"]\"}]}, {\"c\":2}]"));
+        assertNull(JsonFields.firstElement("[]"));
+        assertNull(JsonFields.firstElement(" [ ] "));
+        assertNull(JsonFields.firstElement("{\"a\":1}"));
+        assertNull(JsonFields.firstElement("[{\"a\":1"));
+        assertNull(JsonFields.firstElement(null));
+    }
+
+    @Test
+    public void readsTopLevelStrings() {
+        String json = "{\"nested\":{\"name\":\"inner\"},\"list\":[\"x\",{\"name\":\"y\"}],"
+            + "\"n\":12.5,\"flag\":true,\"none\":null,\"name\":\"Priya\"}";
+        assertEquals("Priya", JsonFields.string(json, "name"));
+        assertNull(JsonFields.string(json, "n"));
+        assertNull(JsonFields.string(json, "flag"));
+        assertNull(JsonFields.string(json, "none"));
+        assertNull(JsonFields.string(json, "nested"));
+        assertNull(JsonFields.string(json, "missing"));
+    }
+
+    @Test
+    public void decodesEscapes() {
+        String json = "{ \"s\" : \"a\\\"b\\\\c\\/d\\n\\u00e9\\ud83d\\ude00\" }";
+        assertEquals("a\"b\\c/d\n\u00e9\ud83d\ude00", JsonFields.string(json, "s"));
+    }
+
+    @Test
+    public void malformedInputYieldsNull() {
+        assertNull(JsonFields.string(null, "a"));
+        assertNull(JsonFields.string("[]", "a"));
+        assertNull(JsonFields.string("{\"a\" \"b\"}", "a"));
+        assertNull(JsonFields.string("{\"a\":\"unterminated", "a"));
+        assertNull(JsonFields.string("{\"a\":\"\\u12\"}", "a"));
+    }
+}
@@ -0,0 +1,255 @@
+package com.synka.app.prefetch;
+
+import static org.junit.Assert.*;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ProfilePrefetcherTest {
+
+    private static final String API_KEY = "anon-key";
+    private static final byte[] AVATAR = {(byte) 0xFF, (byte) 0xD8, 1, 2, 3, 4};
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private String baseUrl;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final List<String> apiKeys = new CopyOnWriteArrayList<>();
+    private volatile String cardsBody = "[{\"id\":\"c1\",\"photo_url\":\"%AVATAR%\",\"is_default\":true}]";
+    private volatile CountDownLatch profileGate;
+    private volatile CountDownLatch avatarGate;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.createContext("/rest/v1/profiles", exchange -> {
+            record(exchange);
+            awaitGate();
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query.contains("slug=eq.priya")) {
+                respond(exchange, 200, ("[{\"id\":\"p1\",\"user_id\":\"u-1\",\"full_name\":\"Priya \\\"P\\\" Raman\","
+                    + "\"photo_url\":\"" + baseUrl + "/profile.jpg\",\"links\":{\"a\":[1,2]}}]")
+                    .getBytes(StandardCharsets.UTF_8));
+            } else {
+                respond(exchange, 200, "[]".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/rest/v1/cards", exchange -> {
+            record(exchange);
+            respond(exchange, 200, cardsBody.replace("%AVATAR%", baseUrl + "/card.jpg")
+                .getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/card.jpg", exchange -> {
+            record(exchange);
+            CountDownLatch gate = avatarGate;
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            respond(exchange, 200, AVATAR);
+        });
+        server.createContext("/profile.jpg", exchange -> {
+            record(exchange);
+            respond(exchange, 404, new byte[0]);
+        });
+        server.start();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void fetchesProfileCardAndAvatar() throws Exception {
+        ProfilePrefetcher prefetcher = new ProfilePrefetcher(baseUrl + "/", API_KEY, executor);
+        prefetcher.prefetch("priya");
+
+        ProfilePrefetcher.Result result = prefetcher.claim("priya", 5000);
+        assertNotNull(result);
+        assertEquals("priya", result.getSlug());
+        assertEquals("Priya \"P\" Raman", JsonFields.string(result.getProfileJson(), "full_name"));
+        assertEquals("c1", JsonFields.string(result.getCardJson(), "id"));
+        assertEquals(baseUrl + "/card.jpg", result.getAvatarUrl());
+        assertArrayEquals(AVATAR, result.getAvatar());
+
+        assertTrue(requests.get(0).startsWith("/rest/v1/profiles?select=*&slug=eq.priya"));
+        assertTrue(requests.get(1).startsWith("/rest/v1/cards?select=*&user_id=eq.u-1&is_default=eq.true"));
+        assertEquals(API_KEY, apiKeys.get(0));
+        assertEquals(API_KEY, apiKeys.get(1));
+    }
+
+    @Test
+    public void resultIsHandedOutOnce() throws Exception {
+        ProfilePrefetcher prefetcher = new ProfilePrefetcher(baseUrl, API_KEY, executor);
+        prefetcher.prefetch("priya");
+        assertNotNull(prefetcher.claim("priya", 5000));
+        assertNull(prefetcher.claim("priya", 5000));
+    }
+
+    @Test
+    public void repeatedPrefetchReusesTheRequestInFlight() throws Exception {
+        profileGate = new CountDownLatch(1);
+        ProfilePrefetcher prefetcher = new ProfilePrefetcher(baseUrl, API_KEY, executor);
+        prefetcher.prefetch("priya");
+        prefetcher.prefetch("priya");
+        profileGate.countDown();
+
+        assertNotNull(prefetcher.claim("priya", 5000));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, requests.stream().filter(path -> path.startsWith("/rest/v1/profiles")).count());
+    }
+
+    @Test
+    public void claimWaitsForARequestInFlight() throws Exception {
+        profileGate = new CountDownLatch(1);
+        ProfilePrefetcher prefetcher = new ProfilePrefetcher(baseUrl, API_KEY, executor);
+        prefetcher.prefetch("priya");
+        new Thread(() -> {
+            sleep(100);
+            profileGate.countDown();
+        }).start();
+        assertNotNull(prefetcher.claim("priya", 5000));
+    }
+
+    @Test
+    public void claimGivesUpAfterTheTimeout() throws Exception {
+        profileGate = new CountDownLatch(1);
+        ProfilePrefetcher prefetcher = new ProfilePrefetcher(baseUrl, API_KEY, executor);
+        prefetcher.prefetch("priya");
+        try {
+            assertNull(prefetcher.claim("priya", 50));
+        } finally {
+            profileGate.countDown();
+        }
+    }
+
+    @Test
+    public void slowAvatarDoesNotHoldBackTheRows() throws Exception {
+        avatarGate = new CountDownLatch(1);
+        ProfilePrefetcher prefetcher = new ProfilePrefetcher(baseUrl, API_KEY, executor);
+        prefetcher.prefetch("priya");
+        try {
+            ProfilePrefetcher.Result result = prefetcher.claim("priya", 500);
+            assertNotNull(result);
+            assertEquals("c1", JsonFields.string(result.getCardJson(), "id"));
+            assertEquals(baseUrl + "/card.jpg", result.getAvatarUrl());
+            assertNull(result.getAvatar());
+        } finally {
+            avatarGate.countDown();
+        }
+    }
+
+    @Test
+    public void expiredPrefetchIsDropped() throws Exception {
+        AtomicLong now = new AtomicLong();
+        ProfilePrefetcher prefetcher = new ProfilePrefetcher(baseUrl, API_KEY, executor, 1000, now::get);
+        prefetcher.prefetch("priya");
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001));
+        assertNull(prefetcher.claim("priya", 5000));
+    }
+
+    @Test
+    public void unknownSlugYieldsNothing() throws Exception {
+        ProfilePrefetcher prefetcher = new ProfilePrefetcher(baseUrl, API_KEY, executor);
+        prefetcher.prefetch("nobody");
+        assertNull(prefetcher.claim("nobody", 5000));
+        assertNull(prefetcher.claim("never-prefetched", 5000));
+    }
+
+    @Test
+    public void fallsBackToProfilePhotoAndToleratesItsFailure() throws Exception {
+        cardsBody = "[]";
+        ProfilePrefetcher prefetcher = new ProfilePrefetcher(baseUrl, API_KEY, executor);
+        prefetcher.prefetch("priya");
+
+        ProfilePrefetcher.Result result = prefetcher.claim("priya", 5000);
+        assertNotNull(result);
+        assertNull(result.getCardJson());
+        assertEquals(baseUrl + "/profile.jpg", result.getAvatarUrl());
+        assertNull(result.getAvatar());
+    }
+
+    @Test
+    public void ignoresSlugsThatAreNotProfileSlugs() throws Exception {
+        ProfilePrefetcher prefetcher = new ProfilePrefetcher(baseUrl, API_KEY, executor);
+        prefetcher.prefetch("priya&select=password");
+        prefetcher.prefetch(null);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(requests.isEmpty());
+    }
+
+    @Test
+    public void parsesProfileLinks() {
+        assertEquals("priya", ProfilePrefetcher.slugFromLink("https://synka.in/u/priya"));
+        assertEquals("priya", ProfilePrefetcher.slugFromLink("https://www.synka.in/u/priya/"));
+        assertEquals("priya-2", ProfilePrefetcher.slugFromLink("https://synka.in/u/priya-2?src=nfc"));
+        assertEquals("priya", ProfilePrefetcher.slugFromLink("synka://u/priya"));
+
+        assertNull(ProfilePrefetcher.slugFromLink(null));
+        assertNull(ProfilePrefetcher.slugFromLink("https://synka.in/dashboard"));
+        assertNull(ProfilePrefetcher.slugFromLink("https://synka.in/u/"));
+        assertNull(ProfilePrefetcher.slugFromLink("https://synka.in/u/priya/edit"));
+        assertNull(ProfilePrefetcher.slugFromLink("https://evil.example/u/priya"));
+        assertNull(ProfilePrefetcher.slugFromLink("http://synka.in/u/priya"));
+    }
+
+    private void record(HttpExchange exchange) {
+        requests.add(exchange.getRequestURI().toString());
+        String key = exchange.getRequestHeaders().getFirst("apikey");
+        if (key != null) {
+            apiKeys.add(key);
+        }
+    }
+
+    private void awaitGate() {
+        CountDownLatch gate = profileGate;
+        if (gate != null) {
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
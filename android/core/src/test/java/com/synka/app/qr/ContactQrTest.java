@@ -0,0 +1,75 @@
+package com.synka.app.qr;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ContactQrTest {
+
+    private static final ContactCard CARD = new ContactCard.Builder()
+        .setName("Priya Sharma")
+        .setTitle("Head of Partnerships")
+        .setCompany("Synka Technologies")
+        .setPhone("+91 98765 43210")
+        .setEmail("priya@synka.in")
+        .setWebsite("https://synka.in/u/priya")
+        .setAddress("4th Floor, Tower B, Cyber City, Gurugram, Haryana 122002")
+        .setNote("Met at the Bengaluru startup expo, follow up on bulk NFC cards")
+        .build();
+
+    @Test
+    public void escapesMeCardSpecialCharacters() {
+        ContactCard card = new ContactCard.Builder().setName("Doe; John").setCompany("A:B, Inc").build();
+        assertEquals("MECARD:N:Doe\\; John;ORG:A\\:B\\, Inc;;", ContactQr.format(card, ContactQr.Format.MECARD));
+    }
+
+    @Test
+    public void keepsEverythingAtStrongestLevelWhenRoomy() throws Exception {
+        ContactQr.Fitted fitted = ContactQr.fit(CARD, ContactQr.Format.MECARD, QrOptions.DEFAULT, 177);
+        assertEquals(ContactQr.format(CARD, ContactQr.Format.MECARD), fitted.getContent());
+        assertEquals(QrErrorCorrection.Q, fitted.getOptions().getErrorCorrection());
+    }
+
+    @Test
+    public void lowersLevelThenTrimsToFitTileBudget() throws Exception {
+        // 180px tile at 3px per module
+        ContactQr.Fitted fitted = ContactQr.fit(CARD, ContactQr.Format.MECARD, QrOptions.DEFAULT, 60);
+        assertTrue(fitted.getMatrix().getSize() <= 60);
+        assertTrue(fitted.getContent().contains("N:Priya Sharma;"));
+        assertTrue(fitted.getContent().contains("TEL:+91 98765 43210;"));
+        assertFalse(fitted.getContent().contains("Bengaluru"));
+    }
+
+    @Test
+    public void truncatesLongFields() throws Exception {
+        String longNote = new String(new char[200]).replace('\0', 'x');
+        ContactCard card = CARD.toBuilder().setNote(longNote).build();
+        String content = ContactQr.fit(card, ContactQr.Format.VCARD, QrOptions.DEFAULT, 177).getContent();
+        assertTrue(content.contains("NOTE:" + longNote.substring(0, ContactQr.MAX_FIELD_LENGTH) + "\r\n"));
+    }
+
+    @Test
+    public void vCardKeepsStructure() throws Exception {
+        ContactQr.Fitted fitted = ContactQr.fit(CARD, ContactQr.Format.VCARD, QrOptions.DEFAULT, 60);
+        assertTrue(fitted.getContent().startsWith(
+            "BEGIN:VCARD\r\nVERSION:3.0\r\nFN:Priya Sharma\r\nN:Sharma;Priya;;;\r\n"));
+        assertTrue(fitted.getContent().endsWith("END:VCARD\r\n"));
+        assertFalse(fitted.getContent().replace("\r\n", "").contains("\n"));
+    }
+
+    @Test
+    public void vCardEscapesNameAndAddressComponents() throws Exception {
+        ContactCard card = new ContactCard.Builder()
+            .setName("Ana; Maria de la Cruz")
+            .setAddress("12 MG Road; Bengaluru")
+            .build();
+        String content = ContactQr.fit(card, ContactQr.Format.VCARD, QrOptions.DEFAULT, 177).getContent();
+        assertTrue(content.contains("\r\nN:Cruz;Ana\\; Maria de la;;;\r\n"));
+        assertTrue(content.contains("\r\nADR:;;12 MG Road\\; Bengaluru\r\n"));
+    }
+
+    @Test(expected = com.google.zxing.WriterException.class)
+    public void failsWhenEssentialsDoNotFit() throws Exception {
+        ContactQr.fit(CARD, ContactQr.Format.VCARD, QrOptions.DEFAULT, 21);
+    }
+}
@@ -0,0 +1,22 @@
+package com.synka.app.qr;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class QrCacheKeyTest {
+
+    private static final String SLUG_URL = "https://synka.in/u/john-doe";
+
+    @Test
+    public void keyChangesWithEveryRenderParameter() {
+        QrOptions options = QrOptions.DEFAULT;
+        String key = QrCacheKey.of(SLUG_URL, 512, options);
+
+        assertEquals(key, QrCacheKey.of(SLUG_URL, 512, options.toBuilder().build()));
+        assertNotEquals(key, QrCacheKey.of(SLUG_URL + "x", 512, options));
+        assertNotEquals(key, QrCacheKey.of(SLUG_URL, 180, options));
+        assertNotEquals(key, QrCacheKey.of(SLUG_URL, 512, options.toBuilder().setMargin(2).build()));
+        assertNotEquals(key, QrCacheKey.of(SLUG_URL, 512, options.toBuilder().setForegroundColor(0xFF000000).build()));
+    }
+}
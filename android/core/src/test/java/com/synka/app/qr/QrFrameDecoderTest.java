@@ -0,0 +1,61 @@
+package com.synka.app.qr;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class QrFrameDecoderTest {
+
+    private static final String SLUG_URL = "https://synka.in/u/john-doe";
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    private static final int ROW_STRIDE = 704;
+
+    @Test
+    public void decodesCenteredCodeFromPaddedPlane() throws Exception {
+        byte[] plane = frameWithCode(SLUG_URL, (WIDTH - 240) / 2, (HEIGHT - 240) / 2, 240);
+
+        QrFrameDecoder.Decoded decoded = new QrFrameDecoder(0.7f).decode(plane, WIDTH, HEIGHT, ROW_STRIDE);
+
+        assertNotNull(decoded);
+        assertEquals(SLUG_URL, decoded.getText());
+        assertEquals("QR_CODE", decoded.getFormat());
+    }
+
+    @Test
+    public void ignoresCodeOutsideRegionOfInterest() throws Exception {
+        byte[] plane = frameWithCode(SLUG_URL, 0, 0, 120);
+
+        assertNull(new QrFrameDecoder(0.5f).decode(plane, WIDTH, HEIGHT, ROW_STRIDE));
+    }
+
+    @Test
+    public void decodesConsecutiveFramesWithOneInstance() throws Exception {
+        QrFrameDecoder decoder = new QrFrameDecoder(0.7f);
+        byte[] blank = new byte[ROW_STRIDE * HEIGHT];
+        Arrays.fill(blank, (byte) 0xFF);
+
+        assertNull(decoder.decode(blank, WIDTH, HEIGHT, ROW_STRIDE));
+        byte[] plane = frameWithCode("https://synka.in/card/abc", (WIDTH - 240) / 2, (HEIGHT - 240) / 2, 240);
+        assertEquals("https://synka.in/card/abc", decoder.decode(plane, WIDTH, HEIGHT, ROW_STRIDE).getText());
+    }
+
+    /** White luminance plane with a rasterized code drawn at (left, top). */
+    private static byte[] frameWithCode(String content, int left, int top, int size) throws Exception {
+        QrOptions options = QrOptions.DEFAULT.toBuilder().setMargin(4).build();
+        int[] pixels = QrRasterizer.rasterize(QrEncoder.encode(content, options), size, options, null);
+
+        byte[] plane = new byte[ROW_STRIDE * HEIGHT];
+        Arrays.fill(plane, (byte) 0xFF);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean dark = pixels[y * size + x] == options.getForegroundColor();
+                plane[(top + y) * ROW_STRIDE + left + x] = dark ? 0 : (byte) 0xFF;
+            }
+        }
+        return plane;
+    }
+}
@@ -0,0 +1,118 @@
+package com.synka.app.qr;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Compares renders of the real widget and tile payloads against checked-in
+ * PNGs, so any change to encoding or rasterization shows up as a test
+ * failure rather than on a device.
+ *
+ * After an intentional render change, regenerate the goldens with
+ * {@code ./gradlew :core:test -PupdateGoldens=true} and review the diff.
+ */
+public class QrGoldenImageTest {
+
+    private static final String SLUG_URL = "https://synka.in/u/john-doe";
+
+    private static final ContactCard CARD = new ContactCard.Builder()
+        .setName("Priya Raman")
+        .setTitle("Head of Partnerships")
+        .setCompany("Synka Technologies")
+        .setPhone("+91 98765 43210")
+        .setEmail("priya.raman@synka.in")
+        .setWebsite("https://synka.in/u/priya-raman")
+        .setAddress("12 MG Road, Bengaluru 560001")
+        .setNote("Met at NFC Expo")
+        .build();
+
+    private static final QrOptions BRANDED = QrOptions.DEFAULT.toBuilder()
+        .setForegroundColor(0xFF2B2D9E)
+        .setBackgroundColor(0x00000000)
+        .setMargin(2)
+        .build();
+
+    @Test
+    public void slugUrlAtTileSize() throws Exception {
+        assertMatchesGolden("slug_180", SLUG_URL, 180, QrOptions.DEFAULT);
+    }
+
+    @Test
+    public void slugUrlAtWidgetSize() throws Exception {
+        assertMatchesGolden("slug_512", SLUG_URL, 512, QrOptions.DEFAULT);
+    }
+
+    @Test
+    public void vCardAtTileSize() throws Exception {
+        assertMatchesGolden("vcard_180", ContactQr.format(CARD, ContactQr.Format.VCARD), 180, QrOptions.DEFAULT);
+    }
+
+    @Test
+    public void vCardAtWidgetSize() throws Exception {
+        assertMatchesGolden("vcard_512", ContactQr.format(CARD, ContactQr.Format.VCARD), 512, QrOptions.DEFAULT);
+    }
+
+    @Test
+    public void brandedColoursWithTransparency() throws Exception {
+        assertMatchesGolden("slug_branded_180", SLUG_URL, 180, BRANDED);
+    }
+
+    /** Checks both the raw raster and the PNG bytes the watch tile ships. */
+    private static void assertMatchesGolden(String name, String content, int size, QrOptions options)
+            throws Exception {
+        QrMatrix matrix = QrEncoder.encode(content, options);
+        int output = QrRasterizer.outputSize(matrix, size);
+        int[] pixels = QrRasterizer.rasterize(matrix, size, options, null);
+
+        if (Boolean.getBoolean("qr.updateGoldens")) {
+            writeGolden(name, pixels, output);
+            return;
+        }
+
+        BufferedImage golden = readGolden(name);
+        assertEquals(name + " width", golden.getWidth(), output);
+        assertEquals(name + " height", golden.getHeight(), output);
+        assertPixels(name + " raster", golden, pixels);
+
+        BufferedImage png = ImageIO.read(new ByteArrayInputStream(QrPng.encode(matrix, size, options)));
+        int[] pngPixels = png.getRGB(0, 0, output, output, null, 0, output);
+        assertPixels(name + " png", golden, pngPixels);
+    }
+
+    private static void assertPixels(String label, BufferedImage golden, int[] pixels) {
+        int size = golden.getWidth();
+        int[] expected = golden.getRGB(0, 0, size, size, null, 0, size);
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] != pixels[i]) {
+                fail(String.format("%s differs at (%d, %d): expected #%08X, got #%08X",
+                    label, i % size, i / size, expected[i], pixels[i]));
+            }
+        }
+    }
+
+    private static BufferedImage readGolden(String name) throws IOException {
+        try (InputStream in = QrGoldenImageTest.class.getResourceAsStream("/golden/" + name + ".png")) {
+            assertNotNull("Missing golden " + name + ".png; run with -PupdateGoldens=true", in);
+            return ImageIO.read(in);
+        }
+    }
+
+    private static void writeGolden(String name, int[] pixels, int size) throws IOException {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, size, size, pixels, 0, size);
+        File dir = new File(System.getProperty("qr.goldenDir", "src/test/resources/golden"));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        ImageIO.write(image, "png", new File(dir, name + ".png"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.synka.app.qr;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import javax.imageio.ImageIO;
+
+public class QrPngTest {
+
+    private static final String SLUG_URL = "https://synka.in/u/john-doe";
+
+    @Test
+    public void decodesToSamePixelsAsRasterizer() throws Exception {
+        QrOptions options = QrOptions.DEFAULT;
+        QrMatrix matrix = QrEncoder.encode(SLUG_URL, options);
+
+        for (int size : new int[] {180, 512}) {
+            byte[] png = QrPng.encode(matrix, size, options);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            int output = QrRasterizer.outputSize(matrix, size);
+            int[] pixels = QrRasterizer.rasterize(matrix, size, options, null);
+
+            assertEquals(output, image.getWidth());
+            assertEquals(output, image.getHeight());
+            for (int y = 0; y < output; y++) {
+                for (int x = 0; x < output; x++) {
+                    assertEquals(pixels[y * output + x], image.getRGB(x, y));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.synka.app.qr;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class QrPushMessageTest {
+
+    private static final String SLUG_URL = "https://synka.in/u/john-doe";
+
+    @Test
+    public void roundTripsHashAndMatrix() throws Exception {
+        QrMatrix matrix = QrEncoder.encode(SLUG_URL, QrOptions.DEFAULT);
+        String hash = QrCacheKey.of(SLUG_URL, QrOptions.DEFAULT);
+
+        QrPushMessage message = QrPushMessage.decode(QrPushMessage.encode(hash, matrix));
+
+        assertEquals(hash, message.getHash());
+        assertEquals(matrix.getSize(), message.getMatrix().getSize());
+        assertArrayEquals(matrix.toPackedBytes(), message.getMatrix().toPackedBytes());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedMessage() throws Exception {
+        QrMatrix matrix = QrEncoder.encode(SLUG_URL, QrOptions.DEFAULT);
+        byte[] encoded = QrPushMessage.encode("hash", matrix);
+        QrPushMessage.decode(Arrays.copyOf(encoded, encoded.length - 1));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnknownVersion() throws Exception {
+        QrMatrix matrix = QrEncoder.encode(SLUG_URL, QrOptions.DEFAULT);
+        byte[] encoded = QrPushMessage.encode("hash", matrix);
+        encoded[0] = 99;
+        QrPushMessage.decode(encoded);
+    }
+}
@@ -0,0 +1,81 @@
+package com.synka.app.qr;
+
+import static org.junit.Assert.*;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class QrRasterizerTest {
+
+    private static final String SLUG_URL = "https://synka.in/u/john-doe";
+
+    @Test
+    public void matchesQrCodeWriterAtWidgetAndTileSizes() throws Exception {
+        for (int size : new int[] {180, 512}) {
+            for (int margin : new int[] {0, 1, 4}) {
+                assertMatchesWriter(SLUG_URL, size, margin);
+            }
+        }
+    }
+
+    @Test
+    public void reusesLargeEnoughBuffer() throws Exception {
+        QrMatrix matrix = QrEncoder.encode(SLUG_URL, QrOptions.DEFAULT);
+        int[] buffer = new int[512 * 512];
+        assertSame(buffer, QrRasterizer.rasterize(matrix, 512, QrOptions.DEFAULT, buffer));
+        assertNotSame(buffer, QrRasterizer.rasterize(matrix, 600, QrOptions.DEFAULT, buffer));
+    }
+
+    @Test
+    public void neverRendersSmallerThanModuleGrid() throws Exception {
+        QrMatrix matrix = QrEncoder.encode(SLUG_URL, QrOptions.DEFAULT);
+        assertEquals(matrix.getSize(), QrRasterizer.outputSize(matrix, 1));
+    }
+
+    @Test
+    public void higherErrorCorrectionGrowsMatrix() throws Exception {
+        QrMatrix low = QrEncoder.encode(SLUG_URL, QrOptions.DEFAULT);
+        QrMatrix high = QrEncoder.encode(SLUG_URL,
+            QrOptions.DEFAULT.toBuilder().setErrorCorrection(QrErrorCorrection.H).build());
+        assertTrue(high.getSize() > low.getSize());
+    }
+
+    @Test
+    public void packedBytesRoundTrip() throws Exception {
+        QrMatrix matrix = QrEncoder.encode(SLUG_URL, QrOptions.DEFAULT);
+        byte[] packed = matrix.toPackedBytes();
+        assertEquals((matrix.getSize() * matrix.getSize() + 7) / 8, packed.length);
+
+        QrMatrix unpacked = QrMatrix.fromPackedBytes(matrix.getSize(), packed);
+        assertArrayEquals(
+            QrRasterizer.rasterize(matrix, 180, QrOptions.DEFAULT, null),
+            QrRasterizer.rasterize(unpacked, 180, QrOptions.DEFAULT, null));
+    }
+
+    private static void assertMatchesWriter(String content, int size, int margin) throws Exception {
+        Map<EncodeHintType, Object> hints = new HashMap<>();
+        hints.put(EncodeHintType.MARGIN, margin);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        BitMatrix expected = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, size, size, hints);
+
+        QrOptions options = QrOptions.DEFAULT.toBuilder().setMargin(margin).build();
+        QrMatrix matrix = QrEncoder.encode(content, options);
+        int output = QrRasterizer.outputSize(matrix, size);
+        int[] pixels = QrRasterizer.rasterize(matrix, size, options, null);
+
+        assertEquals(expected.getWidth(), output);
+        for (int y = 0; y < output; y++) {
+            for (int x = 0; x < output; x++) {
+                int want = expected.get(x, y) ? options.getForegroundColor() : options.getBackgroundColor();
+                assertEquals("pixel " + x + "," + y + " at " + size + "px", want, pixels[y * output + x]);
+            }
+        }
+    }
+}
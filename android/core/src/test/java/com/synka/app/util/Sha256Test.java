@@ -0,0 +1,18 @@
+package com.synka.app.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class Sha256Test {
+
+    @Test
+    public void hexMatchesTheKnownDigestTruncated() {
+        // FIPS 180-2 test vector for "abc"
+        assertEquals("ba7816bf8f01cfea414140de5dae2223", Sha256.hex("abc", 16));
+        assertEquals("ba7816bf", Sha256.hex("abc", 4));
+        assertEquals(
+            "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+            Sha256.hex("abc", 32));
+    }
+}
@@ -0,0 +1,42 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.synka.app.card.CardSnapshot;
+import com.synka.app.card.CardSnapshotStore;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Watch-side {@link CardSnapshotStore} holding the active card last sent by
+ * the phone, read by the tile and the QuickShare screen.
+ */
+final class CardSnapshots {
+
+    private static final String TAG = "CardSnapshots";
+    private static final String FILE_NAME = "card_snapshots.bin";
+
+    private static CardSnapshotStore store;
+
+    private CardSnapshots() {
+    }
+
+    static synchronized CardSnapshotStore get(Context context) {
+        if (store == null) {
+            store = new CardSnapshotStore(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+        }
+        return store;
+    }
+
+    /** Card to show on native surfaces, or {@code null} when none is stored or it is unreadable. */
+    static CardSnapshot active(Context context) {
+        try {
+            return get(context).read().getActive();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read card snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.gms.wearable.CapabilityClient;
+import com.google.android.gms.wearable.Node;
+import com.google.android.gms.wearable.Wearable;
+
+import java.util.Set;
+
+/**
+ * Asks the phone for the current QR over MessageClient. The reply arrives
+ * as a /synka/qr_push message in {@link WearDataListenerService}.
+ */
+final class PhoneQrChannel {
+
+    private static final String TAG = "PhoneQrChannel";
+    // Declared by the phone app in res/values/wear.xml
+    private static final String PHONE_CAPABILITY = "synka_phone";
+    private static final String QR_REQUEST_PATH = "/synka/qr_request";
+    // Tile requests can arrive in bursts; one outstanding pull is enough
+    private static final long MIN_INTERVAL_MS = 5000;
+
+    private static long lastRequestAt;
+
+    private PhoneQrChannel() {
+    }
+
+    static void requestQr(Context context) {
+        synchronized (PhoneQrChannel.class) {
+            long now = SystemClock.elapsedRealtime();
+            if (lastRequestAt != 0 && now - lastRequestAt < MIN_INTERVAL_MS) {
+                return;
+            }
+            lastRequestAt = now;
+        }
+
+        Context appContext = context.getApplicationContext();
+        Wearable.getCapabilityClient(appContext)
+            .getCapability(PHONE_CAPABILITY, CapabilityClient.FILTER_REACHABLE)
+            .addOnSuccessListener(info -> {
+                Node phone = pickNode(info.getNodes());
+                if (phone == null) {
+                    Log.d(TAG, "No reachable phone to ask for the QR");
+                    return;
+                }
+                Wearable.getMessageClient(appContext)
+                    .sendMessage(phone.getId(), QR_REQUEST_PATH, new byte[0])
+                    .addOnFailureListener(e -> Log.w(TAG, "QR request failed: " + e.getMessage()));
+            })
+            .addOnFailureListener(e -> Log.w(TAG, "Phone capability lookup failed: " + e.getMessage()));
+    }
+
+    /** Prefers a directly connected phone over one reached through the cloud. */
+    private static Node pickNode(Set<Node> nodes) {
+        Node best = null;
+        for (Node node : nodes) {
+            if (node.isNearby()) {
+                return node;
+            }
+            best = node;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,132 @@
+package com.synka.app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.synka.app.qr.QrCacheKey;
+import com.synka.app.qr.QrMatrix;
+import com.synka.app.qr.QrOptions;
+import com.synka.app.qr.QrPng;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Pre-rendered QR image for the tile.
+ *
+ * The phone encodes the QR and sends the packed module matrix; the PNG is
+ * rendered from it once when it arrives and persisted together with a
+ * resources version derived from the payload hash and render parameters.
+ * Tile and resource requests then only read stored bytes, and the tile
+ * renderer can keep its cached resources for as long as the version holds.
+ */
+final class QRTileResources {
+
+    static final int QR_SIZE = 180;
+
+    private static final String TAG = "QRTileResources";
+    private static final String PREFS_NAME = "SynkaWearPrefs";
+    private static final String PREF_RESOURCES_VERSION = "tile_resources_version";
+    private static final String PNG_FILE = "tile_qr.png";
+    private static final String EMPTY_VERSION = "empty";
+
+    private static String cachedVersion;
+    private static byte[] cachedPng;
+
+    private QRTileResources() {
+    }
+
+    /** Whether the stored render already matches the phone's payload hash. */
+    static boolean isCurrent(Context context, String payloadHash) {
+        return versionFor(payloadHash).equals(getVersion(context));
+    }
+
+    /**
+     * Renders and persists the phone-encoded {@code matrix}. Does nothing when
+     * the stored render already matches.
+     */
+    static synchronized void render(Context context, String payloadHash, QrMatrix matrix) {
+        String version = versionFor(payloadHash);
+        if (version.equals(getVersion(context)) && getPngFile(context).isFile()) {
+            return;
+        }
+
+        byte[] png = QrPng.encode(matrix, QR_SIZE, QrOptions.DEFAULT);
+        if (!write(getPngFile(context), png)) {
+            return;
+        }
+        prefs(context).edit().putString(PREF_RESOURCES_VERSION, version).commit();
+        cachedVersion = version;
+        cachedPng = png;
+    }
+
+    /** Whether a QR has been rendered at all. */
+    static boolean hasRender(Context context) {
+        return !EMPTY_VERSION.equals(getVersion(context));
+    }
+
+    /** Version of the stored render, or a fixed placeholder version when there is none. */
+    static synchronized String getVersion(Context context) {
+        if (cachedVersion == null) {
+            cachedVersion = prefs(context).getString(PREF_RESOURCES_VERSION, EMPTY_VERSION);
+        }
+        return cachedVersion;
+    }
+
+    /** Stored PNG bytes, or {@code null} when nothing has been rendered yet. */
+    static synchronized byte[] getPng(Context context) {
+        if (cachedPng == null) {
+            cachedPng = read(getPngFile(context));
+        }
+        return cachedPng;
+    }
+
+    private static String versionFor(String payloadHash) {
+        return QrCacheKey.of(payloadHash, QR_SIZE, QrOptions.DEFAULT);
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    private static File getPngFile(Context context) {
+        return new File(context.getFilesDir(), PNG_FILE);
+    }
+
+    private static boolean write(File file, byte[] png) {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(png);
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write tile QR: " + e.getMessage());
+            tmp.delete();
+            return false;
+        }
+        return tmp.renameTo(file);
+    }
+
+    private static byte[] read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        byte[] data = new byte[(int) file.length()];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int offset = 0;
+            while (offset < data.length) {
+                int read = in.read(data, offset, data.length - offset);
+                if (read < 0) {
+                    return null;
+                }
+                offset += read;
+            }
+            return data;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read tile QR: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package com.synka.app;
 
 import android.content.Context;
-import android.content.SharedPreferences;
-import android.graphics.Bitmap;
 
 import androidx.annotation.NonNull;
 import androidx.wear.protolayout.ActionBuilders;
@@ -16,38 +14,41 @@ import androidx.wear.protolayout.TimelineBuilders;
 import androidx.wear.protolayout.material.Colors;
 import androidx.wear.protolayout.material.Text;
 import androidx.wear.protolayout.material.layouts.PrimaryLayout;
+import androidx.wear.tiles.EventBuilders;
 import androidx.wear.tiles.RequestBuilders;
 import androidx.wear.tiles.TileBuilders;
 import androidx.wear.tiles.TileService;
 
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.EncodeHintType;
-import com.google.zxing.WriterException;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
-
-import java.io.ByteArrayOutputStream;
-import java.util.HashMap;
-import java.util.Map;
+import com.synka.app.card.CardSnapshot;
 
 public class QRTileService extends TileService {
     
-    private static final String PREFS_NAME = "SynkaWearPrefs";
-    private static final String PREF_PROFILE_SLUG = "profile_slug";
-    private static final String BASE_URL = "https://synka.in/u/";
     private static final String RESOURCE_QR_CODE = "qr_code_image";
-    private static final int QR_SIZE = 180;
+    private static final int QR_SIZE = QRTileResources.QR_SIZE;
+    // Leaves room for one line of name text on the smallest round screens
+    private static final int LABELLED_QR_SIZE_DP = 150;
+
+    @Override
+    protected void onTileAddEvent(@NonNull EventBuilders.TileAddEvent requestParams) {
+        // Fresh tile: fetch the current QR now rather than waiting for Data Layer sync
+        PhoneQrChannel.requestQr(this);
+    }
 
     @NonNull
     @Override
     protected ListenableFuture<TileBuilders.Tile> onTileRequest(
             @NonNull RequestBuilders.TileRequest requestParams) {
-        
+
+        if (!QRTileResources.hasRender(this)) {
+            // Placeholder for now; the reply re-renders the tile
+            PhoneQrChannel.requestQr(this);
+        }
+
         return Futures.immediateFuture(
             new TileBuilders.Tile.Builder()
-                .setResourcesVersion("1")
+                .setResourcesVersion(QRTileResources.getVersion(this))
                 .setFreshnessIntervalMillis(1800000) // 30 minutes
                 .setTileTimeline(
                     new TimelineBuilders.Timeline.Builder()
@@ -71,33 +72,24 @@ public class QRTileService extends TileService {
     protected ListenableFuture<ResourceBuilders.Resources> onTileResourcesRequest(
             @NonNull RequestBuilders.ResourcesRequest requestParams) {
         
+        byte[] qrPng = QRTileResources.getPng(this);
         ResourceBuilders.Resources.Builder resourcesBuilder = new ResourceBuilders.Resources.Builder()
-            .setVersion("1");
-        
-        String profileSlug = getProfileSlug();
-        if (profileSlug != null && !profileSlug.isEmpty()) {
-            try {
-                Bitmap qrBitmap = generateQRCode(BASE_URL + profileSlug, QR_SIZE);
-                ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                qrBitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
-                byte[] byteArray = stream.toByteArray();
-                
-                resourcesBuilder.addIdToImageMapping(
-                    RESOURCE_QR_CODE,
-                    new ResourceBuilders.ImageResource.Builder()
-                        .setInlineResource(
-                            new ResourceBuilders.InlineImageResource.Builder()
-                                .setData(byteArray)
-                                .setWidthPx(QR_SIZE)
-                                .setHeightPx(QR_SIZE)
-                                .setFormat(ResourceBuilders.IMAGE_FORMAT_PNG)
-                                .build()
-                        )
-                        .build()
-                );
-            } catch (WriterException e) {
-                e.printStackTrace();
-            }
+            .setVersion(QRTileResources.getVersion(this));
+
+        if (qrPng != null) {
+            resourcesBuilder.addIdToImageMapping(
+                RESOURCE_QR_CODE,
+                new ResourceBuilders.ImageResource.Builder()
+                    .setInlineResource(
+                        new ResourceBuilders.InlineImageResource.Builder()
+                            .setData(qrPng)
+                            .setWidthPx(QR_SIZE)
+                            .setHeightPx(QR_SIZE)
+                            .setFormat(ResourceBuilders.IMAGE_FORMAT_PNG)
+                            .build()
+                    )
+                    .build()
+            );
         }
         
         return Futures.immediateFuture(resourcesBuilder.build());
@@ -106,9 +98,8 @@ public class QRTileService extends TileService {
     private LayoutElementBuilders.LayoutElement createLayout(
             DeviceParametersBuilders.DeviceParameters deviceParameters) {
         
-        String profileSlug = getProfileSlug();
-        
-        if (profileSlug != null && !profileSlug.isEmpty()) {
+        // The QR is only available once the phone has sent its encoded matrix
+        if (QRTileResources.hasRender(this)) {
             // Show QR code
             return new LayoutElementBuilders.Box.Builder()
                 .setWidth(DimensionBuilders.expand())
@@ -127,7 +118,7 @@ public class QRTileService extends TileService {
                                         .setAndroidActivity(
                                             new ActionBuilders.AndroidActivity.Builder()
                                                 .setPackageName(getPackageName())
-                                                .setClassName("com.synka.app.MainActivity")
+                                                .setClassName(QuickShareActivity.class.getName())
                                                 .build()
                                         )
                                         .build()
@@ -136,13 +127,7 @@ public class QRTileService extends TileService {
                         )
                         .build()
                 )
-                .addContent(
-                    new LayoutElementBuilders.Image.Builder()
-                        .setResourceId(RESOURCE_QR_CODE)
-                        .setWidth(DimensionBuilders.dp(QR_SIZE))
-                        .setHeight(DimensionBuilders.dp(QR_SIZE))
-                        .build()
-                )
+                .addContent(createQrContent())
                 .build();
         } else {
             // Show placeholder
@@ -163,7 +148,7 @@ public class QRTileService extends TileService {
                                         .setAndroidActivity(
                                             new ActionBuilders.AndroidActivity.Builder()
                                                 .setPackageName(getPackageName())
-                                                .setClassName("com.synka.app.MainActivity")
+                                                .setClassName(QuickShareActivity.class.getName())
                                                 .build()
                                         )
                                         .build()
@@ -203,40 +188,44 @@ public class QRTileService extends TileService {
         }
     }
 
-    private String getProfileSlug() {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        return prefs.getString(PREF_PROFILE_SLUG, null);
-    }
-
-    private Bitmap generateQRCode(String content, int size) throws WriterException {
-        Map<EncodeHintType, Object> hints = new HashMap<>();
-        hints.put(EncodeHintType.MARGIN, 1);
-        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-
-        QRCodeWriter writer = new QRCodeWriter();
-        BitMatrix bitMatrix = writer.encode(content, BarcodeFormat.QR_CODE, size, size, hints);
-
-        int width = bitMatrix.getWidth();
-        int height = bitMatrix.getHeight();
-        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                bitmap.setPixel(x, y, bitMatrix.get(x, y) ? 0xFF1C1C1E : 0xFFFFFFFF);
-            }
+    /** The QR alone, or the QR with the card's name under it when the phone has sent one. */
+    private LayoutElementBuilders.LayoutElement createQrContent() {
+        CardSnapshot card = CardSnapshots.active(this);
+        if (card == null || card.getName() == null) {
+            return new LayoutElementBuilders.Image.Builder()
+                .setResourceId(RESOURCE_QR_CODE)
+                .setWidth(DimensionBuilders.dp(QR_SIZE))
+                .setHeight(DimensionBuilders.dp(QR_SIZE))
+                .build();
         }
-
-        return bitmap;
+        return new LayoutElementBuilders.Column.Builder()
+            .setHorizontalAlignment(LayoutElementBuilders.HORIZONTAL_ALIGN_CENTER)
+            .addContent(
+                new LayoutElementBuilders.Image.Builder()
+                    .setResourceId(RESOURCE_QR_CODE)
+                    .setWidth(DimensionBuilders.dp(LABELLED_QR_SIZE_DP))
+                    .setHeight(DimensionBuilders.dp(LABELLED_QR_SIZE_DP))
+                    .build()
+            )
+            .addContent(
+                new LayoutElementBuilders.Text.Builder()
+                    .setText(card.getName())
+                    .setMaxLines(1)
+                    .setFontStyle(
+                        new LayoutElementBuilders.FontStyle.Builder()
+                            .setColor(ColorBuilders.argb(0xFF1C1C1E))
+                            .setSize(DimensionBuilders.sp(12))
+                            .build()
+                    )
+                    .build()
+            )
+            .build();
     }
 
     /**
-     * Update the tile with new profile data
+     * Ask the system to refresh the tile after new QR data was stored
      */
-    public static void updateTile(Context context, String profileSlug) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        prefs.edit().putString(PREF_PROFILE_SLUG, profileSlug).apply();
-        
-        // Request tile update
+    public static void requestUpdate(Context context) {
         TileService.getUpdater(context).requestUpdate(QRTileService.class);
     }
 }
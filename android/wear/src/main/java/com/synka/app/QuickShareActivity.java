@@ -0,0 +1,105 @@
+package com.synka.app;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.BitmapDrawable;
+import android.net.Uri;
+import android.os.Bundle;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.wear.remote.interactions.RemoteActivityHelper;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Full-screen QR opened from the tile.
+ *
+ * Shows the PNG already rendered for the tile by {@link QRTileResources}, so
+ * opening it never waits on the phone. The "Open on phone" action hands off
+ * to the phone app through its synka:// deep link.
+ */
+public class QuickShareActivity extends Activity {
+
+    private static final String TAG = "QuickShareActivity";
+    private static final Uri PHONE_APP_URI = Uri.parse("synka://");
+
+    // Side of the largest square that fits a round screen, with a little margin
+    private static final float QR_FRACTION = 0.68f;
+
+    // Shared by every instance: the remote-activity callback outlives finish()
+    private static final Executor EXECUTOR = Executors.newSingleThreadExecutor();
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_quick_share);
+
+        WindowManager.LayoutParams attributes = getWindow().getAttributes();
+        attributes.screenBrightness = WindowManager.LayoutParams.BRIGHTNESS_OVERRIDE_FULL;
+        getWindow().setAttributes(attributes);
+        getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
+
+        findViewById(R.id.quick_share_open).setOnClickListener(v -> openOnPhone());
+
+        // Reading and decoding the PNG stays off the main thread
+        EXECUTOR.execute(() -> {
+            byte[] png = QRTileResources.getPng(this);
+            Bitmap qr = png != null ? BitmapFactory.decodeByteArray(png, 0, png.length) : null;
+            runOnUiThread(() -> {
+                if (!isDestroyed()) {
+                    show(qr);
+                }
+            });
+        });
+    }
+
+    private void show(Bitmap qr) {
+        if (qr == null) {
+            // Nothing synced yet; the phone's reply renders the tile for next time
+            PhoneQrChannel.requestQr(this);
+            findViewById(R.id.quick_share_placeholder).setVisibility(View.VISIBLE);
+            return;
+        }
+
+        DisplayMetrics metrics = getResources().getDisplayMetrics();
+        ImageView image = findViewById(R.id.quick_share_qr);
+        ViewGroup.LayoutParams params = image.getLayoutParams();
+        params.width = params.height = (int) (Math.min(metrics.widthPixels, metrics.heightPixels) * QR_FRACTION);
+        image.setLayoutParams(params);
+
+        // Nearest-neighbour scaling keeps module edges sharp for the scanner
+        BitmapDrawable drawable = new BitmapDrawable(getResources(), qr);
+        drawable.setFilterBitmap(false);
+        image.setImageDrawable(drawable);
+        image.setVisibility(View.VISIBLE);
+    }
+
+    private void openOnPhone() {
+        Intent intent = new Intent(Intent.ACTION_VIEW, PHONE_APP_URI)
+            .addCategory(Intent.CATEGORY_BROWSABLE);
+        Futures.addCallback(new RemoteActivityHelper(this, EXECUTOR).startRemoteActivity(intent, null),
+            new FutureCallback<Void>() {
+                @Override
+                public void onSuccess(Void result) {
+                }
+
+                @Override
+                public void onFailure(@NonNull Throwable t) {
+                    Log.w(TAG, "Could not open the phone app: " + t.getMessage());
+                }
+            }, EXECUTOR);
+        finish();
+    }
+}
@@ -1,18 +1,29 @@
 package com.synka.app;
 
-import android.content.Context;
-import android.content.SharedPreferences;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.google.android.gms.tasks.Tasks;
+import com.google.android.gms.wearable.Asset;
 import com.google.android.gms.wearable.DataClient;
 import com.google.android.gms.wearable.DataEvent;
 import com.google.android.gms.wearable.DataEventBuffer;
 import com.google.android.gms.wearable.DataItem;
 import com.google.android.gms.wearable.DataMap;
 import com.google.android.gms.wearable.DataMapItem;
+import com.google.android.gms.wearable.MessageEvent;
+import com.google.android.gms.wearable.Wearable;
 import com.google.android.gms.wearable.WearableListenerService;
+import com.synka.app.card.CardSnapshot;
+import com.synka.app.card.CardSnapshotStore;
+import com.synka.app.qr.QrMatrix;
+import com.synka.app.qr.QrPushMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Listens for data changes from the phone app and updates the watch tile
@@ -22,7 +33,13 @@ public class WearDataListenerService extends WearableListenerService {
     private static final String TAG = "WearDataListener";
     private static final String PROFILE_SLUG_PATH = "/synka/profile_slug";
     private static final String KEY_PROFILE_SLUG = "profile_slug";
-    private static final String PREFS_NAME = "SynkaWearPrefs";
+    private static final String KEY_QR_MATRIX = "qr_matrix";
+    private static final String KEY_QR_SIZE = "qr_size";
+    private static final String KEY_QR_HASH = "qr_hash";
+    private static final String KEY_CARD = "card";
+    private static final String KEY_CARD_HASH = "card_hash";
+    private static final String QR_ACK_PATH = "/synka/qr_ack";
+    private static final String QR_PUSH_PATH = "/synka/qr_push";
 
     @Override
     public void onDataChanged(@NonNull DataEventBuffer dataEvents) {
@@ -40,16 +57,124 @@ public class WearDataListenerService extends WearableListenerService {
                     
                     if (profileSlug != null) {
                         Log.d(TAG, "Received profile slug: " + profileSlug);
-                        saveProfileSlug(profileSlug);
-                        QRTileService.updateTile(this, profileSlug);
                     }
+                    storeCard(dataMap);
+                    // Render once here so tile requests only read stored bytes. The
+                    // matrix may be an offline contact card rather than the profile URL.
+                    if (renderQrMatrix(dataMap)) {
+                        acknowledge(item.getUri().getHost(), dataMap.getString(KEY_QR_HASH));
+                    }
+                    QRTileService.requestUpdate(this);
                 }
             }
         }
     }
 
-    private void saveProfileSlug(String slug) {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        prefs.edit().putString(KEY_PROFILE_SLUG, slug).apply();
+    /**
+     * Direct pushes from the phone, either after a profile change or in reply
+     * to {@link PhoneQrChannel#requestQr}. Usually lands before the DataItem.
+     */
+    @Override
+    public void onMessageReceived(@NonNull MessageEvent messageEvent) {
+        if (!QR_PUSH_PATH.equals(messageEvent.getPath())) {
+            return;
+        }
+        QrPushMessage message;
+        try {
+            message = QrPushMessage.decode(messageEvent.getData());
+        } catch (IOException e) {
+            Log.w(TAG, "Ignoring malformed QR push: " + e.getMessage());
+            return;
+        }
+        if (!QRTileResources.isCurrent(this, message.getHash())) {
+            QRTileResources.render(this, message.getHash(), message.getMatrix());
+            QRTileService.requestUpdate(this);
+        }
+        acknowledge(messageEvent.getSourceNodeId(), message.getHash());
+    }
+
+    /**
+     * Unpacks the phone-encoded QR matrix into the tile image. The asset is
+     * only fetched when its hash differs from what is already rendered.
+     * Returns whether the tile now shows this payload.
+     */
+    private boolean renderQrMatrix(DataMap dataMap) {
+        String hash = dataMap.getString(KEY_QR_HASH);
+        Asset asset = dataMap.getAsset(KEY_QR_MATRIX);
+        int size = dataMap.getInt(KEY_QR_SIZE);
+        if (hash == null || asset == null || size <= 0) {
+            Log.w(TAG, "Profile update has no QR matrix; phone app needs updating");
+            return false;
+        }
+        if (QRTileResources.isCurrent(this, hash)) {
+            return true;
+        }
+
+        try {
+            byte[] packed = readAsset(asset);
+            QRTileResources.render(this, hash, QrMatrix.fromPackedBytes(size, packed));
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to read QR matrix", e);
+            return false;
+        }
+    }
+
+    /**
+     * Replaces the stored card with the phone's active one. The asset is only
+     * fetched when its hash differs from the stored card's.
+     */
+    private void storeCard(DataMap dataMap) {
+        String hash = dataMap.getString(KEY_CARD_HASH);
+        Asset asset = dataMap.getAsset(KEY_CARD);
+        if (hash == null || asset == null) {
+            return;
+        }
+        CardSnapshot current = CardSnapshots.active(this);
+        if (current != null && hash.equals(current.getHash())) {
+            return;
+        }
+
+        try {
+            CardSnapshot card = CardSnapshot.fromBytes(readAsset(asset));
+            CardSnapshotStore store = CardSnapshots.get(this);
+            store.put(card, true);
+            // The watch only ever shows the phone's active card
+            for (CardSnapshot other : store.read().getCards()) {
+                if (!other.getId().equals(card.getId())) {
+                    store.remove(other.getId());
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to store card snapshot", e);
+        }
+    }
+
+    private byte[] readAsset(Asset asset) throws Exception {
+        DataClient.GetFdForAssetResponse response =
+            Tasks.await(Wearable.getDataClient(this).getFdForAsset(asset));
+        try (InputStream in = response.getInputStream()) {
+            return readAll(in);
+        }
+    }
+
+    /** Tells the sending phone the tile is current, so it can measure the round trip. */
+    private void acknowledge(String phoneNodeId, String hash) {
+        if (phoneNodeId == null || hash == null) {
+            return;
+        }
+        Wearable.getMessageClient(this)
+            .sendMessage(phoneNodeId, QR_ACK_PATH, hash.getBytes(StandardCharsets.UTF_8))
+            .addOnFailureListener(e -> Log.w(TAG, "Failed to acknowledge QR: " + e.getMessage()));
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
     }
 }
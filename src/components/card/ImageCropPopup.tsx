@@ -3,12 +3,16 @@ import { Dialog, DialogContent, DialogHeader, DialogTitle } from '@/components/u
 import { Button } from '@/components/ui/button';
 import { RotateCcw, Focus, Loader2 } from 'lucide-react';
 import { detectFacePosition } from '@/lib/faceDetection';
+import ImageCrop, { AVATAR_THUMBNAIL_SIZE, hasNativeImageCrop, readOutput } from '@/lib/imageCrop';
 
 interface ImageCropPopupProps {
   open: boolean;
   imageFile: File;
+  /** Native file path of imageFile; when set on Android the crop runs natively */
+  sourcePath?: string;
   onClose: () => void;
-  onSave: (blob: Blob) => void;
+  /** thumbnailPath is a small native copy for the widget and watch, native crops only */
+  onSave: (blob: Blob, thumbnailPath?: string) => void;
 }
 
 const OUTPUT = 512;
@@ -17,6 +21,7 @@ const MAX_ZOOM = 3;
 export default function ImageCropPopup({
   open,
   imageFile,
+  sourcePath,
   onClose,
   onSave,
 }: ImageCropPopupProps) {
@@ -257,7 +262,7 @@ export default function ImageCropPopup({
   };
 
   // Save cropped image
-  const handleSave = () => {
+  const handleSave = async () => {
     const img = imgRef.current;
     const dims = getDimensions();
     if (!img || !dims) return;
@@ -279,6 +284,29 @@ export default function ImageCropPopup({
     const srcX = visibleLeft / scale;
     const srcY = visibleTop / scale;
     const srcSize = containerSize / scale;
+
+    if (sourcePath && hasNativeImageCrop()) {
+      // Region decode off the WebView; the full-size photo never hits a canvas
+      try {
+        const { outputs } = await ImageCrop.process({
+          path: sourcePath,
+          crop: {
+            left: srcX / imgW,
+            top: srcY / imgH,
+            right: (srcX + srcSize) / imgW,
+            bottom: (srcY + srcSize) / imgH,
+          },
+          outputs: [
+            { size: OUTPUT, format: 'jpeg', quality: 85 },
+            { size: AVATAR_THUMBNAIL_SIZE, format: 'jpeg', quality: 80 },
+          ],
+        });
+        onSave(await readOutput(outputs[0]), outputs[1].path);
+        return;
+      } catch (error) {
+        console.warn('[ImageCrop] Native crop failed, using canvas:', error);
+      }
+    }
     
     const canvas = document.createElement('canvas');
     canvas.width = OUTPUT;
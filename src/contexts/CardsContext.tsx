@@ -2,6 +2,23 @@ import { createContext, useContext, useState, useEffect, useCallback, useRef, Re
 import { supabase } from '@/integrations/supabase/client';
 import { useAuth } from '@/hooks/useAuth';
 import { persistForOffline, getOfflineData, isOnline } from '@/lib/offlineSync';
+import { claimPrefetchedProfile } from '@/lib/profilePrefetch';
+import { Capacitor } from '@capacitor/core';
+import WidgetBridge from '@/lib/widgetBridge';
+
+// Native card snapshots are keyed by cards row id, and the default card is
+// the one the widget, QuickShare and watch show. Unchanged fields cost nothing.
+const syncCardSnapshot = (card: Card) => {
+  if (Capacitor.getPlatform() !== 'android' || !card.is_default) return;
+  WidgetBridge.updateCardSnapshot({
+    id: card.id,
+    name: card.full_name,
+    title: card.designation || card.title,
+    company: card.company,
+    avatarUrl: card.photo_url,
+    active: true,
+  }).catch(err => console.log('[Cards] Card snapshot update skipped:', err));
+};
 
 // Generate default signature HTML from card data
 const generateDefaultSignatureHtml = (card: Card): string => {
@@ -206,6 +223,7 @@ export function CardsProvider({ children }: { children: ReactNode }) {
     // Cache ONLY real data (when default card exists and is ready)
     if (!shouldRetryBootstrap && defaultCard) {
       setCachedCards(user.id, fetchedCards, defaultCard);
+      syncCardSnapshot(defaultCard);
     }
 
     if (shouldRetryBootstrap && bootstrapRetryCountRef.current < 10) {
@@ -316,6 +334,7 @@ export function CardsProvider({ children }: { children: ReactNode }) {
   if (error) return { error: error.message };
 
   const updatedCard = data as Card;
+  syncCardSnapshot(updatedCard);
 
   // ✅ STEP 1: prepare updated cards list
   const nextCards = cards.map(c =>
@@ -356,6 +375,10 @@ export function CardsProvider({ children }: { children: ReactNode }) {
 
     const remaining = cards.filter(c => c.id !== cardId);
     setCards(remaining);
+    if (Capacitor.getPlatform() === 'android') {
+      WidgetBridge.removeCardSnapshot({ id: cardId })
+        .catch(err => console.log('[Cards] Card snapshot removal skipped:', err));
+    }
 
     // If we deleted the default card, make another one default and set it active
     if (cardToDelete?.is_default && remaining.length > 0) {
@@ -389,6 +412,7 @@ export function CardsProvider({ children }: { children: ReactNode }) {
     if (error || !data) return { error: error?.message };
 
     const updatedDefault = data as Card;
+    syncCardSnapshot(updatedDefault);
 
     // ✅ CRITICAL FIX: Calculate nextCards BEFORE state update to avoid stale references
     const nextCards = cards.map(c => ({
@@ -472,13 +496,20 @@ export async function getDefaultCardBySlug(slug: string, userId?: string): Promi
 export async function getPublicCardData(slug: string): Promise<{
   profile: import('@/hooks/useProfile').Profile & import('@/hooks/useProfile').ProfileCompat | null;
   card: Card | null;
+  /** Local copy of the photo when the app prefetched it, keyed by its URL */
+  prefetchedAvatar?: { url: string; src: string };
 }> {
+  // Android App Link cold start: the app may already have fetched this profile
+  const prefetched = await claimPrefetchedProfile(slug);
+
   // Single query to get profile
-  const { data: profileData, error: profileError } = await supabase
-    .from('profiles')
-    .select('*')
-    .eq('slug', slug)
-    .maybeSingle();
+  const { data: profileData, error: profileError } = prefetched
+    ? { data: prefetched.profile, error: null }
+    : await supabase
+      .from('profiles')
+      .select('*')
+      .eq('slug', slug)
+      .maybeSingle();
 
   if (profileError || !profileData) {
     return { profile: null, card: null };
@@ -502,6 +533,16 @@ export async function getPublicCardData(slug: string): Promise<{
     public_slug: profileData.slug || '',
   } as import('@/hooks/useProfile').Profile & import('@/hooks/useProfile').ProfileCompat;
 
+  if (prefetched) {
+    return {
+      profile,
+      card: prefetched.card as Card | null,
+      prefetchedAvatar: prefetched.avatarUrl && prefetched.avatarSrc
+        ? { url: prefetched.avatarUrl, src: prefetched.avatarSrc }
+        : undefined,
+    };
+  }
+
   // Get default card in parallel with profile mapping
   const { data: cardData } = await supabase
     .from('cards')
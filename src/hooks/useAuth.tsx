@@ -3,6 +3,7 @@ import { useState, useEffect, createContext, useContext, ReactNode } from 'react
 import { User, Session } from '@supabase/supabase-js';
 import { Capacitor } from '@capacitor/core';
 import { supabase } from '@/integrations/supabase/client';
+import WidgetBridge from '@/lib/widgetBridge';
 
 interface AuthContextType {
   user: User | null;
@@ -28,6 +29,13 @@ interface AuthContextType {
 
 const AuthContext = createContext<AuthContextType | undefined>(undefined);
 
+// The native image cache holds signed storage objects; it must not outlive the user it was filled for
+const syncImageCacheOwner = (userId: string | null) => {
+  if (Capacitor.getPlatform() !== 'android') return;
+  WidgetBridge.setImageCacheOwner(userId ? { userId } : {})
+    .catch((error) => console.log('[Auth] Image cache owner sync skipped:', error));
+};
+
 export function AuthProvider({ children }: { children: ReactNode }) {
   const [user, setUser] = useState<User | null>(null);
   const [session, setSession] = useState<Session | null>(null);
@@ -150,6 +158,7 @@ export function AuthProvider({ children }: { children: ReactNode }) {
       } = supabase.auth.onAuthStateChange((_event, session) => {
         setSession(session);
         setUser(session?.user ?? null);
+        syncImageCacheOwner(session?.user?.id ?? null);
         setLoading(false);
 
         if (session?.user) {
@@ -160,6 +169,7 @@ export function AuthProvider({ children }: { children: ReactNode }) {
       supabase.auth.getSession().then(({ data: { session } }) => {
         setSession(session);
         setUser(session?.user ?? null);
+        syncImageCacheOwner(session?.user?.id ?? null);
         setLoading(false);
 
         if (session?.user) {
@@ -3,6 +3,12 @@ import { supabase } from '@/integrations/supabase/client';
 import { useAuth } from './useAuth';
 import { persistForOffline, getOfflineData } from '@/lib/offlineSync';
 import { normalizeCRMContact } from '@/lib/inputValidation';
+import {
+  hasNativeContactStore,
+  getContactSyncCursor,
+  applyContactDelta,
+  loadStoredContacts,
+} from '@/lib/contactStore';
 
 export interface Contact {
   id: string;
@@ -70,21 +76,141 @@ const setCachedContacts = (userId: string, data: Contact[]) => {
   }
 };
 
+// Attach each contact's tags and events
+const withTagsAndEvents = async (contactsData: any[]): Promise<Contact[]> => {
+  const contactIds = contactsData.map(c => c.id);
+  if (contactIds.length === 0) return [];
+
+  const { data: contactTagsData } = await supabase
+    .from('contact_tags')
+    .select('contact_id, tag_id, tags(id, name, color)')
+    .in('contact_id', contactIds);
+
+  const { data: contactEventsData } = await supabase
+    .from('contact_events')
+    .select('contact_id, event_id, events(id, title, start_time, end_time)')
+    .in('contact_id', contactIds);
+
+  const contactTagsMap: Record<string, any[]> = {};
+  const contactEventsMap: Record<string, any[]> = {};
+
+  (contactTagsData || []).forEach((ct: any) => {
+    if (!contactTagsMap[ct.contact_id]) contactTagsMap[ct.contact_id] = [];
+    if (ct.tags) contactTagsMap[ct.contact_id].push(ct.tags);
+  });
+
+  (contactEventsData || []).forEach((ce: any) => {
+    if (!contactEventsMap[ce.contact_id]) contactEventsMap[ce.contact_id] = [];
+    if (ce.events) contactEventsMap[ce.contact_id].push(ce.events);
+  });
+
+  return contactsData.map(contact => ({
+    ...contact,
+    tags: contactTagsMap[contact.id] || [],
+    events: contactEventsMap[contact.id] || [],
+  })) as Contact[];
+};
+
+/** Rows per request; PostgREST caps responses at 1000 rows by default. */
+const SYNC_PAGE_SIZE = 1000;
+/** Contacts per tag/event lookup and per write to the native store. */
+const SYNC_BATCH_SIZE = 100;
+/**
+ * How far before the cursor each sync starts reading. updated_at is now(),
+ * the transaction's start time, so a write that started before the last
+ * synced row but committed after that sync carries an older timestamp.
+ * Re-reading the overlap is harmless: upserts are idempotent.
+ */
+const SYNC_CURSOR_OVERLAP_MS = 60 * 1000;
+
+/**
+ * Every contact changed since `cursor` (less SYNC_CURSOR_OVERLAP_MS),
+ * oldest change first. Pages are
+ * keyed on (updated_at, id) rather than offsets, so a contact edited
+ * mid-sync cannot shift another one out of the page it belonged to.
+ */
+const fetchChangedContacts = async (ownerId: string, cursor: string | null): Promise<any[]> => {
+  const rows: any[] = [];
+  for (;;) {
+    let query = supabase
+      .from('contacts')
+      .select('*')
+      .eq('owner_id', ownerId)
+      .order('updated_at', { ascending: true })
+      .order('id', { ascending: true })
+      .limit(SYNC_PAGE_SIZE);
+    if (cursor) {
+      const since = new Date(new Date(cursor).getTime() - SYNC_CURSOR_OVERLAP_MS).toISOString();
+      query = query.gte('updated_at', since);
+    }
+    const last = rows[rows.length - 1];
+    if (last) {
+      query = query.or(
+        `updated_at.gt."${last.updated_at}",and(updated_at.eq."${last.updated_at}",id.gt.${last.id})`
+      );
+    }
+
+    const { data, error } = await query;
+    if (error) throw error;
+    rows.push(...(data || []));
+    if (!data || data.length < SYNC_PAGE_SIZE) return rows;
+  }
+};
+
+/** Ids of all the owner's contacts, paged by id. */
+const fetchContactIds = async (ownerId: string): Promise<string[]> => {
+  const ids: string[] = [];
+  for (;;) {
+    let query = supabase
+      .from('contacts')
+      .select('id')
+      .eq('owner_id', ownerId)
+      .order('id', { ascending: true })
+      .limit(SYNC_PAGE_SIZE);
+    if (ids.length > 0) query = query.gt('id', ids[ids.length - 1]);
+
+    const { data, error } = await query;
+    if (error) throw error;
+    ids.push(...(data || []).map(row => row.id));
+    if (!data || data.length < SYNC_PAGE_SIZE) return ids;
+  }
+};
+
 export function useContacts() {
   const { user } = useAuth();
+  // On Android the native contact store replaces the localStorage cache
+  const nativeStore = hasNativeContactStore();
   // Initialize with cached data for instant display
   const [contacts, setContacts] = useState<Contact[]>(() => 
-    user ? getCachedContacts(user.id) : []
+    user && !nativeStore ? getCachedContacts(user.id) : []
   );
   // Only show loading if no cached data - premium instant feel
   const [loading, setLoading] = useState(() => 
-    user ? getCachedContacts(user.id).length === 0 : false
+    user ? nativeStore || getCachedContacts(user.id).length === 0 : false
   );
   const [initialLoadDone, setInitialLoadDone] = useState(false);
   const [isRevalidating, setIsRevalidating] = useState(false);
 
   useEffect(() => {
-    if (user) {
+    if (user && nativeStore) {
+      // Show what the device already has, then sync the delta
+      loadStoredContacts(user.id)
+        .then((stored) => {
+          if (stored.length > 0) {
+            setContacts(stored);
+            setLoading(false);
+          }
+        })
+        .catch((error) => console.warn('[Contacts] Native store read failed:', error))
+        .finally(() => fetchContacts());
+
+      const handleDataSync = () => {
+        console.log('[Contacts] Data sync triggered - refetching');
+        fetchContacts();
+      };
+      window.addEventListener('synka:data-sync', handleDataSync);
+      return () => window.removeEventListener('synka:data-sync', handleDataSync);
+    } else if (user) {
       // Load from cache instantly for premium feel
       const cached = getCachedContacts(user.id);
       if (cached.length > 0) {
@@ -112,8 +238,44 @@ export function useContacts() {
     }
   }, [user]);
 
+  // Fetch only contacts changed since the store's cursor, plus the id list
+  // so deletions elsewhere drop out of the store
+  const syncNativeContacts = async () => {
+    if (!user) return;
+    const ownerId = user.id;
+
+    try {
+      const cursor = await getContactSyncCursor(ownerId);
+
+      // Changed rows first: a contact created after this read is in the id
+      // list but not stored yet, and is picked up by the next sync
+      const changed = await fetchChangedContacts(ownerId, cursor);
+      const ids = await fetchContactIds(ownerId);
+
+      for (let i = 0; i < changed.length; i += SYNC_BATCH_SIZE) {
+        const upserts = await withTagsAndEvents(changed.slice(i, i + SYNC_BATCH_SIZE));
+        await applyContactDelta(ownerId, { upserts });
+      }
+      // Only once every changed row is stored: pages arrive in updated_at order,
+      // so the last row holds the newest timestamp
+      const nextCursor = changed.length > 0 ? changed[changed.length - 1].updated_at : cursor;
+      await applyContactDelta(ownerId, {
+        retainIds: ids,
+        cursor: nextCursor || undefined,
+      });
+      setContacts(await loadStoredContacts(ownerId));
+    } catch (error) {
+      // Offline or the store failed: keep showing what is on the device
+      console.error('Error syncing contacts:', error);
+    }
+
+    setLoading(false);
+    setInitialLoadDone(true);
+  };
+
   const fetchContacts = async () => {
     if (!user) return;
+    if (nativeStore) return syncNativeContacts();
 
     // Only show loading spinner on initial load when no contacts exist
     if (!initialLoadDone) {
@@ -136,41 +298,12 @@ export function useContacts() {
     }
 
     // Fetch tags for contacts
-    const contactIds = (contactsData || []).map(c => c.id);
-    
-    if (contactIds.length > 0) {
-      const { data: contactTagsData } = await supabase
-        .from('contact_tags')
-        .select('contact_id, tag_id, tags(id, name, color)')
-        .in('contact_id', contactIds);
-
-      const { data: contactEventsData } = await supabase
-        .from('contact_events')
-        .select('contact_id, event_id, events(id, title, start_time, end_time)')
-        .in('contact_id', contactIds);
-
-      const contactTagsMap: Record<string, any[]> = {};
-      const contactEventsMap: Record<string, any[]> = {};
-
-      (contactTagsData || []).forEach((ct: any) => {
-        if (!contactTagsMap[ct.contact_id]) contactTagsMap[ct.contact_id] = [];
-        if (ct.tags) contactTagsMap[ct.contact_id].push(ct.tags);
-      });
-
-      (contactEventsData || []).forEach((ce: any) => {
-        if (!contactEventsMap[ce.contact_id]) contactEventsMap[ce.contact_id] = [];
-        if (ce.events) contactEventsMap[ce.contact_id].push(ce.events);
-      });
-
-      const formattedContacts = (contactsData || []).map(contact => ({
-        ...contact,
-        tags: contactTagsMap[contact.id] || [],
-        events: contactEventsMap[contact.id] || [],
-      }));
+    if (contactsData && contactsData.length > 0) {
+      const formattedContacts = await withTagsAndEvents(contactsData);
 
-      setContacts(formattedContacts as Contact[]);
+      setContacts(formattedContacts);
       // Cache for next visit
-      if (user) setCachedContacts(user.id, formattedContacts as Contact[]);
+      if (user) setCachedContacts(user.id, formattedContacts);
     } else {
       setContacts([]);
       if (user) setCachedContacts(user.id, []);
@@ -253,6 +386,12 @@ export function useContacts() {
 
     if (!error) {
       setContacts(prev => prev.map(c => c.id === id ? { ...c, ...dbUpdates } : c));
+      // Keep the search index in step until the next sync brings the server copy
+      const existing = contacts.find(c => c.id === id);
+      if (nativeStore && user && existing) {
+        applyContactDelta(user.id, { upserts: [{ ...existing, ...dbUpdates }] })
+          .catch((storeError) => console.warn('[Contacts] Native store update failed:', storeError));
+      }
     }
 
     return { error };
@@ -268,17 +407,34 @@ export function useContacts() {
       const updatedContacts = contacts.filter(c => c.id !== id);
       setContacts(updatedContacts);
       // Update cache immediately so deleted contact doesn't flash on page return
-      if (user) setCachedContacts(user.id, updatedContacts);
+      if (user && nativeStore) {
+        applyContactDelta(user.id, { deletes: [id] })
+          .catch((storeError) => console.warn('[Contacts] Native store delete failed:', storeError));
+      } else if (user) {
+        setCachedContacts(user.id, updatedContacts);
+      }
     }
 
     return { error };
   };
 
+  // Re-reads one contact's tags and events into the search index, which
+  // would otherwise wait for the next sync
+  const refreshStoredContact = (contactId: string) => {
+    const existing = contacts.find(c => c.id === contactId);
+    if (!nativeStore || !user || !existing) return;
+    const ownerId = user.id;
+    withTagsAndEvents([existing])
+      .then((upserts) => applyContactDelta(ownerId, { upserts }))
+      .catch((storeError) => console.warn('[Contacts] Native store update failed:', storeError));
+  };
+
   const addTagToContact = async (contactId: string, tagId: string) => {
     const { error } = await supabase
       .from('contact_tags')
       .insert({ contact_id: contactId, tag_id: tagId });
 
+    if (!error) refreshStoredContact(contactId);
     // Don't auto-refetch - let caller handle UI updates
     return { error };
   };
@@ -290,6 +446,7 @@ export function useContacts() {
       .eq('contact_id', contactId)
       .eq('tag_id', tagId);
 
+    if (!error) refreshStoredContact(contactId);
     // Don't auto-refetch - let caller handle UI updates
     return { error };
   };
@@ -299,6 +456,7 @@ export function useContacts() {
       .from('contact_events')
       .insert({ contact_id: contactId, event_id: eventId });
 
+    if (!error) refreshStoredContact(contactId);
     // Don't auto-refetch - let caller handle UI updates
     return { error };
   };
@@ -310,6 +468,7 @@ export function useContacts() {
       .eq('contact_id', contactId)
       .eq('event_id', eventId);
 
+    if (!error) refreshStoredContact(contactId);
     // Don't auto-refetch - let caller handle UI updates
     return { error };
   };
@@ -5,17 +5,39 @@ import { persistForOffline, getOfflineData } from '@/lib/offlineSync';
 import { Capacitor } from '@capacitor/core';
 import WidgetBridge from '@/lib/widgetBridge';
 
-// Helper to sync profile slug to native widget
-const syncWidgetProfileSlug = async (slug: string | null) => {
+// Token registered this session; card_updated pushes then keep the widget
+// and watch current when the profile is edited elsewhere
+let registeredPushToken: string | null = null;
+
+const registerPushToken = async (userId: string) => {
+  if (Capacitor.getPlatform() !== 'android') return;
+
+  try {
+    const { token } = await WidgetBridge.getMessagingToken();
+    if (!token || `${userId}:${token}` === registeredPushToken) return;
+    const { error } = await supabase.rpc('register_push_token', { p_token: token, p_platform: 'android' });
+    if (error) throw error;
+    registeredPushToken = `${userId}:${token}`;
+  } catch (error) {
+    // Without a token the widget still updates whenever the app opens
+    console.log('[Profile] Push token registration skipped:', error);
+  }
+};
+
+// Helper to sync profile slug to native widget and watch
+const syncWidgetProfile = async (data: Profile) => {
+  const slug = data.slug;
   if (!Capacitor.isNativePlatform() || !slug) return;
   
   try {
+    // Name, title and avatar come from the default card; see CardsContext
     await WidgetBridge.updateWidget({ profileSlug: slug });
     console.log('[Profile] Widget synced with slug:', slug);
   } catch (error) {
     // Widget might not be available on all devices
     console.log('[Profile] Widget sync skipped:', error);
   }
+  registerPushToken(data.user_id);
 };
 
 export interface Profile {
@@ -179,7 +201,7 @@ export function useProfile() {
         setProfile(mappedProfile);
         setCachedProfile(user.id, mappedProfile);
         // Sync widget with profile slug
-        syncWidgetProfileSlug(data.slug);
+        syncWidgetProfile(data);
         setLoading(false);
         return;
       }
@@ -216,7 +238,7 @@ export function useProfile() {
           const mappedProfile = mapToCompatProfile(retryData);
           setProfile(mappedProfile);
           setCachedProfile(user.id, mappedProfile);
-          syncWidgetProfileSlug(retryData.slug);
+          syncWidgetProfile(retryData);
         } else {
           setProfile(null);
         }
@@ -224,7 +246,7 @@ export function useProfile() {
         const mappedProfile = mapToCompatProfile(newProfile);
         setProfile(mappedProfile);
         setCachedProfile(user.id, mappedProfile);
-        syncWidgetProfileSlug(newProfile.slug);
+        syncWidgetProfile(newProfile);
       }
     } catch (err) {
       console.error('Unexpected error in fetchProfile:', err);
@@ -728,6 +728,27 @@ export type Database = {
         }
         Relationships: []
       }
+      device_push_tokens: {
+        Row: {
+          platform: string
+          token: string
+          updated_at: string
+          user_id: string
+        }
+        Insert: {
+          platform?: string
+          token: string
+          updated_at?: string
+          user_id: string
+        }
+        Update: {
+          platform?: string
+          token?: string
+          updated_at?: string
+          user_id?: string
+        }
+        Relationships: []
+      }
       email_signatures: {
         Row: {
           created_at: string
@@ -1319,6 +1340,10 @@ export type Database = {
         }
         Returns: Json
       }
+      register_push_token: {
+        Args: { p_platform?: string; p_token: string }
+        Returns: undefined
+      }
       upgrade_user_plan: {
         Args: { _new_plan: string; _user_id: string }
         Returns: boolean
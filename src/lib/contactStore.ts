@@ -0,0 +1,105 @@
+/**
+ * On-device CRM contact index for the Android app.
+ *
+ * The native ContactStore plugin keeps the signed-in user's contacts in
+ * SQLite with a full-text index over name, company, designation, email,
+ * tags and notes. useContacts feeds it deltas from the backend and reads
+ * the list back from it, so the CRM opens without the network; the CRM
+ * search box asks it for ranked matches instead of scanning every contact
+ * on each keystroke.
+ */
+
+import { Capacitor, registerPlugin } from '@capacitor/core';
+import type { Contact } from '@/hooks/useContacts';
+
+interface ContactPage {
+  ids: string[];
+  contacts?: Contact[];
+  total: number;
+}
+
+interface ContactStorePlugin {
+  getSyncState(options: { ownerId: string }): Promise<{ cursor?: string; count: number }>;
+  applyDelta(options: {
+    ownerId: string;
+    upserts?: Contact[];
+    deletes?: string[];
+    retainIds?: string[];
+    cursor?: string;
+  }): Promise<{ count: number }>;
+  query(options: {
+    ownerId: string;
+    query?: string;
+    limit?: number;
+    offset?: number;
+    idsOnly?: boolean;
+  }): Promise<ContactPage>;
+}
+
+const ContactStore = registerPlugin<ContactStorePlugin>('ContactStore');
+
+/** The plugin caps pages at this size. */
+const PAGE_SIZE = 500;
+
+export function hasNativeContactStore(): boolean {
+  return Capacitor.getPlatform() === 'android' && Capacitor.isPluginAvailable('ContactStore');
+}
+
+/**
+ * The cursor saved with the last applied delta, or null before the first
+ * sync. Switching owner wipes the previous owner's contacts.
+ */
+export async function getContactSyncCursor(ownerId: string): Promise<string | null> {
+  const { cursor } = await ContactStore.getSyncState({ ownerId });
+  return cursor ?? null;
+}
+
+/**
+ * Apply one sync delta. With `retainIds`, stored contacts not listed are
+ * removed as well, which is how deletions on other devices arrive.
+ */
+export async function applyContactDelta(
+  ownerId: string,
+  delta: { upserts?: Contact[]; deletes?: string[]; retainIds?: string[]; cursor?: string }
+): Promise<number> {
+  const { count } = await ContactStore.applyDelta({ ownerId, ...delta });
+  return count;
+}
+
+/**
+ * Every stored contact, newest first, read a page at a time so no single
+ * bridge message carries the whole contact book.
+ */
+export async function loadStoredContacts(ownerId: string): Promise<Contact[]> {
+  const contacts: Contact[] = [];
+  let total = Infinity;
+  while (contacts.length < total) {
+    const page = await ContactStore.query({ ownerId, limit: PAGE_SIZE, offset: contacts.length });
+    total = page.total;
+    if (!page.contacts || page.contacts.length === 0) break;
+    contacts.push(...page.contacts);
+  }
+  return contacts;
+}
+
+/**
+ * Ids of contacts matching `query`, best match first. Words match as
+ * prefixes anywhere in the indexed fields, and every word must match.
+ */
+export async function searchStoredContactIds(ownerId: string, query: string): Promise<string[]> {
+  const ids: string[] = [];
+  let total = Infinity;
+  while (ids.length < total) {
+    const page = await ContactStore.query({
+      ownerId,
+      query,
+      limit: PAGE_SIZE,
+      offset: ids.length,
+      idsOnly: true,
+    });
+    total = page.total;
+    if (page.ids.length === 0) break;
+    ids.push(...page.ids);
+  }
+  return ids;
+}
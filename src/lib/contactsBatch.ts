@@ -0,0 +1,101 @@
+/**
+ * Bulk address book import/export for the Android app.
+ *
+ * Saving goes through the native ContactsBatch plugin, which writes chunked
+ * provider transactions off the main thread. Reading streams the address
+ * book back in pages so the WebView never parses one huge array.
+ */
+
+import { Capacitor, registerPlugin } from '@capacitor/core';
+import type { Contact } from '@/hooks/useContacts';
+
+export interface DeviceContact {
+  id: string;
+  name: string | null;
+  company?: string;
+  designation?: string;
+  phone?: string;
+  otherPhones?: string[];
+  email?: string;
+  website?: string;
+  about?: string;
+}
+
+export interface BatchSaveProgress {
+  saved: number;
+  failed: number;
+  total: number;
+}
+
+interface BatchContact {
+  name: string;
+  company?: string | null;
+  designation?: string | null;
+  phone?: string | null;
+  whatsapp?: string | null;
+  email?: string | null;
+  website?: string | null;
+  about?: string | null;
+  photoUrl?: string | null;
+}
+
+interface ContactsBatchPlugin {
+  saveContacts(options: { contacts: BatchContact[]; chunkSize?: number }): Promise<{ saved: number; failed: number }>;
+  readContacts(options: { pageSize?: number }): Promise<{ total: number; pages: number }>;
+  addListener(event: 'saveProgress', listener: (progress: BatchSaveProgress) => void): Promise<{ remove: () => Promise<void> }>;
+  addListener(
+    event: 'contactsPage',
+    listener: (event: { page: number; contacts: DeviceContact[] }) => void
+  ): Promise<{ remove: () => Promise<void> }>;
+}
+
+const ContactsBatch = registerPlugin<ContactsBatchPlugin>('ContactsBatch');
+
+export function isBatchContactsAvailable(): boolean {
+  return Capacitor.getPlatform() === 'android' && Capacitor.isPluginAvailable('ContactsBatch');
+}
+
+/**
+ * Save CRM contacts to the device address book in one native batch.
+ */
+export async function saveContactsBatch(
+  contacts: Contact[],
+  onProgress?: (progress: BatchSaveProgress) => void
+): Promise<{ saved: number; failed: number }> {
+  const listener = onProgress ? await ContactsBatch.addListener('saveProgress', onProgress) : null;
+  try {
+    return await ContactsBatch.saveContacts({
+      contacts: contacts.map((contact) => ({
+        name: contact.name,
+        company: contact.company,
+        designation: contact.designation,
+        phone: contact.phone,
+        whatsapp: contact.whatsapp,
+        email: contact.email,
+        website: contact.website,
+        about: contact.about,
+        photoUrl: contact.photo_url,
+      })),
+    });
+  } finally {
+    await listener?.remove();
+  }
+}
+
+/**
+ * Read the device address book page by page. onPage is called for every
+ * page as it arrives; the returned promise resolves after the last one.
+ */
+export async function readDeviceContacts(
+  onPage: (contacts: DeviceContact[], page: number) => void,
+  pageSize = 200
+): Promise<{ total: number; pages: number }> {
+  const listener = await ContactsBatch.addListener('contactsPage', (event) => onPage(event.contacts, event.page));
+  try {
+    return await ContactsBatch.readContacts({ pageSize });
+  } finally {
+    await listener.remove();
+  }
+}
+
+export default ContactsBatch;
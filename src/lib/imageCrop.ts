@@ -0,0 +1,82 @@
+import { Capacitor, registerPlugin } from '@capacitor/core';
+import { Camera, CameraResultType, CameraSource } from '@capacitor/camera';
+
+export interface NormalizedRect {
+  left: number;
+  top: number;
+  right: number;
+  bottom: number;
+}
+
+export interface ImageCropOutput {
+  /** Longest edge in pixels (default 512); never upscales */
+  size?: number;
+  format?: 'jpeg' | 'webp';
+  /** 10-100 (default 85) */
+  quality?: number;
+}
+
+export interface ImageCropOptions {
+  /** File path, file:// or content:// URI of the source image */
+  path: string;
+  /** Crop in normalized coordinates of the upright image */
+  crop?: NormalizedRect;
+  /** Up to 4 outputs, all drawn from one decode (default one 512px JPEG) */
+  outputs?: ImageCropOutput[];
+}
+
+export interface ImageCropResultFile {
+  /** file:// URI in the app cache */
+  path: string;
+  width: number;
+  height: number;
+  bytes: number;
+  format: 'jpeg' | 'webp';
+}
+
+export interface ImageCropPlugin {
+  process(options: ImageCropOptions): Promise<{ outputs: ImageCropResultFile[]; durationMs: number }>;
+}
+
+const ImageCrop = registerPlugin<ImageCropPlugin>('ImageCrop');
+
+/** Edge of the avatar thumbnail kept for the widget, QuickShare and watch */
+export const AVATAR_THUMBNAIL_SIZE = 128;
+
+export function hasNativeImageCrop(): boolean {
+  return Capacitor.getPlatform() === 'android' && Capacitor.isPluginAvailable('ImageCrop');
+}
+
+/**
+ * Pick a gallery photo as a file, without reading its pixels into the
+ * WebView. Returns null when the user cancels. The File is only for the
+ * crop preview; cropping itself goes through the path.
+ */
+export async function pickImageForCrop(): Promise<{ path: string; file: File } | null> {
+  try {
+    const image = await Camera.getPhoto({
+      resultType: CameraResultType.Uri,
+      source: CameraSource.Photos,
+      // ImageCrop reads EXIF itself; rotating here would decode the full image twice
+      correctOrientation: false,
+    });
+    if (!image.path || !image.webPath) {
+      return null;
+    }
+    const blob = await (await fetch(image.webPath)).blob();
+    return { path: image.path, file: new File([blob], 'photo', { type: blob.type }) };
+  } catch (error: any) {
+    if (error?.message?.includes('cancel')) {
+      return null;
+    }
+    throw error;
+  }
+}
+
+/** Read a file:// output from process() back as a Blob for upload */
+export async function readOutput(output: ImageCropResultFile): Promise<Blob> {
+  const response = await fetch(Capacitor.convertFileSrc(output.path));
+  return response.blob();
+}
+
+export default ImageCrop;
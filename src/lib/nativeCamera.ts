@@ -8,6 +8,7 @@
 
 import { Capacitor } from '@capacitor/core';
 import { Camera, CameraResultType, CameraSource, CameraPermissionState } from '@capacitor/camera';
+import ScanImage, { hasNativeScanImage } from '@/lib/scanImage';
 
 export interface CameraResult {
   success: boolean;
@@ -76,6 +77,10 @@ export async function takePhoto(): Promise<CameraResult> {
       }
     }
 
+    if (hasNativeScanImage()) {
+      return await takePreparedPhoto();
+    }
+
     const image = await Camera.getPhoto({
       quality: 90,
       allowEditing: false,
@@ -110,6 +115,36 @@ export async function takePhoto(): Promise<CameraResult> {
   }
 }
 
+/**
+ * Android app: take the full-size photo as a file and let the native
+ * ScanImage plugin rotate, grayscale, downscale and re-encode it off the
+ * UI thread, so only a compact JPEG crosses the bridge and the network.
+ */
+async function takePreparedPhoto(): Promise<CameraResult> {
+  const image = await Camera.getPhoto({
+    quality: 100,
+    allowEditing: false,
+    resultType: CameraResultType.Uri,
+    source: CameraSource.Camera,
+    correctOrientation: false,
+  });
+
+  if (!image.path) {
+    return { success: false, error: 'No image captured' };
+  }
+
+  const prepared = await ScanImage.prepare({ path: image.path, output: 'base64' });
+  if (!prepared.base64) {
+    return { success: false, error: 'Failed to process image' };
+  }
+
+  return {
+    success: true,
+    base64: prepared.base64,
+    webPath: image.webPath,
+  };
+}
+
 /**
  * Pick a photo from the gallery
  * Returns base64 image data
@@ -1,21 +1,65 @@
 /**
  * NFC Writer Module
  * 
- * IMPORTANT: Native NFC write in Capacitor Android WebView is NOT supported.
  * The Web NFC API (NDEFReader) only works in Chrome browser on Android, NOT in WebView.
+ * In the Android app, writing goes through the native NfcWriter plugin instead, which
+ * uses reader mode and can write a whole queue of tags without returning to JS.
  * 
- * For Capacitor apps, NFC writing requires a native plugin, but compatible Capacitor 7
- * plugins are limited. This module provides:
- * 1. Web browser NFC support (Chrome on Android)
- * 2. Graceful fallback with user-friendly messaging for native apps
- * 
- * PRODUCTION SOLUTION: For full NFC support in native apps, consider:
- * - Building a custom Capacitor plugin
- * - Using a third-party service that provides NFC writing capabilities
- * - Pre-programming NFC tags externally
+ * This module provides:
+ * 1. Native batch writing in the Android app (write, verify and optionally lock)
+ * 2. Web browser NFC support (Chrome on Android)
+ * 3. Graceful fallback with user-friendly messaging elsewhere
  */
 
-import { Capacitor } from '@capacitor/core';
+import { Capacitor, registerPlugin } from '@capacitor/core';
+
+export interface NdefRecordInput {
+  type: 'uri' | 'text' | 'mime';
+  value: string;
+  mimeType?: string;
+}
+
+export interface NfcWriteJob {
+  id?: string;
+  records: NdefRecordInput[];
+}
+
+export interface NfcTagWrittenEvent {
+  index: number;
+  id: string;
+  total: number;
+  tagId: string;
+  locked: boolean;
+  durationMs: number;
+}
+
+export interface NfcTagErrorEvent {
+  index: number;
+  id: string;
+  tagId: string;
+  error: string;
+}
+
+export interface NfcBatchResult {
+  written: number;
+  failedAttempts: number;
+}
+
+interface NfcWriterPlugin {
+  isAvailable(): Promise<{ available: boolean; enabled: boolean }>;
+  startBatch(options: { jobs: NfcWriteJob[]; verify?: boolean; lock?: boolean }): Promise<{ total: number }>;
+  stopBatch(): Promise<void>;
+  addListener(event: 'tagWritten', listener: (event: NfcTagWrittenEvent) => void): Promise<{ remove: () => Promise<void> }>;
+  addListener(event: 'tagError', listener: (event: NfcTagErrorEvent) => void): Promise<{ remove: () => Promise<void> }>;
+  addListener(event: 'tagSkipped', listener: (event: { tagId: string }) => void): Promise<{ remove: () => Promise<void> }>;
+  addListener(event: 'batchComplete', listener: (event: NfcBatchResult) => void): Promise<{ remove: () => Promise<void> }>;
+}
+
+const NfcWriter = registerPlugin<NfcWriterPlugin>('NfcWriter');
+
+function hasNativeWriter(): boolean {
+  return Capacitor.getPlatform() === 'android' && Capacitor.isPluginAvailable('NfcWriter');
+}
 
 export interface NfcWriteResult {
   success: boolean;
@@ -34,8 +78,12 @@ export interface NfcAvailability {
  */
 export function checkNfcAvailability(): NfcAvailability {
   const isNative = Capacitor.isNativePlatform();
+
+  if (hasNativeWriter()) {
+    return { isSupported: true, isNative: true };
+  }
   
-  // On native platforms, NFC write via WebView is not supported
+  // Other native platforms have no NFC write path from the WebView
   if (isNative) {
     return {
       isSupported: false,
@@ -57,12 +105,16 @@ export function checkNfcAvailability(): NfcAvailability {
 }
 
 /**
- * Write a URL to an NFC tag (Web NFC API only)
- * Only works in Chrome browser on Android, NOT in Capacitor WebView
+ * Write a URL to an NFC tag
+ * Uses the native writer in the Android app, Web NFC in Chrome on Android
  * 
  * @param publicUrl - The full URL to write (e.g., https://synka.in/u/john-doe)
  */
 export async function writeNfcUrl(publicUrl: string): Promise<NfcWriteResult> {
+  if (hasNativeWriter()) {
+    return writeNativeSingle([{ type: 'uri', value: publicUrl }]);
+  }
+
   const availability = checkNfcAvailability();
   
   if (!availability.isSupported) {
@@ -102,12 +154,19 @@ export async function writeNfcUrl(publicUrl: string): Promise<NfcWriteResult> {
 }
 
 /**
- * Write URL + vCard data to NFC tag (Web NFC API only)
+ * Write URL + vCard data to NFC tag
  */
 export async function writeNfcWithVCard(
   publicUrl: string, 
   vCardData: string
 ): Promise<NfcWriteResult> {
+  if (hasNativeWriter()) {
+    return writeNativeSingle([
+      { type: 'uri', value: publicUrl },
+      { type: 'mime', mimeType: 'text/vcard', value: vCardData },
+    ]);
+  }
+
   const availability = checkNfcAvailability();
   
   if (!availability.isSupported) {
@@ -138,13 +197,124 @@ export async function writeNfcWithVCard(
     return { success: true };
   } catch (error: any) {
     console.error('NFC write error:', error);
-    return { 
-      success: false, 
-      error: error?.message || 'Failed to write to NFC tag' 
+    return {
+      success: false,
+      error: error?.message || 'Failed to write to NFC tag'
     };
   }
 }
 
+/**
+ * Write a queue of NDEF messages to consecutive tags (Android app only).
+ * Each tap writes the next job; a failed tap is reported and the same job
+ * is retried on the next tag. Call cancel() to stop early; done then
+ * resolves with the tags written and failed attempts so far.
+ */
+export function writeNfcBatch(
+  jobs: NfcWriteJob[],
+  options: {
+    verify?: boolean;
+    lock?: boolean;
+    onWritten?: (event: NfcTagWrittenEvent) => void;
+    onError?: (event: NfcTagErrorEvent) => void;
+  } = {}
+): { done: Promise<NfcBatchResult>; cancel: () => Promise<void> } {
+  const handles: Array<{ remove: () => Promise<void> }> = [];
+  const cleanup = () =>
+    Promise.all(handles.splice(0).map((handle) => handle.remove())).then(() => undefined);
+  const progress: NfcBatchResult = { written: 0, failedAttempts: 0 };
+  let finished = false;
+
+  let resolveDone: (result: NfcBatchResult) => void = () => undefined;
+  let rejectDone: (error: unknown) => void = () => undefined;
+  const done = new Promise<NfcBatchResult>((resolve, reject) => {
+    resolveDone = resolve;
+    rejectDone = reject;
+  });
+
+  const start = async () => {
+    if (!hasNativeWriter()) {
+      throw new Error('Batch NFC writing is only available in the Android app.');
+    }
+    handles.push(await NfcWriter.addListener('tagWritten', (event) => {
+      progress.written++;
+      options.onWritten?.(event);
+    }));
+    handles.push(await NfcWriter.addListener('tagError', (event) => {
+      progress.failedAttempts++;
+      options.onError?.(event);
+    }));
+    handles.push(await NfcWriter.addListener('batchComplete', (result) => {
+      finished = true;
+      cleanup();
+      resolveDone(result);
+    }));
+    if (finished) {
+      // Cancelled while the listeners were being added
+      await cleanup();
+      return;
+    }
+    await NfcWriter.startBatch({ jobs, verify: options.verify, lock: options.lock });
+  };
+
+  start().catch((error) => {
+    finished = true;
+    cleanup();
+    rejectDone(error);
+  });
+
+  const cancel = async () => {
+    if (finished) {
+      return;
+    }
+    finished = true;
+    try {
+      await cleanup();
+      if (hasNativeWriter()) {
+        await NfcWriter.stopBatch();
+      }
+    } finally {
+      resolveDone({ ...progress });
+    }
+  };
+
+  return { done, cancel };
+}
+
+/** How long a single-tag write waits for a tap before giving up. */
+const NATIVE_WRITE_TIMEOUT_MS = 30_000;
+
+/**
+ * Single-tag write through the native plugin. Resolves on the first tap,
+ * successful or not, so the UI behaves like the Web NFC path. Gives up
+ * after NATIVE_WRITE_TIMEOUT_MS without a tap.
+ */
+async function writeNativeSingle(records: NdefRecordInput[]): Promise<NfcWriteResult> {
+  let settle: (result: NfcWriteResult) => void = () => undefined;
+  const outcome = new Promise<NfcWriteResult>((resolve) => {
+    settle = resolve;
+  });
+  const timer = setTimeout(
+    () => settle({ success: false, error: 'No NFC tag detected. Please try again.' }),
+    NATIVE_WRITE_TIMEOUT_MS
+  );
+
+  const batch = writeNfcBatch([{ records }], {
+    onError: (event) => settle({ success: false, error: event.error || 'Failed to write to NFC tag' }),
+  });
+  batch.done.then(
+    () => settle({ success: true }),
+    (error: any) => settle({ success: false, error: error?.message || 'Failed to write to NFC tag' })
+  );
+
+  const result = await outcome;
+  clearTimeout(timer);
+  if (!result.success) {
+    await batch.cancel();
+  }
+  return result;
+}
+
 /**
  * Generate a vCard string from contact data
  */
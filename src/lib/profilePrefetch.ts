@@ -0,0 +1,57 @@
+/**
+ * Public profiles prefetched natively on App Link cold start.
+ *
+ * When a synka.in/u/<slug> link opens the Android app, MainActivity starts
+ * fetching that profile, its default card and photo while the WebView is
+ * still booting. The public card page claims the result here instead of
+ * making the same requests again; without a prefetch it fetches as usual.
+ */
+
+import { Capacitor, registerPlugin } from '@capacitor/core';
+
+export interface PrefetchedProfile {
+  profile: any;
+  card: any | null;
+  /** Photo the page shows (card's, else profile's) */
+  avatarUrl?: string;
+  /** Local copy of avatarUrl, ready for an <img> */
+  avatarSrc?: string;
+}
+
+interface ProfilePrefetchPlugin {
+  claim(options: { slug: string; timeoutMs?: number }): Promise<{
+    found: boolean;
+    profile?: any;
+    card?: any;
+    avatarUrl?: string;
+    avatarPath?: string;
+  }>;
+}
+
+const ProfilePrefetch = registerPlugin<ProfilePrefetchPlugin>('ProfilePrefetch');
+
+function hasNativeProfilePrefetch(): boolean {
+  return Capacitor.getPlatform() === 'android' && Capacitor.isPluginAvailable('ProfilePrefetch');
+}
+
+/**
+ * The prefetched profile for `slug`, or null. Each prefetch is handed out
+ * once, so only the first page load after the link benefits.
+ */
+export async function claimPrefetchedProfile(slug: string): Promise<PrefetchedProfile | null> {
+  if (!hasNativeProfilePrefetch()) return null;
+
+  try {
+    const result = await ProfilePrefetch.claim({ slug });
+    if (!result.found || !result.profile) return null;
+    return {
+      profile: result.profile,
+      card: result.card ?? null,
+      avatarUrl: result.avatarUrl,
+      avatarSrc: result.avatarPath ? Capacitor.convertFileSrc(result.avatarPath) : undefined,
+    };
+  } catch (error) {
+    console.warn('[ProfilePrefetch] Claim failed:', error);
+    return null;
+  }
+}
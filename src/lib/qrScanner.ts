@@ -0,0 +1,36 @@
+import { Capacitor, registerPlugin } from '@capacitor/core';
+
+export interface QrScanResult {
+  text: string;
+  format: string;
+  /** True when the code was a synka.in profile link and the app already navigated to it */
+  routed: boolean;
+}
+
+export interface QrScannerPlugin {
+  scan(): Promise<QrScanResult>;
+}
+
+const QrScanner = registerPlugin<QrScannerPlugin>('QrScanner');
+
+export function hasNativeQrScanner(): boolean {
+  return Capacitor.getPlatform() === 'android' && Capacitor.isPluginAvailable('QrScanner');
+}
+
+/**
+ * Open the native scanner. Resolves with null when the user backs out.
+ * Profile links are routed through the App Link handler (useDeepLink), so
+ * callers only need to act on results where routed is false.
+ */
+export async function scanQrCode(): Promise<QrScanResult | null> {
+  try {
+    return await QrScanner.scan();
+  } catch (error: any) {
+    if (error?.message === 'cancelled') {
+      return null;
+    }
+    throw error;
+  }
+}
+
+export default QrScanner;
@@ -0,0 +1,37 @@
+import { Capacitor, registerPlugin } from '@capacitor/core';
+
+export interface ScanImageOptions {
+  /** File path, file:// or content:// URI of the source photo */
+  path: string;
+  /** Longest edge of the output in pixels (default 1600) */
+  maxEdge?: number;
+  /** JPEG quality 10-100 (default 75) */
+  quality?: number;
+  /** Drop colour before encoding (default true) */
+  grayscale?: boolean;
+  /** Crop in normalized coordinates of the upright image */
+  crop?: { left: number; top: number; right: number; bottom: number };
+  /** Return a cache file URI (default) or the JPEG as base64 */
+  output?: 'file' | 'base64';
+}
+
+export interface ScanImageResult {
+  path?: string;
+  base64?: string;
+  width: number;
+  height: number;
+  bytes: number;
+  durationMs: number;
+}
+
+export interface ScanImagePlugin {
+  prepare(options: ScanImageOptions): Promise<ScanImageResult>;
+}
+
+const ScanImage = registerPlugin<ScanImagePlugin>('ScanImage');
+
+export function hasNativeScanImage(): boolean {
+  return Capacitor.getPlatform() === 'android' && Capacitor.isPluginAvailable('ScanImage');
+}
+
+export default ScanImage;
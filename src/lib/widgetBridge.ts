@@ -1,7 +1,88 @@
 import { registerPlugin } from '@capacitor/core';
 
+export interface OfflineCardFields {
+  name: string;
+  title?: string;
+  company?: string;
+  phone?: string;
+  email?: string;
+  website?: string;
+  address?: string;
+  note?: string;
+}
+
+export interface CardPayloadResult {
+  mode: 'url' | 'vcard';
+  /** Final (possibly trimmed) payload, vcard mode only */
+  content?: string;
+  errorCorrection?: 'L' | 'M' | 'Q' | 'H';
+  modules?: number;
+}
+
+/**
+ * Display fields for native surfaces. Omitted keys keep their stored value;
+ * null clears them. avatarUrl is only downloaded when it changes.
+ */
+export interface CardSnapshotFields {
+  /** cards row id; the default card is the active one */
+  id: string;
+  slug?: string | null;
+  name?: string | null;
+  title?: string | null;
+  company?: string | null;
+  avatarUrl?: string | null;
+  /** Local, already downsized avatar (e.g. an ImageCrop thumbnail) stored instead of fetching avatarUrl */
+  avatarPath?: string | null;
+  /** Make this the card the widget and watch show */
+  active?: boolean;
+}
+
+export interface NativeStageMetrics {
+  count: number;
+  p50: number;
+  p90: number;
+  p99: number;
+  max: number;
+}
+
+/** Latencies in milliseconds; stages appear once they have samples */
+export interface NativeMetrics {
+  qr_encode?: NativeStageMetrics;
+  qr_raster?: NativeStageMetrics;
+  png_compress?: NativeStageMetrics;
+  widget_push?: NativeStageMetrics;
+  widget_latency?: NativeStageMetrics;
+  wear_round_trip?: NativeStageMetrics;
+}
+
+/** Counters for the native WebView image cache since the app started */
+export interface NativeImageCacheStats {
+  hits: number;
+  staleHits: number;
+  misses: number;
+  revalidated: number;
+  evictions: number;
+  errors: number;
+  entries: number;
+  sizeBytes: number;
+}
+
 export interface WidgetBridgePlugin {
-  updateWidget(options: { profileSlug: string }): Promise<void>;
+  updateWidget(options: { profileSlug: string; force?: boolean }): Promise<void>;
+  setCardPayload(options: {
+    mode: 'url' | 'vcard';
+    format?: 'mecard' | 'vcard';
+    card?: OfflineCardFields;
+  }): Promise<CardPayloadResult>;
+  updateCardSnapshot(options: CardSnapshotFields): Promise<{ changed: boolean; hash: string }>;
+  removeCardSnapshot(options: { id: string }): Promise<{ changed: boolean }>;
+  getNativeMetrics(): Promise<{ metrics: NativeMetrics; imageCache: NativeImageCacheStats }>;
+  /** Log metrics to Firebase Analytics every intervalMinutes; 0 stops */
+  setMetricsExport(options: { intervalMinutes: number }): Promise<void>;
+  /** Empties the native image cache when the signed-in user differs from the last one */
+  setImageCacheOwner(options: { userId?: string }): Promise<void>;
+  /** FCM token the backend targets with card_updated pushes */
+  getMessagingToken(): Promise<{ token: string }>;
 }
 
 const WidgetBridge = registerPlugin<WidgetBridgePlugin>('WidgetBridge');
@@ -29,6 +29,7 @@ import {
   Download,
   Lock,
   FileUp,
+  Smartphone,
   X,
 } from 'lucide-react';
 import { hapticFeedback } from '@/lib/haptics';
@@ -89,6 +90,8 @@ import {
   isValidLinkedIn,
 } from '@/lib/inputValidation';
 import { downloadContactsCSV, parseCSV, readFileAsText, downloadSampleCSV } from '@/lib/contactsIO';
+import { hasNativeContactStore, searchStoredContactIds } from '@/lib/contactStore';
+import { isBatchContactsAvailable, readDeviceContacts, saveContactsBatch } from '@/lib/contactsBatch';
 
 // Public site URL - always use production URL for links
 const PUBLIC_SITE_URL = import.meta.env.VITE_PUBLIC_SITE_URL || 'https://synka.in';
@@ -130,6 +133,8 @@ export default function CRM() {
   const [isDragging, setIsDragging] = useState(false);
 
   const [searchQuery, setSearchQuery] = useState('');
+  // Ranked matches from the on-device index (Android); null means filter in JS
+  const [searchRanks, setSearchRanks] = useState<Map<string, number> | null>(null);
   const [isSearchOpen, setIsSearchOpen] = useState(false);
   const [showFilters, setShowFilters] = useState(false);
   const [isFilterOpen, setIsFilterOpen] = useState(false);
@@ -401,6 +406,9 @@ const saveNote = async () => {
   const [isImporting, setIsImporting] = useState(false);
   const [showImportPreview, setShowImportPreview] = useState(false);
   const [importContacts, setImportContacts] = useState<Partial<Contact>[]>([]);
+  const [importSource, setImportSource] = useState<'csv_import' | 'phone_import'>('csv_import');
+  const [isSavingToPhone, setIsSavingToPhone] = useState(false);
+  const batchContacts = isBatchContactsAvailable();
 
   // Check if user has Orange plan
   const isOrangePlan = profile?.plan?.toLowerCase() === 'orange';
@@ -712,11 +720,34 @@ setSelectedContact(prev =>
     return updatedAt;
   };
 
+  // Search the native index instead of scanning every contact per keystroke
+  useEffect(() => {
+    const query = searchQuery.trim();
+    if (!user || !query || !hasNativeContactStore()) {
+      setSearchRanks(null);
+      return;
+    }
+    let cancelled = false;
+    searchStoredContactIds(user.id, query)
+      .then((ids) => {
+        if (!cancelled) setSearchRanks(new Map(ids.map((id, rank) => [id, rank])));
+      })
+      .catch((error) => {
+        console.warn('[CRM] Native search failed:', error);
+        if (!cancelled) setSearchRanks(null);
+      });
+    return () => {
+      cancelled = true;
+    };
+  }, [searchQuery, user, contacts]);
+
   const filteredContacts = localContacts
     .filter((contact) => {
-      const matchesSearch = contact.name.toLowerCase().includes(searchQuery.toLowerCase()) ||
-        contact.company?.toLowerCase().includes(searchQuery.toLowerCase()) ||
-        contact.email?.toLowerCase().includes(searchQuery.toLowerCase());
+      const matchesSearch = searchRanks
+        ? searchRanks.has(contact.id)
+        : contact.name.toLowerCase().includes(searchQuery.toLowerCase()) ||
+          contact.company?.toLowerCase().includes(searchQuery.toLowerCase()) ||
+          contact.email?.toLowerCase().includes(searchQuery.toLowerCase());
 
       const matchesTag =
   activeTagFilter.length === 0 ||
@@ -734,6 +765,10 @@ setSelectedContact(prev =>
       return matchesSearch && matchesTag && matchesEvent && matchesTime;
     })
     .sort((a, b) => {
+      // Best matches first while searching; date groups keep this order within each group
+      if (searchRanks) {
+        return (searchRanks.get(a.id) ?? 0) - (searchRanks.get(b.id) ?? 0);
+      }
       switch (sortBy) {
         case 'name':
           return a.name.localeCompare(b.name);
@@ -1524,6 +1559,7 @@ if (!contacts && contactsLoading) {
       }
       
       setImportContacts(parsed);
+      setImportSource('csv_import');
       setShowImportPreview(true);
     } catch (err) {
       toast({ title: 'Failed to read file', variant: 'destructive' });
@@ -1532,6 +1568,74 @@ if (!contacts && contactsLoading) {
     }
   };
 
+  // Android: read the phone's address book into the same import preview
+  const handleImportFromPhone = async () => {
+    if (!isOrangePlan) {
+      hapticFeedback.light();
+      navigate('/settings/upgrade');
+      return;
+    }
+    hapticFeedback.light();
+
+    try {
+      setIsImporting(true);
+      const deviceContacts: Partial<Contact>[] = [];
+      await readDeviceContacts((page) => {
+        for (const contact of page) {
+          if (!contact.name) continue;
+          deviceContacts.push({
+            name: contact.name,
+            company: contact.company || null,
+            designation: contact.designation || null,
+            phone: contact.phone || null,
+            email: contact.email || null,
+            website: contact.website || null,
+          });
+        }
+      });
+
+      if (deviceContacts.length === 0) {
+        toast({ title: 'No contacts found on this phone', variant: 'destructive' });
+        return;
+      }
+
+      setImportContacts(deviceContacts);
+      setImportSource('phone_import');
+      setShowImportPreview(true);
+    } catch (err) {
+      console.error('Phone contacts read error:', err);
+      toast({ title: 'Could not read phone contacts', variant: 'destructive' });
+    } finally {
+      setIsImporting(false);
+    }
+  };
+
+  // Android: save every CRM contact to the phone's address book in one native batch
+  const handleSaveAllToPhone = async () => {
+    if (!isOrangePlan) {
+      hapticFeedback.light();
+      navigate('/settings/upgrade');
+      return;
+    }
+    if (isSavingToPhone || localContacts.length === 0) return;
+    hapticFeedback.light();
+
+    setIsSavingToPhone(true);
+    try {
+      const { saved, failed } = await saveContactsBatch(localContacts);
+      if (failed === 0) {
+        toast({ title: `Saved ${saved} contacts to your phone` });
+      } else {
+        toast({ title: `Saved ${saved}, Failed ${failed}`, variant: 'destructive' });
+      }
+    } catch (error) {
+      console.error('Save to phone error:', error);
+      toast({ title: 'Save to phone failed', variant: 'destructive' });
+    } finally {
+      setIsSavingToPhone(false);
+    }
+  };
+
   // Confirm import
   const confirmImport = async () => {
   setIsImporting(true);
@@ -1549,7 +1653,7 @@ if (!contacts && contactsLoading) {
       whatsapp: contact.whatsapp || contact.phone || null,
       linkedin: contact.linkedin || null,
       website: contact.website || null,
-      source: 'csv_import',
+      source: importSource,
     });
 
     if (error) {
@@ -1664,6 +1768,22 @@ if (!contacts && contactsLoading) {
                   Export Contacts
                   {!isOrangePlan && <Lock className="ml-auto h-3.5 w-3.5 text-muted-foreground" />}
                 </DropdownMenuItem>
+
+                {batchContacts && (
+                  <>
+                    {/* Phone address book (Android) */}
+                    <DropdownMenuItem onClick={handleImportFromPhone} className="gap-2">
+                      <Smartphone className="h-4 w-4" />
+                      Import from Phone
+                      {!isOrangePlan && <Lock className="ml-auto h-3.5 w-3.5 text-muted-foreground" />}
+                    </DropdownMenuItem>
+                    <DropdownMenuItem onClick={handleSaveAllToPhone} disabled={isSavingToPhone} className="gap-2">
+                      <Smartphone className="h-4 w-4" />
+                      Save All to Phone
+                      {!isOrangePlan && <Lock className="ml-auto h-3.5 w-3.5 text-muted-foreground" />}
+                    </DropdownMenuItem>
+                  </>
+                )}
               </DropdownMenuContent>
             </DropdownMenu>
 
@@ -50,6 +50,8 @@ import { SocialLinksEditor } from '@/components/card/SocialLinksEditor';
 import ImageCropPopup from '@/components/card/ImageCropPopup';
 import ShareableCardImage from '@/components/card/ShareableCardImage';
 import { optimizeCroppedImage, optimizeLogo, deleteStorageImage } from '@/lib/imageOptimization';
+import { hasNativeImageCrop, pickImageForCrop } from '@/lib/imageCrop';
+import WidgetBridge from '@/lib/widgetBridge';
 import { useCardDownload } from '@/hooks/useCardDownload';
 import { Filesystem, Directory, Encoding } from '@capacitor/filesystem';
 import { getPublicCardUrl, getPublicBaseUrl } from '@/lib/publicUrls';
@@ -142,6 +144,7 @@ export default function MyCard() {
   // Image crop popup state
   const [cropPopupOpen, setCropPopupOpen] = useState(false);
   const [pendingImageFile, setPendingImageFile] = useState<File | null>(null);
+  const [pendingImagePath, setPendingImagePath] = useState<string | undefined>(undefined);
   const [isUploadingPhoto, setIsUploadingPhoto] = useState(false);
   
   const photoInputRef = useRef<HTMLInputElement>(null);
@@ -391,6 +394,7 @@ useEffect(() => {
     if (!file || !user || !activeCard) return;
     
     // Open crop popup with the selected file
+    setPendingImagePath(undefined);
     setPendingImageFile(file);
     setCropPopupOpen(true);
     
@@ -398,8 +402,27 @@ useEffect(() => {
     e.target.value = '';
   };
 
+  // Android: pick as a file so the crop can run natively
+  const handlePhotoButton = async () => {
+    if (!hasNativeImageCrop()) {
+      photoInputRef.current?.click();
+      return;
+    }
+    if (!user || !activeCard) return;
+    try {
+      const picked = await pickImageForCrop();
+      if (!picked) return;
+      setPendingImagePath(picked.path);
+      setPendingImageFile(picked.file);
+      setCropPopupOpen(true);
+    } catch (err) {
+      console.warn('[MyCard] Native picker failed, using file input:', err);
+      photoInputRef.current?.click();
+    }
+  };
+
   // Handle cropped image save from popup
-  const handleCroppedImageSave = async (croppedBlob: Blob) => {
+  const handleCroppedImageSave = async (croppedBlob: Blob, thumbnailPath?: string) => {
     if (!user || !activeCard) return;
     
     setIsUploadingPhoto(true);
@@ -437,6 +460,16 @@ useEffect(() => {
 
       setEditData(prev => ({ ...prev, photo_url: publicUrl }));
 
+      if (thumbnailPath) {
+        // Hand the native thumbnail to the widget and watch before updateCard
+        // syncs the new URL, so they never download the photo
+        await WidgetBridge.updateCardSnapshot({
+          id: activeCard.id,
+          avatarUrl: publicUrl,
+          avatarPath: thumbnailPath,
+        }).catch(err => console.log('[MyCard] Card snapshot update skipped:', err));
+      }
+
       await updateCard(activeCard.id, { 
         photo_url: publicUrl,
       });
@@ -454,6 +487,7 @@ useEffect(() => {
     } finally {
       setIsUploadingPhoto(false);
       setPendingImageFile(null);
+      setPendingImagePath(undefined);
     }
   };
 
@@ -990,7 +1024,7 @@ useEffect(() => {
                 <Label className="font-semibold">Photo</Label>
                 <div
                   className="aspect-square rounded-2xl overflow-hidden bg-muted cursor-pointer hover:opacity-80 transition-opacity flex items-center justify-center"
-                  onClick={() => photoInputRef.current?.click()}
+                  onClick={handlePhotoButton}
                 >
                   {editData.photo_url ? (
                     <img
@@ -1015,7 +1049,7 @@ useEffect(() => {
                 <Button
                   variant="outline"
                   className="w-full"
-                  onClick={() => photoInputRef.current?.click()}
+                  onClick={handlePhotoButton}
                   disabled={isLoading}
                 >
                   <Upload className="h-4 w-4 mr-2" />
@@ -1248,7 +1282,7 @@ useEffect(() => {
             <Label className="font-semibold">Photo</Label>
             <div
               className="aspect-square rounded-2xl overflow-hidden bg-muted cursor-pointer hover:opacity-80 transition-opacity flex items-center justify-center"
-              onClick={() => photoInputRef.current?.click()}
+              onClick={handlePhotoButton}
             >
               {editData.photo_url ? (
                 <img
@@ -1273,7 +1307,7 @@ useEffect(() => {
             <Button
               variant="outline"
               className="w-full"
-              onClick={() => photoInputRef.current?.click()}
+              onClick={handlePhotoButton}
               disabled={isLoading}
             >
               <Upload className="h-4 w-4 mr-2" />
@@ -1508,6 +1542,7 @@ useEffect(() => {
             setPendingImageFile(null);
           }}
           imageFile={pendingImageFile}
+          sourcePath={pendingImagePath}
           onSave={handleCroppedImageSave}
         />
       )}
@@ -81,6 +81,7 @@ export default function PublicCard() {
   
   const [profile, setProfile] = useState<(Profile & ProfileCompat) | null>(null);
   const [card, setCard] = useState<Card | null>(null);
+  const [prefetchedAvatar, setPrefetchedAvatar] = useState<{ url: string; src: string } | null>(null);
   const [viewerCard, setViewerCard] = useState<Card | null>(null);
   const [ownerActiveEventId, setOwnerActiveEventId] = useState<string | null>(null);
   const [loading, setLoading] = useState(true);
@@ -189,9 +190,10 @@ useEffect(() => {
     setLoading(true);
     
     // Single optimized query - fetches profile + card together
-    const { profile: profileData, card: cardData } = await getPublicCardData(slug);
+    const { profile: profileData, card: cardData, prefetchedAvatar: avatar } = await getPublicCardData(slug);
     setProfile(profileData);
     setCard(cardData);
+    setPrefetchedAvatar(avatar ?? null);
     
     setLoading(false);
   };
@@ -627,7 +629,7 @@ const saveContactAndShare = async () => {
           <div className="relative pb-4 flex flex-col items-center">
             <CardImageSection
               layout={(card?.layout as LayoutType) || 'photo-logo'}
-              photoUrl={displayData.photo_url}
+              photoUrl={prefetchedAvatar?.url === displayData.photo_url ? prefetchedAvatar.src : displayData.photo_url}
               logoUrl={displayData.logo_url}
               name={displayData.name}
               designation={displayData.designation}
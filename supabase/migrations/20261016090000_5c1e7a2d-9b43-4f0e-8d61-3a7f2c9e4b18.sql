@@ -0,0 +1,27 @@
+-- Tag and event links count as contact changes, so the app's delta sync
+-- (contacts with updated_at at or after its cursor) picks them up.
+-- SECURITY DEFINER because public form submissions link events to a
+-- contact the submitter cannot update.
+CREATE OR REPLACE FUNCTION public.touch_contact_updated_at()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+BEGIN
+  UPDATE public.contacts
+  SET updated_at = now()
+  WHERE id = COALESCE(NEW.contact_id, OLD.contact_id);
+  RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER touch_contact_on_tag_change
+AFTER INSERT OR DELETE ON public.contact_tags
+FOR EACH ROW EXECUTE FUNCTION public.touch_contact_updated_at();
+
+CREATE TRIGGER touch_contact_on_event_change
+AFTER INSERT OR DELETE ON public.contact_events
+FOR EACH ROW EXECUTE FUNCTION public.touch_contact_updated_at();
+
+CREATE INDEX IF NOT EXISTS idx_contacts_owner_updated_at ON public.contacts (owner_id, updated_at);
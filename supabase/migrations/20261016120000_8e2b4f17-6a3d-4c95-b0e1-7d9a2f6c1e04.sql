@@ -0,0 +1,42 @@
+-- FCM tokens for the Android app. The backend sends data-only
+-- card_updated pushes to a user's tokens when their card changes, and the
+-- app applies them to the home screen widget and watch natively.
+CREATE TABLE public.device_push_tokens (
+  token TEXT PRIMARY KEY,
+  user_id UUID NOT NULL REFERENCES auth.users(id) ON DELETE CASCADE,
+  platform TEXT NOT NULL DEFAULT 'android',
+  updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_device_push_tokens_user_id ON public.device_push_tokens(user_id);
+
+ALTER TABLE public.device_push_tokens ENABLE ROW LEVEL SECURITY;
+
+CREATE POLICY "Users can view their own push tokens" ON public.device_push_tokens
+FOR SELECT USING (auth.uid() = user_id);
+
+CREATE POLICY "Users can delete their own push tokens" ON public.device_push_tokens
+FOR DELETE USING (auth.uid() = user_id);
+
+-- A token belongs to the install, not the account: when another user signs
+-- in on the same device the token moves to them, so the previous account's
+-- card never reaches this device again.
+CREATE OR REPLACE FUNCTION public.register_push_token(p_token TEXT, p_platform TEXT DEFAULT 'android')
+RETURNS VOID
+LANGUAGE plpgsql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+BEGIN
+  IF auth.uid() IS NULL THEN
+    RAISE EXCEPTION 'Not authenticated';
+  END IF;
+
+  INSERT INTO public.device_push_tokens (token, user_id, platform, updated_at)
+  VALUES (p_token, auth.uid(), p_platform, now())
+  ON CONFLICT (token) DO UPDATE
+  SET user_id = EXCLUDED.user_id,
+      platform = EXCLUDED.platform,
+      updated_at = now();
+END;
+$$;
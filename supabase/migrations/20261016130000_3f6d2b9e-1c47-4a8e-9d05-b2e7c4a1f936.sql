@@ -0,0 +1,48 @@
+-- Contacts carry copies of their tags' names and colors and their events'
+-- titles and times for the app's delta sync, so editing a tag or event
+-- counts as a change to every contact linked to it.
+CREATE OR REPLACE FUNCTION public.touch_contacts_for_tag()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+BEGIN
+  UPDATE public.contacts
+  SET updated_at = now()
+  WHERE id IN (SELECT contact_id FROM public.contact_tags WHERE tag_id = NEW.id);
+  RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.touch_contacts_for_event()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+BEGIN
+  UPDATE public.contacts
+  SET updated_at = now()
+  WHERE id IN (SELECT contact_id FROM public.contact_events WHERE event_id = NEW.id);
+  RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER touch_contacts_on_tag_update
+AFTER UPDATE OF name, color ON public.tags
+FOR EACH ROW
+WHEN (OLD.name IS DISTINCT FROM NEW.name OR OLD.color IS DISTINCT FROM NEW.color)
+EXECUTE FUNCTION public.touch_contacts_for_tag();
+
+CREATE TRIGGER touch_contacts_on_event_update
+AFTER UPDATE OF title, start_time, end_time ON public.events
+FOR EACH ROW
+WHEN (OLD.title IS DISTINCT FROM NEW.title
+  OR OLD.start_time IS DISTINCT FROM NEW.start_time
+  OR OLD.end_time IS DISTINCT FROM NEW.end_time)
+EXECUTE FUNCTION public.touch_contacts_for_event();
+
+-- Both link tables are keyed (contact_id, ...); the triggers look them up the other way
+CREATE INDEX IF NOT EXISTS idx_contact_tags_tag_id ON public.contact_tags (tag_id);
+CREATE INDEX IF NOT EXISTS idx_contact_events_event_id ON public.contact_events (event_id);